@@ -5,6 +5,7 @@
 package akka.grpc.gen.javadsl
 
 import akka.grpc.gen._
+import com.google.protobuf.DescriptorProtos.MethodOptions
 import com.google.protobuf.Descriptors.{ Descriptor, MethodDescriptor }
 import protocgen.CodeGenRequest
 import scalapb.compiler.{ DescriptorImplicits, GeneratorParams }
@@ -35,6 +36,18 @@ final case class Method(
   def inputTypeUnboxed = getMessageType(inputType)
   def outputTypeUnboxed = getMessageType(outputType)
 
+  /**
+   * Whether the method is marked with `option idempotency_level = NO_SIDE_EFFECTS`
+   */
+  def noSideEffects: Boolean =
+    method.getOptions.getIdempotencyLevel == MethodOptions.IdempotencyLevel.NO_SIDE_EFFECTS
+
+  /**
+   * Whether the method is marked with `option idempotency_level = IDEMPOTENT` or `NO_SIDE_EFFECTS`
+   */
+  def idempotent: Boolean =
+    method.getOptions.getIdempotencyLevel != MethodOptions.IdempotencyLevel.IDEMPOTENCY_UNKNOWN
+
   val methodType: MethodType = {
     (inputStreaming, outputStreaming) match {
       case (false, false) => Unary
@@ -4,6 +4,7 @@
 
 package akka.grpc.gen.scaladsl
 
+import com.google.protobuf.DescriptorProtos.MethodOptions
 import com.google.protobuf.Descriptors.{ Descriptor, MethodDescriptor }
 import akka.grpc.gen._
 import scalapb.compiler.DescriptorImplicits
@@ -42,6 +43,18 @@ case class Method(
     if (outputStreaming) s"akka.stream.scaladsl.Source[${messageType(outputType)}, akka.NotUsed]"
     else s"scala.concurrent.Future[${messageType(outputType)}]"
 
+  /**
+   * Whether the method is marked with `option idempotency_level = NO_SIDE_EFFECTS`
+   */
+  def noSideEffects: Boolean =
+    methodDescriptor.getOptions.getIdempotencyLevel == MethodOptions.IdempotencyLevel.NO_SIDE_EFFECTS
+
+  /**
+   * Whether the method is marked with `option idempotency_level = IDEMPOTENT` or `NO_SIDE_EFFECTS`
+   */
+  def idempotent: Boolean =
+    methodDescriptor.getOptions.getIdempotencyLevel != MethodOptions.IdempotencyLevel.IDEMPOTENCY_UNKNOWN
+
   val methodType: MethodType = {
     (inputStreaming, outputStreaming) match {
       case (false, false) => Unary
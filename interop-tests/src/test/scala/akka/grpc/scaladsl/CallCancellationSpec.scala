@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.scaladsl
+
+import java.util.concurrent.TimeUnit
+
+import scala.concurrent.Future
+import scala.concurrent.Promise
+import scala.concurrent.duration._
+
+import akka.actor.ActorSystem
+import akka.grpc.CallCancellation
+import akka.http.scaladsl.Http
+import akka.testkit.TestKit
+import example.myapp.helloworld.grpc.helloworld._
+import io.grpc.CallOptions
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder
+import io.grpc.stub.ClientCalls
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.Span
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class CallCancellationSpec
+    extends TestKit(ActorSystem("CallCancellationSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  override implicit val patienceConfig: PatienceConfig = PatienceConfig(5.seconds, Span(10, org.scalatest.time.Millis))
+
+  private val cancellation = Promise[Option[CallCancellation]]()
+  private val reply = Promise[HelloReply]()
+
+  private val server =
+    Http()
+      .newServerAt("localhost", 0)
+      .bind(GreeterServicePowerApiHandler(new PowerGreeterServiceImpl() {
+        override def sayHello(in: HelloRequest, metadata: Metadata): Future[HelloReply] = {
+          cancellation.success(CallCancellation.fromMetadata(metadata))
+          reply.future
+        }
+      }))
+      .futureValue
+
+  override protected def afterAll(): Unit = {
+    server.terminate(3.seconds)
+    TestKit.shutdownActorSystem(system)
+  }
+
+  "The call cancellation" should {
+    "not be offered to a unary call without a deadline" in {
+      val channel = NettyChannelBuilder.forAddress("localhost", server.localAddress.getPort).usePlaintext().build()
+      try {
+        val call = ClientCalls.futureUnaryCall(
+          channel.newCall(GreeterService.MethodDescriptors.sayHelloDescriptor, CallOptions.DEFAULT),
+          HelloRequest("Alice"))
+        // Akka HTTP only notices the reset of a unary call once the handler responded
+        cancellation.future.futureValue shouldBe None
+        reply.success(HelloReply("Hello, Alice"))
+        call.get(5, TimeUnit.SECONDS) shouldBe HelloReply("Hello, Alice")
+      } finally channel.shutdownNow()
+    }
+  }
+}
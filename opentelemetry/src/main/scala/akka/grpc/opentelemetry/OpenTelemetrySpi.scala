@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.opentelemetry
+
+import java.lang.{ Iterable => JIterable }
+
+import akka.annotation.ApiMayChange
+import akka.grpc.internal.TelemetrySpi
+import akka.grpc.scaladsl.Metadata
+import io.grpc.Status
+import io.opentelemetry.api.{ GlobalOpenTelemetry, OpenTelemetry }
+import io.opentelemetry.api.common.{ AttributeKey, Attributes }
+import io.opentelemetry.api.metrics.DoubleHistogram
+import io.opentelemetry.api.trace.{ Span, SpanKind, StatusCode, Tracer }
+import io.opentelemetry.context.Context
+import io.opentelemetry.context.propagation.{ TextMapGetter, TextMapPropagator, TextMapSetter }
+
+import scala.collection.{ immutable, mutable }
+import scala.jdk.CollectionConverters._
+
+/**
+ * Traces calls and records the `rpc.server.duration` and `rpc.client.duration` metrics with OpenTelemetry,
+ * following the OpenTelemetry semantic conventions for gRPC.
+ *
+ * Enable it with `akka.grpc.telemetry-class = "akka.grpc.opentelemetry.OpenTelemetrySpi"`, which uses the
+ * `GlobalOpenTelemetry`. Server spans continue the trace propagated in the request headers, client spans are
+ * children of the span that is current when the call is made, and their context is propagated to the server. The
+ * server span is current while the server handler is invoked, so calls made from the handler are part of the trace,
+ * code running on other threads, like `Future` callbacks, needs an executor that propagates the OpenTelemetry
+ * context to see it.
+ */
+@ApiMayChange
+final class OpenTelemetrySpi(openTelemetry: OpenTelemetry) extends TelemetrySpi {
+  import OpenTelemetrySpi._
+
+  def this() = this(GlobalOpenTelemetry.get())
+
+  private val tracer: Tracer = openTelemetry.getTracer(InstrumentationName)
+  private val propagator: TextMapPropagator = openTelemetry.getPropagators.getTextMapPropagator
+  private val meter = openTelemetry.getMeter(InstrumentationName)
+  private val serverDuration: DoubleHistogram =
+    meter
+      .histogramBuilder("rpc.server.duration")
+      .setDescription("Measures the duration of inbound RPC")
+      .setUnit("ms")
+      .build()
+  private val clientDuration: DoubleHistogram =
+    meter
+      .histogramBuilder("rpc.client.duration")
+      .setDescription("Measures the duration of outbound RPC")
+      .setUnit("ms")
+      .build()
+
+  override def onCallStart(client: Boolean, service: String, method: String): AnyRef =
+    start(if (client) SpanKind.CLIENT else SpanKind.SERVER, service, method, Context.current())
+
+  override def onServerCallStart(service: String, method: String, headers: Metadata): AnyRef =
+    start(SpanKind.SERVER, service, method, propagator.extract(Context.root(), headers, MetadataGetter))
+
+  private def start(kind: SpanKind, service: String, method: String, parent: Context): CallContext = {
+    val attributes = Attributes.of(RpcSystem, "grpc", RpcService, service, RpcMethod, method)
+    val span = tracer
+      .spanBuilder(s"$service/$method")
+      .setSpanKind(kind)
+      .setParent(parent)
+      .setAllAttributes(attributes)
+      .startSpan()
+    new CallContext(kind, span, parent.`with`(span), attributes)
+  }
+
+  override def inServerCallScope[T](context: AnyRef)(handle: () => T): T = {
+    val scope = context.asInstanceOf[CallContext].context.makeCurrent()
+    try handle()
+    finally scope.close()
+  }
+
+  override def clientCallHeaders(context: AnyRef): immutable.Seq[(String, String)] = {
+    val call = context.asInstanceOf[CallContext]
+    val headers: HeadersBuilder = List.newBuilder[(String, String)]
+    propagator.inject(Context.root().`with`(call.span), headers, HeadersSetter)
+    headers.result()
+  }
+
+  override def onMessageReceived(context: AnyRef, sizeBytes: Int): Unit =
+    context.asInstanceOf[CallContext].span.addEvent("message", messageAttributes("RECEIVED", sizeBytes))
+
+  override def onMessageSent(context: AnyRef, sizeBytes: Int): Unit =
+    context.asInstanceOf[CallContext].span.addEvent("message", messageAttributes("SENT", sizeBytes))
+
+  override def onCallEnd(context: AnyRef, status: Status, durationNanos: Long): Unit = {
+    val call = context.asInstanceOf[CallContext]
+    val code = status.getCode
+    val statusCode = java.lang.Long.valueOf(code.value.toLong)
+    call.span.setAttribute(RpcGrpcStatusCode, statusCode)
+    if (isError(call.kind, code)) call.span.setStatus(StatusCode.ERROR, Option(status.getDescription).getOrElse(""))
+    call.span.end()
+
+    val attributes = call.attributes.toBuilder.put(RpcGrpcStatusCode, statusCode).build()
+    val histogram = if (call.kind == SpanKind.CLIENT) clientDuration else serverDuration
+    histogram.record(durationNanos / 1000000.0, attributes)
+  }
+}
+
+object OpenTelemetrySpi {
+  private val InstrumentationName = "akka-grpc"
+
+  private val RpcSystem = AttributeKey.stringKey("rpc.system")
+  private val RpcService = AttributeKey.stringKey("rpc.service")
+  private val RpcMethod = AttributeKey.stringKey("rpc.method")
+  private val RpcGrpcStatusCode = AttributeKey.longKey("rpc.grpc.status_code")
+  private val MessageType = AttributeKey.stringKey("message.type")
+  private val MessageUncompressedSize = AttributeKey.longKey("message.uncompressed_size")
+
+  // the server only marks the span as failed for the status codes that indicate a server error
+  private val ServerErrors = Set(
+    Status.Code.UNKNOWN,
+    Status.Code.DEADLINE_EXCEEDED,
+    Status.Code.UNIMPLEMENTED,
+    Status.Code.INTERNAL,
+    Status.Code.UNAVAILABLE,
+    Status.Code.DATA_LOSS)
+
+  private final class CallContext(val kind: SpanKind, val span: Span, val context: Context, val attributes: Attributes)
+
+  private def isError(kind: SpanKind, code: Status.Code): Boolean =
+    if (kind == SpanKind.CLIENT) code != Status.Code.OK
+    else ServerErrors.contains(code)
+
+  private def messageAttributes(messageType: String, sizeBytes: Int): Attributes =
+    Attributes.of(MessageType, messageType, MessageUncompressedSize, java.lang.Long.valueOf(sizeBytes.toLong))
+
+  private object MetadataGetter extends TextMapGetter[Metadata] {
+    override def keys(carrier: Metadata): JIterable[String] = carrier.asMap.keys.asJava
+    override def get(carrier: Metadata, key: String): String = carrier.getText(key).orNull
+  }
+
+  private type HeadersBuilder = mutable.Builder[(String, String), List[(String, String)]]
+
+  private object HeadersSetter extends TextMapSetter[HeadersBuilder] {
+    override def set(carrier: HeadersBuilder, key: String, value: String): Unit =
+      carrier += (key -> value)
+  }
+}
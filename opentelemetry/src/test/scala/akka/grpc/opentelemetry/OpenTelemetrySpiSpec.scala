@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.opentelemetry
+
+import akka.grpc.internal.{ CallTelemetry, GrpcProtocolNative }
+import akka.grpc.scaladsl.MetadataBuilder
+import akka.http.scaladsl.model.{ HttpEntity, HttpMethods, HttpRequest, HttpResponse }
+import akka.http.scaladsl.model.headers.RawHeader
+import akka.util.ByteString
+import io.grpc.Status
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.trace.{ Span, SpanKind, StatusCode }
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator
+import io.opentelemetry.context.propagation.ContextPropagators
+import io.opentelemetry.sdk.OpenTelemetrySdk
+import io.opentelemetry.sdk.metrics.SdkMeterProvider
+import io.opentelemetry.sdk.testing.exporter.{ InMemoryMetricReader, InMemorySpanExporter }
+import io.opentelemetry.sdk.trace.SdkTracerProvider
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor
+import org.scalatest.LoneElement
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.concurrent.Future
+import scala.jdk.CollectionConverters._
+
+class OpenTelemetrySpiSpec extends AnyWordSpec with Matchers with LoneElement {
+
+  class Fixture {
+    val spans = InMemorySpanExporter.create()
+    val metrics = InMemoryMetricReader.create()
+    val sdk = OpenTelemetrySdk
+      .builder()
+      .setTracerProvider(SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(spans)).build())
+      .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(metrics).build())
+      .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+      .build()
+    val spi = new OpenTelemetrySpi(sdk)
+  }
+
+  val traceId = "4bf92f3577b34da6a3ce929d0e0e4736"
+  val parentSpanId = "00f067aa0ba902b7"
+
+  "The OpenTelemetrySpi" should {
+    "create a server span continuing the propagated trace" in new Fixture {
+      val headers = new MetadataBuilder().addText("traceparent", s"00-$traceId-$parentSpanId-01").build()
+      val context = spi.onServerCallStart("test.Service", "Get", headers)
+      spi.onMessageReceived(context, 10)
+      spi.onCallEnd(context, Status.INTERNAL, 5000000L)
+
+      val span = spans.getFinishedSpanItems.asScala.loneElement
+      span.getName shouldBe "test.Service/Get"
+      span.getKind shouldBe SpanKind.SERVER
+      span.getTraceId shouldBe traceId
+      span.getParentSpanId shouldBe parentSpanId
+      span.getStatus.getStatusCode shouldBe StatusCode.ERROR
+      span.getAttributes.get(AttributeKey.longKey("rpc.grpc.status_code")) shouldBe 13L
+      span.getEvents.asScala.map(_.getName) shouldBe Seq("message")
+
+      val duration = metrics.collectAllMetrics().asScala.find(_.getName == "rpc.server.duration").get
+      duration.getHistogramData.getPoints.asScala.loneElement.getSum shouldBe 5.0
+    }
+
+    "parent client spans started by the server handler to the server span" in new Fixture {
+      val request = HttpRequest(
+        HttpMethods.POST,
+        "/test.Service/Get",
+        entity = HttpEntity(GrpcProtocolNative.contentType, ByteString.empty))
+      val response = HttpResponse(
+        headers = List(RawHeader("grpc-status", "0")),
+        entity = HttpEntity(GrpcProtocolNative.contentType, ByteString.empty))
+      CallTelemetry.instrumentServer(spi, "test.Service", "Get", request) { _ =>
+        val context = spi.onCallStart(client = true, "test.Other", "Call")
+        spi.onCallEnd(context, Status.OK, 1000000L)
+        Future.successful(response)
+      }
+      Span.current() shouldBe Span.getInvalid
+
+      val finished = spans.getFinishedSpanItems.asScala
+      val serverSpan = finished.find(_.getKind == SpanKind.SERVER).get
+      val clientSpan = finished.find(_.getKind == SpanKind.CLIENT).get
+      clientSpan.getTraceId shouldBe serverSpan.getTraceId
+      clientSpan.getParentSpanId shouldBe serverSpan.getSpanId
+    }
+
+    "propagate the client span to the server" in new Fixture {
+      val context = spi.onCallStart(client = true, "test.Service", "Get")
+      val headers = spi.clientCallHeaders(context).toMap
+      spi.onCallEnd(context, Status.OK, 1000000L)
+
+      val span = spans.getFinishedSpanItems.asScala.loneElement
+      span.getKind shouldBe SpanKind.CLIENT
+      span.getStatus.getStatusCode shouldBe StatusCode.UNSET
+      headers("traceparent") shouldBe s"00-${span.getTraceId}-${span.getSpanId}-01"
+      metrics.collectAllMetrics().asScala.map(_.getName) should contain("rpc.client.duration")
+    }
+  }
+}
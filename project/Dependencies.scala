@@ -36,6 +36,8 @@ object Dependencies {
 
     val scalaTest = "3.2.12"
 
+    val openTelemetry = "1.55.0"
+
     val maven = "3.9.10"
   }
 
@@ -63,6 +65,8 @@ object Dependencies {
       .exclude("io.grpc", "grpc-alts")
       .exclude("io.grpc", "grpc-xds")
 
+    val hdrHistogram = "org.hdrhistogram" % "HdrHistogram" % "2.2.2" // CC0 / BSD 2-Clause
+    val openTelemetryApi = "io.opentelemetry" % "opentelemetry-api" % Versions.openTelemetry // Apache v2
     val slf4jApi = "org.slf4j" % "slf4j-api" % "2.0.17"
     val mavenPluginApi = "org.apache.maven" % "maven-plugin-api" % Versions.maven // Apache v2
     val mavenCore = "org.apache.maven" % "maven-core" % Versions.maven // Apache v2
@@ -79,6 +83,8 @@ object Dependencies {
     val akkaTestkit = "com.typesafe.akka" %% "akka-testkit" % Versions.akka % "test"
     val akkaTestkitTyped = "com.typesafe.akka" %% "akka-actor-testkit-typed" % Versions.akka % "test"
     val akkaStreamTestkit = "com.typesafe.akka" %% "akka-stream-testkit" % Versions.akka % "test"
+    val openTelemetrySdkTesting =
+      "io.opentelemetry" % "opentelemetry-sdk-testing" % Versions.openTelemetry % "test" // Apache v2
   }
 
   object Runtime {
@@ -119,11 +125,19 @@ object Dependencies {
     Compile.akkaHttp,
     Compile.akkaPki,
     Compile.akkaDiscovery,
+    Compile.hdrHistogram,
     Test.akkaTestkit,
     Test.akkaStreamTestkit,
     Test.scalaTest,
     Test.scalaTestPlusJunit)
 
+  val openTelemetry = l ++= Seq(
+    Compile.openTelemetryApi,
+    Test.akkaTestkit,
+    Test.openTelemetrySdkTesting,
+    Test.scalaTest,
+    Test.scalaTestPlusJunit)
+
   val mavenPlugin = l ++= Seq(
     Compile.slf4jApi,
     Compile.mavenPluginApi,
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import java.util.Optional
+import java.util.concurrent.CompletionStage
+
+import akka.Done
+import akka.annotation.{ ApiMayChange, InternalApi }
+import akka.http.scaladsl.model.AttributeKey
+import io.grpc.Status
+
+import scala.concurrent.{ ExecutionContext, Future, Promise }
+import scala.jdk.FutureConverters._
+
+object CallCancellation {
+
+  /**
+   * The request attribute holding the cancellation signal of a call handled by a generated server handler.
+   */
+  val attributeKey: AttributeKey[CallCancellation] = AttributeKey[CallCancellation]("grpc-call-cancellation")
+
+  /**
+   * Scala API: The cancellation signal of the call the metadata was received with.
+   */
+  def fromMetadata(metadata: scaladsl.Metadata): Option[CallCancellation] =
+    metadata.attribute(attributeKey).map(_.track())
+
+  /**
+   * Java API: The cancellation signal of the call the metadata was received with.
+   */
+  def fromMetadata(metadata: javadsl.Metadata): Optional[CallCancellation] =
+    metadata.getAttribute(attributeKey).map(_.track())
+}
+
+/**
+ * Signals that nobody is waiting for the response of a call handled by a generated server handler anymore, so that
+ * expensive work for it can be aborted. Available to power API implementations through the metadata, see
+ * [[CallCancellation.fromMetadata]].
+ *
+ * The call is cancelled with status `CANCELLED` when the client reset the call, and with `DEADLINE_EXCEEDED` when
+ * the deadline sent by the client passed. A reset is noticed when the response is cancelled, and for calls with a
+ * deadline also when the request stream fails because the client was still sending. Akka HTTP only cancels the
+ * response of a reset call once the handler created it, so calls responding with a single message, unary and client
+ * streaming calls, only have a cancellation if the client sent a deadline, otherwise `fromMetadata` returns none.
+ * Calls without a deadline are only watched if the handler looked up the cancellation with `fromMetadata` before
+ * responding.
+ */
+@ApiMayChange
+final class CallCancellation @InternalApi private[akka] () {
+  private val promise = Promise[Status]()
+  // calls without a deadline are only watched for a reset if the handler looked up the cancellation
+  @volatile private var tracked = false
+
+  /**
+   * Scala API: Completed when the call is cancelled, never completed for calls that complete normally.
+   */
+  def cancelled: Future[Done] = promise.future.map(_ => Done)(ExecutionContext.parasitic)
+
+  /**
+   * Java API: Completed when the call is cancelled, never completed for calls that complete normally.
+   */
+  def getCancelled: CompletionStage[Done] = cancelled.asJava
+
+  def isCancelled: Boolean = promise.isCompleted
+
+  /**
+   * Scala API: Completes with the result of `future`, or fails with a [[GrpcServiceException]] with status
+   * `CANCELLED` or `DEADLINE_EXCEEDED` if the call is cancelled first.
+   */
+  def race[T](future: Future[T]): Future[T] = {
+    val failOnCancel =
+      promise.future.flatMap(status => Future.failed[T](new GrpcServiceException(status)))(ExecutionContext.parasitic)
+    Future.firstCompletedOf(List(future, failOnCancel))(ExecutionContext.parasitic)
+  }
+
+  /**
+   * Java API: Completes with the result of `stage`, or fails with a [[GrpcServiceException]] with status
+   * `CANCELLED` or `DEADLINE_EXCEEDED` if the call is cancelled first.
+   */
+  def race[T](stage: CompletionStage[T]): CompletionStage[T] =
+    race(stage.asScala).asJava
+
+  /**
+   * INTERNAL API
+   */
+  @InternalApi
+  private[akka] def cancel(status: Status): Unit = promise.trySuccess(status)
+
+  /**
+   * INTERNAL API
+   */
+  @InternalApi
+  private[akka] def track(): CallCancellation = {
+    tracked = true
+    this
+  }
+
+  /**
+   * INTERNAL API
+   */
+  @InternalApi
+  private[akka] def isTracked: Boolean = tracked
+
+  override def toString: String = s"CallCancellation(cancelled = $isCancelled)"
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import akka.annotation.ApiMayChange
+import akka.grpc.internal.WithProtobufSerializer
+import akka.util.ByteString
+import io.grpc.MethodDescriptor
+
+/**
+ * Decides which unary calls on a channel with request coalescing enabled can share a single in-flight call.
+ * Calls to the same method for which the same key is extracted while a call is in flight get the response of that
+ * call instead of making a call of their own.
+ *
+ * The shared call uses the headers and deadline of the call that started it, so only coalesce requests for methods
+ * that are idempotent and where the headers do not affect the response.
+ */
+@ApiMayChange
+trait CoalescingKeyExtractor {
+
+  /**
+   * @return a key with proper `equals` and `hashCode`, identifying requests to `method` that can share one call,
+   *         or `null` if the request should not be coalesced
+   */
+  def extractKey(method: MethodDescriptor[_, _], request: Any): AnyRef
+}
+
+object CoalescingKeyExtractor {
+
+  /**
+   * Coalesces all unary calls to the same method with the same serialized request.
+   */
+  val methodAndRequestBytes: CoalescingKeyExtractor = new CoalescingKeyExtractor {
+    override def extractKey(method: MethodDescriptor[_, _], request: Any): AnyRef =
+      method.getRequestMarshaller match {
+        case withSerializer: WithProtobufSerializer[Any] @unchecked =>
+          withSerializer.protobufSerializer.serialize(request)
+        case _ =>
+          val stream = method.asInstanceOf[MethodDescriptor[Any, Any]].streamRequest(request)
+          try ByteString.fromArrayUnsafe(stream.readAllBytes())
+          finally stream.close()
+      }
+  }
+}
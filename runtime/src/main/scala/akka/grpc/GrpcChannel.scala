@@ -11,7 +11,7 @@ import scala.jdk.FutureConverters._
 
 import akka.Done
 import akka.actor.ClassicActorSystemProvider
-import akka.annotation.InternalStableApi
+import akka.annotation.{ ApiMayChange, InternalApi, InternalStableApi }
 import akka.grpc.internal.{ ChannelUtils, InternalChannel }
 import akka.grpc.scaladsl.Grpc
 
@@ -34,6 +34,15 @@ final class GrpcChannel private (
   def closedCS(): CompletionStage[Done] =
     closed().asJava
 
+  /**
+   * Java API: Connects to the service if not connected yet, so that the first calls do not wait for the connection
+   * and TLS handshake. Returns a CompletionStage that completes when the channel has a ready connection, or
+   * exceptionally if the channel is closed before that.
+   */
+  @ApiMayChange
+  def warmUpCS(): CompletionStage[Done] =
+    warmUp().asJava
+
   /**
    * Scala API: Initiates a shutdown in which preexisting and new calls are cancelled.
    */
@@ -48,12 +57,39 @@ final class GrpcChannel private (
    */
   def closed(): Future[akka.Done] =
     internalChannel.done
+
+  /**
+   * Scala API: Connects to the service if not connected yet, so that the first calls do not wait for the connection
+   * and TLS handshake. Returns a Future that completes when the channel has a ready connection, or fails if the
+   * channel is closed before that.
+   *
+   * With the Netty client backend and a load balancing policy like `round_robin`, connections to all discovered
+   * endpoints are started and the Future completes when the first of them is ready. The Akka HTTP client backend
+   * uses a single connection.
+   */
+  @ApiMayChange
+  def warmUp(): Future[Done] =
+    internalChannel.warmUp()
 }
 
 object GrpcChannel {
-  def apply(settings: GrpcClientSettings)(implicit sys: ClassicActorSystemProvider): GrpcChannel = {
-    new GrpcChannel(
-      settings,
-      ChannelUtils.create(settings, akka.event.Logging(sys.classicSystem, classOf[GrpcChannel])))
-  }
+
+  /**
+   * A new channel for the given settings, or a channel sharing the underlying channel with all channels for
+   * equivalent settings if `share-channel` is enabled, see [[GrpcChannelRegistry]].
+   */
+  def apply(settings: GrpcClientSettings)(implicit sys: ClassicActorSystemProvider): GrpcChannel =
+    if (settings.shareChannel) GrpcChannelRegistry(sys).acquire(settings)
+    else
+      new GrpcChannel(
+        settings,
+        ChannelUtils.create(settings, akka.event.Logging(sys.classicSystem, classOf[GrpcChannel])))
+
+  /**
+   * INTERNAL API
+   */
+  @InternalApi
+  private[akka] def fromInternalChannel(settings: GrpcClientSettings, internalChannel: InternalChannel)(
+      implicit sys: ClassicActorSystemProvider): GrpcChannel =
+    new GrpcChannel(settings, internalChannel)
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicBoolean
+
+import akka.{ Done, NotUsed }
+import akka.actor.{ ActorSystem, ClassicActorSystemProvider, ExtendedActorSystem, Extension, ExtensionId }
+import akka.annotation.{ ApiMayChange, InternalApi }
+import akka.event.Logging
+import akka.grpc.internal.{ ChannelUtils, InternalChannel, MetadataImpl, RetryBudget }
+import akka.stream.scaladsl.Source
+import io.grpc.{ CallOptions, MethodDescriptor }
+
+import scala.concurrent.{ ExecutionContext, Future, Promise }
+import scala.util.control.NonFatal
+
+/**
+ * Shares channels between all clients of the actor system that are created from equivalent [[GrpcClientSettings]],
+ * so that they share the connections, the name resolution and the discovery refresh instead of each client having
+ * its own. `GrpcChannel(settings)` uses the registry when `share-channel` is enabled in the settings.
+ */
+@ApiMayChange
+object GrpcChannelRegistry extends ExtensionId[GrpcChannelRegistry] {
+  override def createExtension(system: ExtendedActorSystem): GrpcChannelRegistry = {
+    val log = Logging(system, classOf[GrpcChannel])
+    new GrpcChannelRegistry(settings => ChannelUtils.create(settings, log)(system))(system)
+  }
+
+  /** Java API */
+  override def get(system: ActorSystem): GrpcChannelRegistry = super.get(system)
+  override def get(system: ClassicActorSystemProvider): GrpcChannelRegistry = super.get(system)
+
+  /**
+   * Settings are equivalent when all settings but the deadline and `share-channel` are equal, settings without a
+   * meaningful equality, like the channel builder overrides, an SSL context or a trust manager, must be the same
+   * instance. Settings read from config share the trust manager for the same `trusted` resource.
+   */
+  private final case class ChannelKey(values: List[Any])
+
+  private object ChannelKey {
+    def apply(settings: GrpcClientSettings): ChannelKey = {
+      import settings._
+      ChannelKey(
+        List(
+          serviceName,
+          serviceDiscovery,
+          defaultPort,
+          resolveTimeout,
+          servicePortName,
+          serviceProtocol,
+          connectionAttempts,
+          callCredentials,
+          overrideAuthority,
+          sslProvider,
+          sslContext,
+          trustManager,
+          sslContextProvider,
+          userAgent,
+          useTls,
+          loadBalancingPolicy,
+          backend,
+          channelBuilderOverrides,
+          discoveryRefreshInterval,
+          eagerConnection,
+          retryBudgetMaxTokens,
+          retryBudgetTokenRatio,
+          requestCoalescing,
+          responseCacheMaxEntries,
+          responseCacheTimeToLive,
+          responseCacheKeyHeaders,
+          responseDeserializationParallelism,
+          localZone,
+          targetAttributes,
+          outlierDetection,
+          keepAliveTime,
+          keepAliveTimeout,
+          idleTimeout,
+          initialWindowSize,
+          maxInboundMessageSize,
+          nettyTransport,
+          grpcWeb,
+          // the circuit breaker of the channel counts calls over the deadline as failures
+          circuitBreaker.map(_ -> deadline)))
+    }
+  }
+
+  /**
+   * One client's use of a shared channel, shutting it down only releases this lease.
+   */
+  private final class Lease(delegate: InternalChannel, release: () => Boolean) extends InternalChannel {
+    private val released = new AtomicBoolean(false)
+    private val closed = Promise[Done]()
+    closed.completeWith(delegate.done)
+
+    override def invoke[I, O](
+        request: I,
+        headers: MetadataImpl,
+        descriptor: MethodDescriptor[I, O],
+        options: CallOptions): Future[O] =
+      delegate.invoke(request, headers, descriptor, options)
+
+    override def invokeWithMetadata[I, O](
+        request: I,
+        headers: MetadataImpl,
+        descriptor: MethodDescriptor[I, O],
+        options: CallOptions): Future[GrpcSingleResponse[O]] =
+      delegate.invokeWithMetadata(request, headers, descriptor, options)
+
+    override def invokeWithMetadata[I, O](
+        source: Source[I, NotUsed],
+        headers: MetadataImpl,
+        descriptor: MethodDescriptor[I, O],
+        streamingResponse: Boolean,
+        options: CallOptions): Source[O, Future[GrpcResponseMetadata]] =
+      delegate.invokeWithMetadata(source, headers, descriptor, streamingResponse, options)
+
+    override def shutdown(): Unit =
+      if (released.compareAndSet(false, true)) {
+        // the last lease completes when the underlying channel is shut down
+        val last = release()
+        if (!last) closed.trySuccess(Done)
+      }
+
+    override def done: Future[Done] = closed.future
+
+    override def retryBudget: Option[RetryBudget] = delegate.retryBudget
+
+    override def warmUp(): Future[Done] = delegate.warmUp()
+  }
+}
+
+@ApiMayChange
+final class GrpcChannelRegistry private[akka] (create: GrpcClientSettings => InternalChannel)(
+    implicit sys: ClassicActorSystemProvider)
+    extends Extension {
+  import GrpcChannelRegistry._
+
+  private val channels = new ConcurrentHashMap[ChannelKey, SharedChannel]()
+
+  /**
+   * The underlying channel is created by the first client that uses it, outside of the compute functions of the map,
+   * so that its construction does not hold the lock of the map entry.
+   */
+  private final class SharedChannel(key: ChannelKey, settings: GrpcClientSettings) {
+    // only accessed inside the compute functions of the map
+    var leases = 0
+    @volatile private var created: InternalChannel = _
+    // guarded by this, the clients that acquired the channel before it failed to be created fail the same way
+    private var failure: Throwable = _
+
+    def channel: InternalChannel = {
+      if (created eq null) synchronized {
+        if (failure ne null) throw failure
+        if (created eq null) {
+          val channel =
+            try create(settings)
+            catch {
+              case NonFatal(ex) =>
+                failure = ex
+                channels.remove(key, this)
+                throw ex
+            }
+          channel.done.onComplete(_ => channels.remove(key, this))(ExecutionContext.parasitic)
+          created = channel
+        }
+      }
+      created
+    }
+
+    def isClosed: Boolean = {
+      val channel = created
+      (channel ne null) && channel.done.isCompleted
+    }
+  }
+
+  /**
+   * A channel for the given settings sharing the underlying channel with all other channels acquired for equivalent
+   * settings, the underlying channel is created for the first one. Closing the returned channel releases it, the
+   * underlying channel is closed once all channels acquired for it are closed.
+   *
+   * A channel that was closed because it could not connect is not shared any more, the next channel acquired for
+   * equivalent settings creates a new one.
+   */
+  def acquire(settings: GrpcClientSettings): GrpcChannel = {
+    val key = ChannelKey(settings)
+    val shared = channels.compute(
+      key,
+      (_: ChannelKey, existing: SharedChannel) => {
+        val current = if ((existing ne null) && !existing.isClosed) existing else new SharedChannel(key, settings)
+        current.leases += 1
+        current
+      })
+    GrpcChannel.fromInternalChannel(settings, new Lease(shared.channel, () => release(key, shared)))
+  }
+
+  /**
+   * @return true if this was the last lease and the underlying channel was shut down
+   */
+  private def release(key: ChannelKey, shared: SharedChannel): Boolean = {
+    var last = false
+    channels.computeIfPresent(
+      key,
+      (_: ChannelKey, current: SharedChannel) =>
+        if (current ne shared) current
+        else {
+          current.leases -= 1
+          last = current.leases == 0
+          if (last) null else current
+        })
+    if (last) shared.channel.shutdown()
+    last
+  }
+
+  /**
+   * INTERNAL API
+   */
+  @InternalApi
+  private[akka] def sharedChannelCount: Int = channels.size()
+}
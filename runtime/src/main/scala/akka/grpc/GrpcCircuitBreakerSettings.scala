@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import akka.annotation.ApiMayChange
+import com.typesafe.config.Config
+import io.grpc.Status
+
+import scala.annotation.varargs
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+import scala.jdk.DurationConverters._
+
+object GrpcCircuitBreakerSettings {
+
+  /**
+   * Scala API: Circuit breaker settings from a config block like `akka.grpc.client."*".circuit-breaker`
+   */
+  def apply(config: Config): GrpcCircuitBreakerSettings =
+    new GrpcCircuitBreakerSettings(
+      config.getInt("max-failures"),
+      config.getDuration("reset-timeout").toScala,
+      config.getDuration("max-reset-timeout").toScala,
+      config.getBoolean("per-method"),
+      config.getStringList("failure-status-codes").asScala.map(Status.Code.valueOf).toSet)
+
+  /**
+   * Java API: Circuit breaker settings from a config block like `akka.grpc.client."*".circuit-breaker`
+   */
+  def create(config: Config): GrpcCircuitBreakerSettings = apply(config)
+}
+
+/**
+ * Settings for a circuit breaker in front of the calls of a channel, built on `akka.pattern.CircuitBreaker`. After
+ * `maxFailures` calls in a row failed with one of the `failureStatusCodes`, or took longer than the deadline of the
+ * client, the circuit opens and calls fail with `UNAVAILABLE` without being sent for `resetTimeout`. The timeout
+ * doubles every time a trial call fails, up to `maxResetTimeout`.
+ *
+ * With `perMethod` every method of the service has its own circuit breaker, otherwise all calls on the channel
+ * share one.
+ */
+@ApiMayChange
+final class GrpcCircuitBreakerSettings private (
+    val maxFailures: Int,
+    val resetTimeout: FiniteDuration,
+    val maxResetTimeout: FiniteDuration,
+    val perMethod: Boolean,
+    val failureStatusCodes: Set[Status.Code]) {
+  require(maxFailures >= 1, s"maxFailures must be at least 1, was [$maxFailures]")
+  require(resetTimeout > Duration.Zero, s"resetTimeout must be positive, was [$resetTimeout]")
+  require(maxResetTimeout >= resetTimeout, "maxResetTimeout must not be less than resetTimeout")
+
+  def withMaxFailures(maxFailures: Int): GrpcCircuitBreakerSettings =
+    copy(maxFailures = maxFailures)
+
+  /**
+   * Scala API
+   */
+  def withResetTimeout(resetTimeout: FiniteDuration, maxResetTimeout: FiniteDuration): GrpcCircuitBreakerSettings =
+    copy(resetTimeout = resetTimeout, maxResetTimeout = maxResetTimeout)
+
+  /**
+   * Java API
+   */
+  def withResetTimeout(
+      resetTimeout: java.time.Duration,
+      maxResetTimeout: java.time.Duration): GrpcCircuitBreakerSettings =
+    copy(resetTimeout = resetTimeout.toScala, maxResetTimeout = maxResetTimeout.toScala)
+
+  def withPerMethod(perMethod: Boolean): GrpcCircuitBreakerSettings =
+    copy(perMethod = perMethod)
+
+  /**
+   * The status codes with which a failed call counts as a failure, replaces the previously configured codes.
+   */
+  @varargs
+  def withFailureStatusCodes(codes: Status.Code*): GrpcCircuitBreakerSettings =
+    copy(failureStatusCodes = codes.toSet)
+
+  private def copy(
+      maxFailures: Int = maxFailures,
+      resetTimeout: FiniteDuration = resetTimeout,
+      maxResetTimeout: FiniteDuration = maxResetTimeout,
+      perMethod: Boolean = perMethod,
+      failureStatusCodes: Set[Status.Code] = failureStatusCodes): GrpcCircuitBreakerSettings =
+    new GrpcCircuitBreakerSettings(maxFailures, resetTimeout, maxResetTimeout, perMethod, failureStatusCodes)
+
+  private def values: List[Any] =
+    List(maxFailures, resetTimeout, maxResetTimeout, perMethod, failureStatusCodes)
+
+  override def equals(other: Any): Boolean =
+    other match {
+      case that: GrpcCircuitBreakerSettings => values == that.values
+      case _                                => false
+    }
+
+  override def hashCode: Int = values.hashCode
+
+  override def toString: String = values.mkString("GrpcCircuitBreakerSettings(", ",", ")")
+}
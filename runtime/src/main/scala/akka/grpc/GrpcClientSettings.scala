@@ -15,10 +15,12 @@ import io.grpc.CallCredentials
 import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder
 import io.grpc.netty.shaded.io.netty.handler.ssl.SslProvider
 
+import java.util.concurrent.ConcurrentHashMap
 import javax.net.ssl.{ SSLContext, TrustManager }
 
 import scala.collection.immutable
 import scala.concurrent.duration.{ Duration, _ }
+import scala.jdk.CollectionConverters._
 import scala.jdk.DurationConverters._
 
 object GrpcClientSettings {
@@ -149,7 +151,7 @@ object GrpcClientSettings {
             s"ssl-provider: expected empty, 'jdk', 'openssl' or 'openssl_refcnt', but got [$other]")
       }),
       None,
-      getOptionalString(clientConfiguration, "trusted").map(SSLContextUtils.trustManagerFromResource),
+      getOptionalString(clientConfiguration, "trusted").map(trustManagerFromConfig),
       None,
       getPotentiallyInfiniteDuration(clientConfiguration, "deadline"),
       getOptionalString(clientConfiguration, "user-agent"),
@@ -158,7 +160,37 @@ object GrpcClientSettings {
       clientConfiguration.getString("backend"),
       identity,
       getOptionalDuration(clientConfiguration, "service-discovery.refresh-interval"),
-      clientConfiguration.getBoolean("eager-connection"))
+      clientConfiguration.getBoolean("eager-connection"),
+      clientConfiguration.getInt("retry-budget.max-tokens"),
+      clientConfiguration.getDouble("retry-budget.token-ratio"),
+      if (clientConfiguration.getBoolean("request-coalescing")) Some(CoalescingKeyExtractor.methodAndRequestBytes)
+      else None,
+      clientConfiguration.getInt("response-cache.max-entries"),
+      clientConfiguration.getDuration("response-cache.time-to-live").toScala,
+      clientConfiguration.getInt("response-deserialization-parallelism"),
+      clientConfiguration.getBoolean("share-channel"),
+      getOptionalString(clientConfiguration, "local-zone"),
+      TargetAttributes.none,
+      if (clientConfiguration.getBoolean("outlier-detection.enabled"))
+        Some(OutlierDetectionSettings(clientConfiguration.getConfig("outlier-detection")))
+      else None,
+      if (clientConfiguration.getBoolean("circuit-breaker.enabled"))
+        Some(GrpcCircuitBreakerSettings(clientConfiguration.getConfig("circuit-breaker")))
+      else None,
+      getOptionalDuration(clientConfiguration, "keep-alive.time"),
+      clientConfiguration.getDuration("keep-alive.timeout").toScala,
+      getOptionalDuration(clientConfiguration, "idle-timeout"),
+      getOptionalBytes(clientConfiguration, "initial-window-size"),
+      getOptionalBytes(clientConfiguration, "max-inbound-message-size"),
+      NettyTransportSettings(clientConfiguration.getConfig("netty")),
+      clientConfiguration.getBoolean("grpc-web"),
+      getResponseCacheKeyHeaders(clientConfiguration))
+
+  // one trust manager per resource path, so that settings read from the same config are equivalent
+  private val trustManagersFromConfig = new ConcurrentHashMap[String, TrustManager]()
+
+  private def trustManagerFromConfig(resourcePath: String): TrustManager =
+    trustManagersFromConfig.computeIfAbsent(resourcePath, path => SSLContextUtils.trustManagerFromResource(path))
 
   private def getOptionalString(config: Config, path: String): Option[String] =
     config.getString(path) match {
@@ -178,6 +210,18 @@ object GrpcClientSettings {
       case _     => Some(config.getDuration(path).toScala)
     }
 
+  private def getOptionalBytes(config: Config, path: String): Option[Int] =
+    Helpers.toRootLowerCase(config.getString(path)) match {
+      case "off" => None
+      case _     => Some(config.getBytes(path).toInt)
+    }
+
+  private def getResponseCacheKeyHeaders(config: Config): Option[Set[String]] =
+    config.getStringList("response-cache.key-headers").asScala.map(Helpers.toRootLowerCase).toSet match {
+      case headers if headers.contains("*") => None
+      case headers                          => Some(headers)
+    }
+
   private def getPotentiallyInfiniteDuration(underlying: Config, path: String): Duration =
     Helpers.toRootLowerCase(underlying.getString(path)) match {
       case "infinite" => Duration.Inf
@@ -215,7 +259,26 @@ final class GrpcClientSettings private (
     val backend: String,
     val channelBuilderOverrides: NettyChannelBuilder => NettyChannelBuilder = identity,
     val discoveryRefreshInterval: Option[FiniteDuration],
-    val eagerConnection: Boolean) {
+    val eagerConnection: Boolean,
+    val retryBudgetMaxTokens: Int,
+    val retryBudgetTokenRatio: Double,
+    val requestCoalescing: Option[CoalescingKeyExtractor],
+    val responseCacheMaxEntries: Int,
+    val responseCacheTimeToLive: FiniteDuration,
+    val responseDeserializationParallelism: Int,
+    val shareChannel: Boolean,
+    val localZone: Option[String],
+    val targetAttributes: ResolvedTarget => TargetAttributes,
+    val outlierDetection: Option[OutlierDetectionSettings],
+    val circuitBreaker: Option[GrpcCircuitBreakerSettings],
+    val keepAliveTime: Option[FiniteDuration],
+    val keepAliveTimeout: FiniteDuration,
+    val idleTimeout: Option[FiniteDuration],
+    val initialWindowSize: Option[Int],
+    val maxInboundMessageSize: Option[Int],
+    val nettyTransport: NettyTransportSettings,
+    val grpcWeb: Boolean,
+    val responseCacheKeyHeaders: Option[Set[String]]) {
   require(
     Seq(sslContextProvider.isDefined, sslContext.isDefined, trustManager.isDefined).count(_ == true) < 2,
     "Only one of sslContextProvider, the sslContext or trustManager is allowed to be configured at the same time")
@@ -223,6 +286,15 @@ final class GrpcClientSettings private (
     if (sslContext.isDefined) sslProvider.forall(_ == SslProvider.JDK) else true,
     "When sslContext is configured, sslProvider must not set to something different than JDK")
   require(backend == "netty" || backend == "akka-http", "backend should be 'netty' or 'akka-http'");
+  require(retryBudgetMaxTokens == 0 || retryBudgetTokenRatio > 0, "retry budget token ratio must be positive")
+  require(
+    responseCacheMaxEntries == 0 || responseCacheTimeToLive > Duration.Zero,
+    "response cache time to live must be positive")
+  require(responseDeserializationParallelism >= 1, "response deserialization parallelism must be at least 1")
+  require(keepAliveTimeout > Duration.Zero, "keep-alive timeout must be positive")
+  require(initialWindowSize.forall(_ > 0), "initial window size must be positive")
+  require(maxInboundMessageSize.forall(_ > 0), "max inbound message size must be positive")
+  require(!grpcWeb || backend == "akka-http", "grpc-web is only supported by the akka-http backend")
 
   /**
    * If using ServiceDiscovery and no port is returned use this one.
@@ -348,6 +420,206 @@ final class GrpcClientSettings private (
   def withEagerConnection(eagerConnection: Boolean): GrpcClientSettings =
     copy(eagerConnection = eagerConnection)
 
+  /**
+   * Limit the retries made according to a `GrpcRetryPolicy` by all calls on a channel created with these settings.
+   * Every retryable failure takes one token and every successful call adds `tokenRatio` tokens, retries
+   * are only made while more than half of `maxTokens` are available. Set `maxTokens` to 0 to disable the budget.
+   */
+  @ApiMayChange
+  def withRetryBudget(maxTokens: Int, tokenRatio: Double): GrpcClientSettings =
+    copy(retryBudgetMaxTokens = maxTokens, retryBudgetTokenRatio = tokenRatio)
+
+  /**
+   * Let concurrent unary calls to the same method with the same serialized request and request headers share a
+   * single in-flight call instead of each making their own. The headers that must match are those of
+   * [[withResponseCacheKeyHeaders]], calls with their own call credentials are never shared, and a call only joins
+   * a call with a deadline that is not later than its own.
+   */
+  @ApiMayChange
+  def withRequestCoalescing(enabled: Boolean): GrpcClientSettings =
+    copy(requestCoalescing = if (enabled) Some(CoalescingKeyExtractor.methodAndRequestBytes) else None)
+
+  /**
+   * Let concurrent unary calls for which `keyExtractor` extracts the same key share a single in-flight call
+   * instead of each making their own.
+   */
+  @ApiMayChange
+  def withRequestCoalescing(keyExtractor: CoalescingKeyExtractor): GrpcClientSettings =
+    copy(requestCoalescing = Some(keyExtractor))
+
+  /**
+   * Scala API: Cache up to `maxEntries` responses of unary calls to methods marked with
+   * `option idempotency_level = NO_SIDE_EFFECTS`, each for at most `timeToLive`. A `cache-control` trailer from the
+   * server with `no-store`, `no-cache` or `max-age` is honoured. Set `maxEntries` to 0 to disable the cache.
+   *
+   * Requires a client generated with this version of Akka gRPC or later.
+   */
+  @ApiMayChange
+  def withResponseCache(maxEntries: Int, timeToLive: FiniteDuration): GrpcClientSettings =
+    copy(responseCacheMaxEntries = maxEntries, responseCacheTimeToLive = timeToLive)
+
+  /**
+   * Java API: Cache up to `maxEntries` responses of unary calls to methods marked with
+   * `option idempotency_level = NO_SIDE_EFFECTS`, each for at most `timeToLive`. A `cache-control` trailer from the
+   * server with `no-store`, `no-cache` or `max-age` is honoured. Set `maxEntries` to 0 to disable the cache.
+   *
+   * Requires a client generated with this version of Akka gRPC or later.
+   */
+  @ApiMayChange
+  def withResponseCache(maxEntries: Int, timeToLive: java.time.Duration): GrpcClientSettings =
+    copy(responseCacheMaxEntries = maxEntries, responseCacheTimeToLive = timeToLive.toScala)
+
+  /**
+   * Scala API: The request headers that are part of the key of a cached response, and of a coalesced call, so that
+   * only calls with the same values for these headers share a response. All headers are part of the key by default.
+   * Calls with their own call credentials are never cached or coalesced.
+   */
+  @ApiMayChange
+  def withResponseCacheKeyHeaders(headers: Set[String]): GrpcClientSettings =
+    copy(responseCacheKeyHeaders = Some(headers.map(Helpers.toRootLowerCase)))
+
+  /**
+   * Java API: The request headers that are part of the key of a cached response, and of a coalesced call, so that
+   * only calls with the same values for these headers share a response. All headers are part of the key by default.
+   * Calls with their own call credentials are never cached or coalesced.
+   */
+  @ApiMayChange
+  def withResponseCacheKeyHeaders(headers: java.util.Set[String]): GrpcClientSettings =
+    withResponseCacheKeyHeaders(headers.asScala.toSet)
+
+  /**
+   * Deserialize up to `parallelism` messages of a streamed response in parallel, keeping their order, for large
+   * messages where deserializing on the single thread of the stream is the bottleneck. Only used by the
+   * `akka-http` backend, the `netty` backend deserializes in the transport.
+   */
+  @ApiMayChange
+  def withResponseDeserializationParallelism(parallelism: Int): GrpcClientSettings =
+    copy(responseDeserializationParallelism = parallelism)
+
+  /**
+   * Let `GrpcChannel(settings)`, and so clients created from settings, share the connections, name resolution and
+   * refresh of a channel with all other clients created from equivalent settings, see [[GrpcChannelRegistry]].
+   * The deadline is not part of the equivalence, each client keeps its own, unless a circuit breaker is configured.
+   */
+  @ApiMayChange
+  def withShareChannel(shareChannel: Boolean): GrpcClientSettings =
+    copy(shareChannel = shareChannel)
+
+  /**
+   * The zone of this client, the `zone_aware_weighted_round_robin` load balancing policy sends all calls to targets
+   * in this zone as long as any of them is ready.
+   */
+  @ApiMayChange
+  def withLocalZone(zone: String): GrpcClientSettings =
+    copy(localZone = Option(zone).filter(_.nonEmpty))
+
+  /**
+   * Scala API: Derive the zone and weight of each target found by service discovery, for the
+   * `zone_aware_weighted_round_robin` load balancing policy. Note: Netty client backend specific setting.
+   */
+  @ApiMayChange
+  def withTargetAttributes(targetAttributes: ResolvedTarget => TargetAttributes): GrpcClientSettings =
+    copy(targetAttributes = targetAttributes)
+
+  /**
+   * Java API: Derive the zone and weight of each target found by service discovery, for the
+   * `zone_aware_weighted_round_robin` load balancing policy. Note: Netty client backend specific setting.
+   */
+  @ApiMayChange
+  def withTargetAttributesFunction(
+      targetAttributes: akka.japi.function.Function[ResolvedTarget, TargetAttributes]): GrpcClientSettings =
+    copy(targetAttributes = target => targetAttributes.apply(target))
+
+  /**
+   * Temporarily eject endpoints that fail or respond slower than the others from the load balancing, see
+   * [[OutlierDetectionSettings]] for what each client backend supports.
+   */
+  @ApiMayChange
+  def withOutlierDetection(outlierDetection: OutlierDetectionSettings): GrpcClientSettings =
+    copy(outlierDetection = Option(outlierDetection))
+
+  @ApiMayChange
+  def withoutOutlierDetection(): GrpcClientSettings =
+    copy(outlierDetection = None)
+
+  /**
+   * Fail calls fast with `UNAVAILABLE` while the service keeps failing, see [[GrpcCircuitBreakerSettings]]. Calls
+   * taking longer than the deadline of these settings count as failures.
+   */
+  @ApiMayChange
+  def withCircuitBreaker(circuitBreaker: GrpcCircuitBreakerSettings): GrpcClientSettings =
+    copy(circuitBreaker = Option(circuitBreaker))
+
+  @ApiMayChange
+  def withoutCircuitBreaker(): GrpcClientSettings =
+    copy(circuitBreaker = None)
+
+  /**
+   * Scala API: Send HTTP/2 pings on connections without activity for `time`, and close the connection when a ping is
+   * not answered within `timeout`.
+   */
+  @ApiMayChange
+  def withKeepAlive(time: FiniteDuration, timeout: FiniteDuration): GrpcClientSettings =
+    copy(keepAliveTime = Some(time), keepAliveTimeout = timeout)
+
+  /**
+   * Java API: Send HTTP/2 pings on connections without activity for `time`, and close the connection when a ping is
+   * not answered within `timeout`.
+   */
+  @ApiMayChange
+  def withKeepAlive(time: java.time.Duration, timeout: java.time.Duration): GrpcClientSettings =
+    copy(keepAliveTime = Some(time.toScala), keepAliveTimeout = timeout.toScala)
+
+  @ApiMayChange
+  def withoutKeepAlive(): GrpcClientSettings =
+    copy(keepAliveTime = None)
+
+  /**
+   * Scala API: Close connections without calls for this long, they are reconnected on the next call.
+   */
+  @ApiMayChange
+  def withIdleTimeout(idleTimeout: FiniteDuration): GrpcClientSettings =
+    copy(idleTimeout = Some(idleTimeout))
+
+  /**
+   * Java API: Close connections without calls for this long, they are reconnected on the next call.
+   */
+  @ApiMayChange
+  def withIdleTimeout(idleTimeout: java.time.Duration): GrpcClientSettings =
+    copy(idleTimeout = Some(idleTimeout.toScala))
+
+  /**
+   * The initial HTTP/2 flow control window of each call, in bytes. A larger window lets a call receive more data
+   * before waiting for a window update, which helps streaming calls over connections with a high latency. By default
+   * the window of the client backend is used, 1 MiB for Netty and `akka.http.client.http2` settings for Akka HTTP.
+   */
+  @ApiMayChange
+  def withInitialWindowSize(bytes: Int): GrpcClientSettings =
+    copy(initialWindowSize = Some(bytes))
+
+  /**
+   * Calls receiving a message larger than this, in bytes, fail with `RESOURCE_EXHAUSTED`. By default the limit of the
+   * client backend is used, 4 MiB for Netty and none for Akka HTTP.
+   */
+  @ApiMayChange
+  def withMaxInboundMessageSize(bytes: Int): GrpcClientSettings =
+    copy(maxInboundMessageSize = Some(bytes))
+
+  /**
+   * The transport, event loops and allocator of the Netty client backend, see [[NettyTransportSettings]].
+   */
+  @ApiMayChange
+  def withNettyTransport(nettyTransport: NettyTransportSettings): GrpcClientSettings =
+    copy(nettyTransport = nettyTransport)
+
+  /**
+   * Make calls with the grpc-web protocol over HTTP/1.1, for services only reachable through proxies without HTTP/2
+   * support. Only supported by the akka-http client backend, and only for unary and server streaming calls.
+   */
+  @ApiMayChange
+  def withGrpcWeb(enabled: Boolean): GrpcClientSettings =
+    copy(grpcWeb = enabled)
+
   private def copy(
       serviceName: String = serviceName,
       servicePortName: Option[String] = servicePortName,
@@ -368,7 +640,26 @@ final class GrpcClientSettings private (
       backend: String = backend,
       channelBuilderOverrides: NettyChannelBuilder => NettyChannelBuilder = channelBuilderOverrides,
       discoveryRefreshInterval: Option[FiniteDuration] = discoveryRefreshInterval,
-      eagerConnection: Boolean = eagerConnection): GrpcClientSettings =
+      eagerConnection: Boolean = eagerConnection,
+      retryBudgetMaxTokens: Int = retryBudgetMaxTokens,
+      retryBudgetTokenRatio: Double = retryBudgetTokenRatio,
+      requestCoalescing: Option[CoalescingKeyExtractor] = requestCoalescing,
+      responseCacheMaxEntries: Int = responseCacheMaxEntries,
+      responseCacheTimeToLive: FiniteDuration = responseCacheTimeToLive,
+      responseDeserializationParallelism: Int = responseDeserializationParallelism,
+      shareChannel: Boolean = shareChannel,
+      localZone: Option[String] = localZone,
+      targetAttributes: ResolvedTarget => TargetAttributes = targetAttributes,
+      outlierDetection: Option[OutlierDetectionSettings] = outlierDetection,
+      circuitBreaker: Option[GrpcCircuitBreakerSettings] = circuitBreaker,
+      keepAliveTime: Option[FiniteDuration] = keepAliveTime,
+      keepAliveTimeout: FiniteDuration = keepAliveTimeout,
+      idleTimeout: Option[FiniteDuration] = idleTimeout,
+      initialWindowSize: Option[Int] = initialWindowSize,
+      maxInboundMessageSize: Option[Int] = maxInboundMessageSize,
+      nettyTransport: NettyTransportSettings = nettyTransport,
+      grpcWeb: Boolean = grpcWeb,
+      responseCacheKeyHeaders: Option[Set[String]] = responseCacheKeyHeaders): GrpcClientSettings =
     new GrpcClientSettings(
       callCredentials = callCredentials,
       serviceDiscovery = serviceDiscovery,
@@ -390,6 +681,25 @@ final class GrpcClientSettings private (
       backend = backend,
       channelBuilderOverrides = channelBuilderOverrides,
       discoveryRefreshInterval = discoveryRefreshInterval,
-      eagerConnection = eagerConnection)
+      eagerConnection = eagerConnection,
+      retryBudgetMaxTokens = retryBudgetMaxTokens,
+      retryBudgetTokenRatio = retryBudgetTokenRatio,
+      requestCoalescing = requestCoalescing,
+      responseCacheMaxEntries = responseCacheMaxEntries,
+      responseCacheTimeToLive = responseCacheTimeToLive,
+      responseDeserializationParallelism = responseDeserializationParallelism,
+      shareChannel = shareChannel,
+      localZone = localZone,
+      targetAttributes = targetAttributes,
+      outlierDetection = outlierDetection,
+      circuitBreaker = circuitBreaker,
+      keepAliveTime = keepAliveTime,
+      keepAliveTimeout = keepAliveTimeout,
+      idleTimeout = idleTimeout,
+      initialWindowSize = initialWindowSize,
+      maxInboundMessageSize = maxInboundMessageSize,
+      nettyTransport = nettyTransport,
+      grpcWeb = grpcWeb,
+      responseCacheKeyHeaders = responseCacheKeyHeaders)
 
 }
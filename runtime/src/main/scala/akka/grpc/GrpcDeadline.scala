@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import java.util.Optional
+
+import akka.annotation.{ ApiMayChange, InternalApi }
+import akka.http.scaladsl.model.AttributeKey
+
+import scala.concurrent.duration._
+
+object GrpcDeadline {
+
+  /**
+   * The request attribute holding the deadline of a call handled by a generated server handler, only present if the
+   * client sent a `grpc-timeout` header.
+   */
+  val attributeKey: AttributeKey[GrpcDeadline] = AttributeKey[GrpcDeadline]("grpc-deadline")
+
+  /**
+   * Scala API: The deadline of the call the metadata was received with, if the client set one.
+   */
+  def fromMetadata(metadata: scaladsl.Metadata): Option[GrpcDeadline] =
+    metadata.attribute(attributeKey)
+
+  /**
+   * Java API: The deadline of the call the metadata was received with, if the client set one.
+   */
+  def fromMetadata(metadata: javadsl.Metadata): Optional[GrpcDeadline] =
+    metadata.getAttribute(attributeKey)
+
+  /**
+   * INTERNAL API
+   */
+  @InternalApi
+  private[akka] def after(timeout: FiniteDuration): GrpcDeadline =
+    new GrpcDeadline(System.nanoTime() + timeout.toNanos)
+}
+
+/**
+ * The point in time at which the client of a call stops waiting for the response. The generated server handlers
+ * reply with `DEADLINE_EXCEEDED` and cancel the response stream once it passed.
+ *
+ * To not keep working on behalf of a client that gave up, pass the remaining time on to the calls made while
+ * handling the call, for example `client.sayHello().setDeadline(deadline.timeLeft).invoke(request)`.
+ */
+@ApiMayChange
+final class GrpcDeadline private (deadlineNanos: Long) {
+
+  /**
+   * Scala API: The time left until the deadline, negative if it passed.
+   */
+  def timeLeft: FiniteDuration = (deadlineNanos - System.nanoTime()).nanos
+
+  /**
+   * Java API: The time left until the deadline, negative if it passed.
+   */
+  def getTimeLeft: java.time.Duration = java.time.Duration.ofNanos(deadlineNanos - System.nanoTime())
+
+  def isOverdue: Boolean = deadlineNanos - System.nanoTime() <= 0
+
+  override def toString: String = s"GrpcDeadline($timeLeft left)"
+}
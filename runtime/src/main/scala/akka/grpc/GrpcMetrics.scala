@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import akka.actor.{ ActorSystem, ClassicActorSystemProvider, ExtendedActorSystem, Extension, ExtensionId }
+import akka.annotation.{ ApiMayChange, InternalApi }
+import akka.grpc.internal.{ MetricsTelemetry, TelemetryExtension }
+import io.grpc.Status
+import org.HdrHistogram.Histogram
+
+import scala.collection.immutable
+import scala.jdk.CollectionConverters._
+
+/**
+ * Access to the built-in metrics, which are collected for all servers and clients of the actor system when
+ * `akka.grpc.metrics.enabled` is on. Meant to be polled by an exporter.
+ */
+@ApiMayChange
+object GrpcMetrics extends ExtensionId[GrpcMetrics] {
+  override def createExtension(system: ExtendedActorSystem): GrpcMetrics =
+    new GrpcMetrics(TelemetryExtension(system).spi match {
+      case metrics: MetricsTelemetry => Some(metrics)
+      case _                         => None
+    })
+
+  /** Java API */
+  override def get(system: ActorSystem): GrpcMetrics = super.get(system)
+  override def get(system: ClassicActorSystemProvider): GrpcMetrics = super.get(system)
+}
+
+@ApiMayChange
+final class GrpcMetrics private (metrics: Option[MetricsTelemetry]) extends Extension {
+
+  /**
+   * Whether metrics are collected
+   */
+  def enabled: Boolean = metrics.isDefined
+
+  /**
+   * Scala API: The metrics of every service method that was called since the actor system started, empty if
+   * metrics are not enabled.
+   */
+  def snapshot(): immutable.Seq[MethodMetrics] =
+    metrics match {
+      case Some(m) => m.snapshot()
+      case None    => Nil
+    }
+
+  /**
+   * Java API: The metrics of every service method that was called since the actor system started, empty if
+   * metrics are not enabled.
+   */
+  def getSnapshot(): java.util.List[MethodMetrics] = snapshot().asJava
+}
+
+/**
+ * The metrics of a single service method on the server or client side. All values are totals since the actor
+ * system started. The histograms are copies that may be modified by the caller.
+ *
+ * @param started the number of calls that were started
+ * @param inFlight the number of calls that were started but did not complete yet
+ * @param statusCounts the number of completed calls for each final status, statuses that did not occur are left out
+ * @param latencyNanos the duration of the completed calls in nanoseconds
+ * @param receivedMessageBytes the sizes of the received messages in bytes
+ * @param sentMessageBytes the sizes of the sent messages in bytes
+ */
+@ApiMayChange
+final class MethodMetrics @InternalApi private[akka] (
+    val client: Boolean,
+    val service: String,
+    val method: String,
+    val started: Long,
+    val inFlight: Long,
+    val statusCounts: Map[Status.Code, Long],
+    val latencyNanos: Histogram,
+    val receivedMessageBytes: Histogram,
+    val sentMessageBytes: Histogram) {
+
+  /** Java API */
+  def getStatusCounts(): java.util.Map[Status.Code, java.lang.Long] =
+    statusCounts.map { case (code, count) => code -> java.lang.Long.valueOf(count) }.asJava
+
+  override def toString: String =
+    s"MethodMetrics(${if (client) "client" else "server"},$service,$method,$started,$inFlight,$statusCounts)"
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import java.util.concurrent.ThreadLocalRandom
+
+import akka.annotation.{ ApiMayChange, InternalApi }
+import io.grpc.Status
+
+import scala.annotation.varargs
+import scala.concurrent.duration._
+import scala.jdk.DurationConverters._
+
+object GrpcRetryPolicy {
+
+  /**
+   * Scala API: A retry policy making at most `maxAttempts` attempts (including the first one), retrying only calls
+   * failing with `UNAVAILABLE`, with an initial backoff of 100ms doubling up to a max backoff of 5s.
+   */
+  def apply(maxAttempts: Int): GrpcRetryPolicy =
+    new GrpcRetryPolicy(maxAttempts, 100.millis, 5.seconds, 2.0, Set(Status.Code.UNAVAILABLE))
+
+  /**
+   * Java API: A retry policy making at most `maxAttempts` attempts (including the first one), retrying only calls
+   * failing with `UNAVAILABLE`, with an initial backoff of 100ms doubling up to a max backoff of 5s.
+   */
+  def create(maxAttempts: Int): GrpcRetryPolicy = apply(maxAttempts)
+}
+
+/**
+ * A retry policy that, like the retry policy of the gRPC service config, only retries calls that failed with one of
+ * the configured status codes.
+ *
+ * The delay before retry attempt `n` is chosen randomly between 0 and
+ * `min(initialBackoff * backoffMultiplier^(n-1), maxBackoff)`. If the server sent a `grpc-retry-pushback-ms`
+ * trailer the delay is replaced by that value, a negative or malformed value means the call must not be retried.
+ *
+ * If the [[GrpcClientSettings]] of the channel define a retry budget, retries are also limited by that budget,
+ * which is shared by all calls with a retry policy on the same channel.
+ */
+@ApiMayChange
+final class GrpcRetryPolicy private (
+    val maxAttempts: Int,
+    val initialBackoff: FiniteDuration,
+    val maxBackoff: FiniteDuration,
+    val backoffMultiplier: Double,
+    val retryableStatusCodes: Set[Status.Code]) {
+  require(maxAttempts >= 1, s"maxAttempts must be at least 1, was [$maxAttempts]")
+  require(initialBackoff > Duration.Zero, s"initialBackoff must be positive, was [$initialBackoff]")
+  require(maxBackoff > Duration.Zero, s"maxBackoff must be positive, was [$maxBackoff]")
+  require(backoffMultiplier > 0, s"backoffMultiplier must be positive, was [$backoffMultiplier]")
+
+  def withMaxAttempts(maxAttempts: Int): GrpcRetryPolicy =
+    copy(maxAttempts = maxAttempts)
+
+  /**
+   * Scala API
+   */
+  def withInitialBackoff(initialBackoff: FiniteDuration): GrpcRetryPolicy =
+    copy(initialBackoff = initialBackoff)
+
+  /**
+   * Java API
+   */
+  def withInitialBackoff(initialBackoff: java.time.Duration): GrpcRetryPolicy =
+    copy(initialBackoff = initialBackoff.toScala)
+
+  /**
+   * Scala API
+   */
+  def withMaxBackoff(maxBackoff: FiniteDuration): GrpcRetryPolicy =
+    copy(maxBackoff = maxBackoff)
+
+  /**
+   * Java API
+   */
+  def withMaxBackoff(maxBackoff: java.time.Duration): GrpcRetryPolicy =
+    copy(maxBackoff = maxBackoff.toScala)
+
+  def withBackoffMultiplier(backoffMultiplier: Double): GrpcRetryPolicy =
+    copy(backoffMultiplier = backoffMultiplier)
+
+  /**
+   * The status codes for which a failed call is retried, replaces the previously configured codes.
+   */
+  @varargs
+  def withRetryableStatusCodes(codes: Status.Code*): GrpcRetryPolicy =
+    copy(retryableStatusCodes = codes.toSet)
+
+  /**
+   * INTERNAL API
+   *
+   * @param attempt the number of the attempt that failed, starting at 1
+   */
+  @InternalApi
+  private[akka] def backoff(attempt: Int): FiniteDuration = {
+    val exponential = initialBackoff.toNanos * math.pow(backoffMultiplier, (attempt - 1).toDouble)
+    val upperBound = math.min(exponential, maxBackoff.toNanos.toDouble)
+    (ThreadLocalRandom.current().nextDouble() * upperBound).toLong.nanos
+  }
+
+  private def copy(
+      maxAttempts: Int = maxAttempts,
+      initialBackoff: FiniteDuration = initialBackoff,
+      maxBackoff: FiniteDuration = maxBackoff,
+      backoffMultiplier: Double = backoffMultiplier,
+      retryableStatusCodes: Set[Status.Code] = retryableStatusCodes): GrpcRetryPolicy =
+    new GrpcRetryPolicy(maxAttempts, initialBackoff, maxBackoff, backoffMultiplier, retryableStatusCodes)
+
+  override def toString: String =
+    s"GrpcRetryPolicy($maxAttempts,$initialBackoff,$maxBackoff,$backoffMultiplier,$retryableStatusCodes)"
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import akka.annotation.{ ApiMayChange, InternalApi }
+import com.typesafe.config.Config
+
+object NettyTransportSettings {
+
+  /**
+   * Scala API: Netty transport settings from a config block like `akka.grpc.client."*".netty`
+   */
+  def apply(config: Config): NettyTransportSettings =
+    new NettyTransportSettings(
+      config.getString("transport"),
+      config.getInt("event-loop-threads"),
+      config.getBoolean("share-event-loop-group"),
+      config.getString("allocator"))
+
+  /**
+   * Java API: Netty transport settings from a config block like `akka.grpc.client."*".netty`
+   */
+  def create(config: Config): NettyTransportSettings = apply(config)
+}
+
+/**
+ * Settings for the transport of the Netty client backend. `transport` is `epoll` for the native epoll transport,
+ * failing if it is not available on the host, `nio` for the Java NIO transport, or `auto` for epoll when it is
+ * available and NIO otherwise. `eventLoopThreads` is the number of event loop threads, 0 for the Netty default of
+ * twice the number of cores. With `shareEventLoopGroup` all channels of the actor system with the same transport and
+ * number of threads share one event loop group, otherwise each channel has its own.
+ *
+ * With the `auto` transport and 0 threads grpc-java's own event loop group, shared by all channels in the JVM, is
+ * used. `allocator` is `pooled-direct` for a pooled allocator of direct buffers, or `default` to keep the allocator
+ * of grpc-java.
+ */
+@ApiMayChange
+final class NettyTransportSettings private (
+    val transport: String,
+    val eventLoopThreads: Int,
+    val shareEventLoopGroup: Boolean,
+    val allocator: String) {
+  require(
+    transport == "auto" || transport == "epoll" || transport == "nio",
+    s"transport must be 'auto', 'epoll' or 'nio', was [$transport]")
+  require(eventLoopThreads >= 0, s"eventLoopThreads must not be negative, was [$eventLoopThreads]")
+  require(
+    allocator == "default" || allocator == "pooled-direct",
+    s"allocator must be 'default' or 'pooled-direct', was [$allocator]")
+
+  def withTransport(transport: String): NettyTransportSettings =
+    copy(transport = transport)
+
+  def withEventLoopThreads(threads: Int): NettyTransportSettings =
+    copy(eventLoopThreads = threads)
+
+  def withShareEventLoopGroup(share: Boolean): NettyTransportSettings =
+    copy(shareEventLoopGroup = share)
+
+  def withAllocator(allocator: String): NettyTransportSettings =
+    copy(allocator = allocator)
+
+  /**
+   * INTERNAL API: Whether the channels need an event loop group other than the one of grpc-java
+   */
+  @InternalApi
+  private[akka] def customEventLoopGroup: Boolean =
+    transport != "auto" || eventLoopThreads > 0
+
+  private def copy(
+      transport: String = transport,
+      eventLoopThreads: Int = eventLoopThreads,
+      shareEventLoopGroup: Boolean = shareEventLoopGroup,
+      allocator: String = allocator): NettyTransportSettings =
+    new NettyTransportSettings(transport, eventLoopThreads, shareEventLoopGroup, allocator)
+
+  private def values: List[Any] = List(transport, eventLoopThreads, shareEventLoopGroup, allocator)
+
+  override def equals(other: Any): Boolean =
+    other match {
+      case that: NettyTransportSettings => values == that.values
+      case _                            => false
+    }
+
+  override def hashCode: Int = values.hashCode
+
+  override def toString: String = values.mkString("NettyTransportSettings(", ",", ")")
+}
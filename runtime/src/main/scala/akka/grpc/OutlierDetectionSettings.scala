@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import akka.annotation.ApiMayChange
+import com.typesafe.config.Config
+
+import scala.concurrent.duration._
+import scala.jdk.DurationConverters._
+
+object OutlierDetectionSettings {
+
+  /**
+   * Scala API: Outlier detection settings from a config block like `akka.grpc.client."*".outlier-detection`
+   */
+  def apply(config: Config): OutlierDetectionSettings =
+    new OutlierDetectionSettings(
+      config.getDuration("interval").toScala,
+      config.getDuration("base-ejection-time").toScala,
+      config.getDuration("max-ejection-time").toScala,
+      config.getInt("max-ejection-percent"),
+      config.getInt("consecutive-failures"),
+      config.getBoolean("success-rate.enabled"),
+      config.getDouble("success-rate.stdev-factor"),
+      config.getInt("success-rate.minimum-hosts"),
+      config.getInt("success-rate.request-volume"),
+      config.getBoolean("latency.enabled"),
+      config.getDouble("latency.factor"),
+      config.getInt("latency.minimum-hosts"),
+      config.getInt("latency.request-volume"))
+
+  /**
+   * Java API: Outlier detection settings from a config block like `akka.grpc.client."*".outlier-detection`
+   */
+  def create(config: Config): OutlierDetectionSettings = apply(config)
+}
+
+/**
+ * Settings for detecting endpoints of a service that fail or respond slower than the others, and temporarily
+ * ejecting them from the load balancing. An endpoint is ejected when it failed `consecutiveFailures` calls in a
+ * row, or when at the end of an `interval` its success rate is more than `stdevFactor` standard deviations below the
+ * mean of all endpoints, or its mean latency of unary calls is more than `factor` times the median of all endpoints.
+ *
+ * An endpoint is ejected for `baseEjectionTime` times the number of times it was ejected, at most
+ * `maxEjectionTime`, and at most `maxEjectionPercent` of the endpoints are ejected at the same time. Every status
+ * other than `OK` counts as a failure.
+ *
+ * The Netty client backend uses the outlier detection of grpc-java, which only supports the success rate
+ * detection. The Akka HTTP client backend supports all detections, but since it uses a single connection it can
+ * only move away from an ejected endpoint by closing the connection, failing the calls in progress on it.
+ */
+@ApiMayChange
+final class OutlierDetectionSettings private (
+    val interval: FiniteDuration,
+    val baseEjectionTime: FiniteDuration,
+    val maxEjectionTime: FiniteDuration,
+    val maxEjectionPercent: Int,
+    val consecutiveFailures: Int,
+    val successRateEnabled: Boolean,
+    val successRateStdevFactor: Double,
+    val successRateMinimumHosts: Int,
+    val successRateRequestVolume: Int,
+    val latencyEnabled: Boolean,
+    val latencyFactor: Double,
+    val latencyMinimumHosts: Int,
+    val latencyRequestVolume: Int) {
+  require(interval > Duration.Zero, s"interval must be positive, was [$interval]")
+  require(baseEjectionTime > Duration.Zero, s"baseEjectionTime must be positive, was [$baseEjectionTime]")
+  require(maxEjectionTime >= baseEjectionTime, "maxEjectionTime must not be less than baseEjectionTime")
+  require(
+    maxEjectionPercent >= 0 && maxEjectionPercent <= 100,
+    s"maxEjectionPercent must be between 0 and 100, was [$maxEjectionPercent]")
+  require(consecutiveFailures >= 0, s"consecutiveFailures must not be negative, was [$consecutiveFailures]")
+  require(successRateStdevFactor > 0, s"successRateStdevFactor must be positive, was [$successRateStdevFactor]")
+  require(latencyFactor > 1, s"latencyFactor must be greater than 1, was [$latencyFactor]")
+
+  /**
+   * Scala API
+   */
+  def withInterval(interval: FiniteDuration): OutlierDetectionSettings =
+    copy(interval = interval)
+
+  /**
+   * Java API
+   */
+  def withInterval(interval: java.time.Duration): OutlierDetectionSettings =
+    copy(interval = interval.toScala)
+
+  /**
+   * Scala API
+   */
+  def withEjectionTime(base: FiniteDuration, max: FiniteDuration): OutlierDetectionSettings =
+    copy(baseEjectionTime = base, maxEjectionTime = max)
+
+  /**
+   * Java API
+   */
+  def withEjectionTime(base: java.time.Duration, max: java.time.Duration): OutlierDetectionSettings =
+    copy(baseEjectionTime = base.toScala, maxEjectionTime = max.toScala)
+
+  def withMaxEjectionPercent(percent: Int): OutlierDetectionSettings =
+    copy(maxEjectionPercent = percent)
+
+  /**
+   * Eject an endpoint after this number of failed calls in a row, 0 disables this detection.
+   * Not supported by the Netty client backend.
+   */
+  def withConsecutiveFailures(failures: Int): OutlierDetectionSettings =
+    copy(consecutiveFailures = failures)
+
+  /**
+   * Eject endpoints with a success rate more than `stdevFactor` standard deviations below the mean, if at least
+   * `minimumHosts` endpoints had at least `requestVolume` calls in the interval.
+   */
+  def withSuccessRate(stdevFactor: Double, minimumHosts: Int, requestVolume: Int): OutlierDetectionSettings =
+    copy(
+      successRateEnabled = true,
+      successRateStdevFactor = stdevFactor,
+      successRateMinimumHosts = minimumHosts,
+      successRateRequestVolume = requestVolume)
+
+  def withoutSuccessRate(): OutlierDetectionSettings =
+    copy(successRateEnabled = false)
+
+  /**
+   * Eject endpoints with a mean latency of unary calls more than `factor` times the median, if at least
+   * `minimumHosts` endpoints had at least `requestVolume` unary calls in the interval.
+   * Not supported by the Netty client backend.
+   */
+  def withLatency(factor: Double, minimumHosts: Int, requestVolume: Int): OutlierDetectionSettings =
+    copy(
+      latencyEnabled = true,
+      latencyFactor = factor,
+      latencyMinimumHosts = minimumHosts,
+      latencyRequestVolume = requestVolume)
+
+  def withoutLatency(): OutlierDetectionSettings =
+    copy(latencyEnabled = false)
+
+  private def copy(
+      interval: FiniteDuration = interval,
+      baseEjectionTime: FiniteDuration = baseEjectionTime,
+      maxEjectionTime: FiniteDuration = maxEjectionTime,
+      maxEjectionPercent: Int = maxEjectionPercent,
+      consecutiveFailures: Int = consecutiveFailures,
+      successRateEnabled: Boolean = successRateEnabled,
+      successRateStdevFactor: Double = successRateStdevFactor,
+      successRateMinimumHosts: Int = successRateMinimumHosts,
+      successRateRequestVolume: Int = successRateRequestVolume,
+      latencyEnabled: Boolean = latencyEnabled,
+      latencyFactor: Double = latencyFactor,
+      latencyMinimumHosts: Int = latencyMinimumHosts,
+      latencyRequestVolume: Int = latencyRequestVolume): OutlierDetectionSettings =
+    new OutlierDetectionSettings(
+      interval,
+      baseEjectionTime,
+      maxEjectionTime,
+      maxEjectionPercent,
+      consecutiveFailures,
+      successRateEnabled,
+      successRateStdevFactor,
+      successRateMinimumHosts,
+      successRateRequestVolume,
+      latencyEnabled,
+      latencyFactor,
+      latencyMinimumHosts,
+      latencyRequestVolume)
+
+  private def values: List[Any] =
+    List(
+      interval,
+      baseEjectionTime,
+      maxEjectionTime,
+      maxEjectionPercent,
+      consecutiveFailures,
+      successRateEnabled,
+      successRateStdevFactor,
+      successRateMinimumHosts,
+      successRateRequestVolume,
+      latencyEnabled,
+      latencyFactor,
+      latencyMinimumHosts,
+      latencyRequestVolume)
+
+  override def equals(other: Any): Boolean =
+    other match {
+      case that: OutlierDetectionSettings => values == that.values
+      case _                              => false
+    }
+
+  override def hashCode: Int = values.hashCode
+
+  override def toString: String = values.mkString("OutlierDetectionSettings(", ",", ")")
+}
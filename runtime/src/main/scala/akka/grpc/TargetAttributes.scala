@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import akka.annotation.{ ApiMayChange, InternalApi }
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+
+object TargetAttributes {
+
+  /**
+   * A target without zone and with weight 1
+   */
+  val default: TargetAttributes = new TargetAttributes(None, 1)
+
+  /**
+   * Scala API
+   */
+  def apply(zone: Option[String], weight: Int): TargetAttributes = new TargetAttributes(zone, weight)
+
+  /**
+   * Java API
+   *
+   * @param zone the zone of the target, or null if unknown
+   */
+  def create(zone: String, weight: Int): TargetAttributes = new TargetAttributes(Option(zone), weight)
+
+  /**
+   * INTERNAL API
+   *
+   * A single instance so that settings using the defaults are equal.
+   */
+  @InternalApi
+  private[akka] val none: ResolvedTarget => TargetAttributes = _ => default
+}
+
+/**
+ * The zone and weight of a target found by service discovery, used by the `zone_aware_weighted_round_robin`
+ * load balancing policy. Akka Discovery only provides the host and port of a target, so these are derived from
+ * the target by the function given to `GrpcClientSettings.withTargetAttributes`.
+ *
+ * @param zone the zone of the target, targets in the configured `local-zone` of the client are preferred
+ * @param weight the relative share of the calls the target gets, a small positive integer
+ */
+@ApiMayChange
+final class TargetAttributes private (val zone: Option[String], val weight: Int) {
+  require(weight >= 1, s"weight must be at least 1, was [$weight]")
+
+  def withZone(zone: String): TargetAttributes = new TargetAttributes(Some(zone), weight)
+
+  def withWeight(weight: Int): TargetAttributes = new TargetAttributes(zone, weight)
+
+  override def equals(other: Any): Boolean =
+    other match {
+      case that: TargetAttributes => zone == that.zone && weight == that.weight
+      case _                      => false
+    }
+
+  override def hashCode: Int = zone.hashCode * 31 + weight
+
+  override def toString: String = s"TargetAttributes($zone,$weight)"
+}
@@ -15,7 +15,7 @@ import akka.stream.impl.io.ByteStringParser.{ ByteReader, ParseResult, ParseStep
 import akka.stream.scaladsl.Flow
 import akka.stream.stage.GraphStageLogic
 import akka.util.{ ByteString, ByteStringBuilder }
-import io.grpc.StatusException
+import io.grpc.{ Status, StatusException }
 
 import java.nio.ByteOrder
 import scala.collection.immutable
@@ -111,7 +111,8 @@ object AbstractGrpcProtocol {
       codec: Codec,
       decodeFrame: (Int, ByteString) => Frame,
       preDecodeStrict: ByteString => ByteString = null,
-      preDecodeFlow: Flow[ByteString, ByteString, NotUsed] = null): GrpcProtocolReader = {
+      preDecodeFlow: Flow[ByteString, ByteString, NotUsed] = null,
+      maxMessageSize: Int = Int.MaxValue): GrpcProtocolReader = {
     val strictAdapter: ByteString => ByteString = if (preDecodeStrict eq null) identity else preDecodeStrict
     val adapter: Flow[ByteString, Frame, NotUsed] => Flow[ByteString, Frame, NotUsed] =
       if (preDecodeFlow eq null) identity
@@ -122,16 +123,27 @@ object AbstractGrpcProtocol {
       val reader = new ByteReader(strictAdapter(bs))
       val frameType = reader.readByte()
       val length = reader.readIntBE()
+      if (length > maxMessageSize) throw messageTooLarge(length, maxMessageSize)
       val data = reader.take(length)
       if (reader.hasRemaining) throw new IllegalStateException("Unexpected data")
       if ((frameType & 0x80) == 0) codec.uncompress((frameType & 1) == 1, data)
       else throw new IllegalStateException("Cannot read unknown frame")
     } catch { case ByteStringParser.NeedMoreData => throw new MissingParameterException }
 
-    GrpcProtocolReader(codec, decoder, adapter(Flow.fromGraph(new GrpcFramingDecoderStage(codec, decodeFrame))))
+    GrpcProtocolReader(
+      codec,
+      decoder,
+      adapter(Flow.fromGraph(new GrpcFramingDecoderStage(codec, decodeFrame, maxMessageSize))))
   }
 
-  class GrpcFramingDecoderStage(codec: Codec, deframe: (Int, ByteString) => Frame) extends ByteStringParser[Frame] {
+  private def messageTooLarge(length: Int, maxMessageSize: Int): StatusException =
+    new StatusException(
+      Status.RESOURCE_EXHAUSTED.withDescription(s"gRPC message exceeds maximum size $maxMessageSize: $length"))
+
+  class GrpcFramingDecoderStage(codec: Codec, deframe: (Int, ByteString) => Frame, maxMessageSize: Int)
+      extends ByteStringParser[Frame] {
+    def this(codec: Codec, deframe: (Int, ByteString) => Frame) = this(codec, deframe, Int.MaxValue)
+
     override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
       new ParsingLogic {
         startWith(ReadFrameHeader)
@@ -145,7 +157,10 @@ object AbstractGrpcProtocol {
             val length = reader.readIntBE()
 
             if (length == 0) ParseResult(Some(deframe(frameType, ByteString.empty)), ReadFrameHeader)
-            else ParseResult(None, ReadFrame(frameType, length), acceptUpstreamFinish = false)
+            else if (length > maxMessageSize) {
+              failStage(messageTooLarge(length, maxMessageSize))
+              ParseResult(None, Failed)
+            } else ParseResult(None, ReadFrame(frameType, length), acceptUpstreamFinish = false)
           }
         }
 
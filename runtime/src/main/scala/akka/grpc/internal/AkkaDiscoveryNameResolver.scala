@@ -4,25 +4,34 @@
 
 package akka.grpc.internal
 
-import akka.actor.ActorSystem
-import akka.actor.Cancellable
-import akka.annotation.InternalApi
+import java.net.{ InetSocketAddress, UnknownHostException }
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.AtomicReference
 
-import java.net.{ InetAddress, InetSocketAddress, UnknownHostException }
+import akka.Done
+import akka.actor.{ ActorSystem, Cancellable }
+import akka.annotation.InternalApi
 import akka.discovery.ServiceDiscovery.ResolvedTarget
 import akka.discovery.{ Lookup, ServiceDiscovery }
 import akka.event.Logging
-import akka.grpc.GrpcClientSettings
+import akka.grpc.{ GrpcClientSettings, TargetAttributes }
 import io.grpc.{ Attributes, EquivalentAddressGroup, NameResolver, Status }
 import io.grpc.NameResolver.Listener
 
-import java.util.concurrent.atomic.AtomicReference
-import scala.concurrent.duration.FiniteDuration
-import scala.concurrent.{ ExecutionContext, Promise }
+import scala.concurrent.duration._
+import scala.concurrent.{ ExecutionContext, Future, Promise }
+import scala.jdk.CollectionConverters._
 import scala.util.{ Failure, Success }
 
 /**
  * INTERNAL API
+ *
+ * Host names of targets without an address are resolved through the shared [[HostResolutionCache]], the listener
+ * is only told about addresses that differ from the ones it was told about last, and the periodic refreshes are
+ * jittered so that the clients of an application do not all hit service discovery at the same time.
+ *
+ * The zone and weight that `targetAttributes` derives for a target are passed on in the attributes of its address
+ * group, for the [[ZoneAwareWeightedLoadBalancer]].
  */
 @InternalApi
 private[akka] final class AkkaDiscoveryNameResolver(
@@ -32,88 +41,120 @@ private[akka] final class AkkaDiscoveryNameResolver(
     portName: Option[String],
     protocol: Option[String],
     resolveTimeout: FiniteDuration,
-    refreshInterval: Option[FiniteDuration])(implicit val ec: ExecutionContext, system: ActorSystem)
+    refreshInterval: Option[FiniteDuration],
+    targetAttributes: ResolvedTarget => TargetAttributes = TargetAttributes.none)(
+    implicit val ec: ExecutionContext,
+    system: ActorSystem)
     extends NameResolver {
 
   private final val log = Logging(system, "akka.grpc.internal.AkkaDiscoveryNameResolver")
 
+  private val hostResolution = HostResolutionCache(system)
+  private val refreshJitter = system.settings.config.getDouble("akka.grpc.discovery-resolver.refresh-jitter")
+
   override def getServiceAuthority: String = serviceName
 
   private val listener: Promise[Listener] = Promise()
 
-  // initialized after first resolve if needed
+  // the address groups the listener was last told about, null if none or after an error
+  private val lastAddresses = new AtomicReference[Set[EquivalentAddressGroup]]
+
   private val refreshTask = new AtomicReference[Cancellable]
+  @volatile private var isShutdown = false
 
   override def start(l: Listener): Unit = {
     log.debug("Name resolver for {} started", serviceName)
     listener.trySuccess(l)
-    lookup(l, evict = false)
+    lookup(l, evict = false).onComplete(_ => scheduleRefresh())
   }
 
-  override def refresh(): Unit = refresh(false)
-
-  private def refresh(evict: Boolean): Unit =
+  override def refresh(): Unit =
     listener.future.onComplete {
       case Success(l) =>
         log.debug("Name resolver for {} refreshing", serviceName)
-        lookup(l, evict)
+        lookup(l, evict = false)
       case Failure(_) => // We never fail this promise
     }
 
-  def lookup(listener: Listener, evict: Boolean): Unit = {
+  /**
+   * @return completed when the listener has been notified, if it had to be
+   */
+  def lookup(listener: Listener, evict: Boolean): Future[Done] = {
     val request = {
       val l = Lookup(serviceName, portName, protocol)
       if (evict) l.withDiscardCache
       else l
     }
-    val result = discovery.lookup(request, resolveTimeout)
-
-    result.onComplete {
-      case Success(result) =>
-        try {
-          if (log.isDebugEnabled)
-            log.debug(
-              "Successful service discovery for service {}, found addresses: {}",
-              serviceName,
-              result.addresses.mkString(", "))
-          listener.onAddresses(addresses(result.addresses), Attributes.EMPTY)
-        } catch {
-          case e: UnknownHostException =>
-            log.warning(e, "Unknown host for service {}", serviceName)
-            listener.onError(Status.UNKNOWN.withDescription(e.getMessage))
-        }
-      case Failure(e) =>
-        log.warning(e, "Service discovery failed for service {}", serviceName)
-        listener.onError(Status.UNKNOWN.withDescription(e.getMessage))
+
+    discovery
+      .lookup(request, resolveTimeout)
+      .flatMap { result =>
+        if (log.isDebugEnabled)
+          log.debug(
+            "Successful service discovery for service {}, found addresses: {}",
+            serviceName,
+            result.addresses.mkString(", "))
+        addressGroups(result.addresses)
+      }
+      .transform {
+        case Success(groups) =>
+          val groupSet = groups.toSet
+          if (lastAddresses.getAndSet(groupSet) != groupSet)
+            listener.onAddresses(groups.asJava, Attributes.EMPTY)
+          Success(Done)
+        case Failure(e: UnknownHostException) =>
+          log.warning(e, "Unknown host for service {}", serviceName)
+          lastAddresses.set(null)
+          listener.onError(Status.UNKNOWN.withDescription(e.getMessage))
+          Success(Done)
+        case Failure(e) =>
+          log.warning(e, "Service discovery failed for service {}", serviceName)
+          lastAddresses.set(null)
+          listener.onError(Status.UNKNOWN.withDescription(e.getMessage))
+          Success(Done)
+      }
+  }
+
+  private def addressGroups(targets: Seq[ResolvedTarget]): Future[Seq[EquivalentAddressGroup]] = {
+    val groups = targets.map { target =>
+      val port = target.port.getOrElse(defaultPort)
+      val attributes = AkkaDiscoveryNameResolver.attributes(targetAttributes(target))
+      target.address match {
+        case Some(address) =>
+          Future.successful(new EquivalentAddressGroup(new InetSocketAddress(address, port), attributes))
+        case None =>
+          hostResolution
+            .lookup(target.host)
+            .map(address => new EquivalentAddressGroup(new InetSocketAddress(address, port), attributes))
+      }
     }
+    Future.sequence(groups)
+  }
 
-    // initialize refresh timer after first lookup, if configured
-    if (refreshInterval.isDefined && refreshTask.get() == null) {
-      result.onComplete { _ =>
-        refreshInterval.foreach { interval =>
-          val cancellable = system.scheduler.scheduleWithFixedDelay(interval, interval)(() => refresh(evict = true))
-          if (!refreshTask.compareAndSet(null, cancellable)) {
-            // concurrent update beat us to it, there already is a scheduled task
-            cancellable.cancel()
+  private def scheduleRefresh(): Unit =
+    refreshInterval.foreach { interval =>
+      if (!isShutdown) {
+        val task = system.scheduler.scheduleOnce(jittered(interval)) {
+          listener.future.value match {
+            case Some(Success(l)) => lookup(l, evict = true).onComplete(_ => scheduleRefresh())
+            case _                => // not started
           }
         }
+        refreshTask.set(task)
+        // shutdown may have raced with the scheduling
+        if (isShutdown) task.cancel()
       }
     }
-  }
 
-  @throws[UnknownHostException]
-  private def addresses(addresses: Seq[ResolvedTarget]) = {
-    import scala.jdk.CollectionConverters._
-    addresses
-      .map(target => {
-        val port = target.port.getOrElse(defaultPort)
-        val address = target.address.getOrElse(InetAddress.getByName(target.host))
-        new EquivalentAddressGroup(new InetSocketAddress(address, port))
-      })
-      .asJava
-  }
+  private def jittered(interval: FiniteDuration): FiniteDuration =
+    if (refreshJitter <= 0) interval
+    else {
+      val factor = 1.0 + refreshJitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1)
+      (interval.toNanos * factor).toLong.nanos
+    }
 
   override def shutdown(): Unit = {
+    isShutdown = true
     val refreshCancellable = refreshTask.get()
     if (refreshCancellable ne null) refreshCancellable.cancel()
   }
@@ -124,6 +165,25 @@ private[akka] final class AkkaDiscoveryNameResolver(
  */
 @InternalApi
 private[akka] object AkkaDiscoveryNameResolver {
+
+  /**
+   * The zone of the target of an address group, if known
+   */
+  val ZoneKey: Attributes.Key[String] = Attributes.Key.create("akka-grpc-target-zone")
+
+  /**
+   * The weight of the target of an address group, 1 if not set
+   */
+  val WeightKey: Attributes.Key[Integer] = Attributes.Key.create("akka-grpc-target-weight")
+
+  private def attributes(target: TargetAttributes): Attributes =
+    if (target == TargetAttributes.default) Attributes.EMPTY
+    else {
+      val builder = Attributes.newBuilder().set(WeightKey, Integer.valueOf(target.weight))
+      target.zone.foreach(builder.set(ZoneKey, _))
+      builder.build()
+    }
+
   def apply(
       settings: GrpcClientSettings)(implicit ec: ExecutionContext, system: ActorSystem): AkkaDiscoveryNameResolver =
     new AkkaDiscoveryNameResolver(
@@ -133,5 +193,6 @@ private[akka] object AkkaDiscoveryNameResolver {
       settings.servicePortName,
       settings.serviceProtocol,
       settings.resolveTimeout,
-      settings.discoveryRefreshInterval)
+      settings.discoveryRefreshInterval,
+      settings.targetAttributes)
 }
@@ -9,6 +9,8 @@ import akka.annotation.InternalApi
 
 import java.net.URI
 import akka.discovery.ServiceDiscovery
+import akka.discovery.ServiceDiscovery.ResolvedTarget
+import akka.grpc.TargetAttributes
 import io.grpc.{ NameResolver, NameResolverProvider }
 
 import scala.concurrent.ExecutionContext
@@ -25,7 +27,10 @@ private[akka] final class AkkaDiscoveryNameResolverProvider(
     portName: Option[String],
     protocol: Option[String],
     resolveTimeout: FiniteDuration,
-    refreshInterval: Option[FiniteDuration])(implicit ec: ExecutionContext, system: ActorSystem)
+    refreshInterval: Option[FiniteDuration],
+    targetAttributes: ResolvedTarget => TargetAttributes = TargetAttributes.none)(
+    implicit ec: ExecutionContext,
+    system: ActorSystem)
     extends NameResolverProvider {
   override def isAvailable: Boolean = true
 
@@ -41,6 +46,7 @@ private[akka] final class AkkaDiscoveryNameResolverProvider(
       portName,
       protocol,
       resolveTimeout,
-      refreshInterval)
+      refreshInterval,
+      targetAttributes)
   }
 }
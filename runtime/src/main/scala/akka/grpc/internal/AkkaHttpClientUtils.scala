@@ -4,10 +4,10 @@
 
 package akka.grpc.internal
 
-import akka.actor.ClassicActorSystemProvider
+import akka.actor.{ ActorSystem, ClassicActorSystemProvider }
 import akka.annotation.InternalApi
 import akka.event.LoggingAdapter
-import akka.grpc.GrpcProtocol.GrpcProtocolReader
+import akka.grpc.GrpcProtocol.{ DataFrame, GrpcProtocolReader, GrpcProtocolWriter, TrailerFrame }
 import akka.grpc._
 import akka.http.scaladsl.model.HttpEntity.Chunk
 import akka.http.scaladsl.model.HttpEntity.Chunked
@@ -16,6 +16,7 @@ import akka.http.scaladsl.model.HttpEntity.Strict
 import akka.http.scaladsl.model._
 import akka.http.scaladsl.model.headers.RawHeader
 import akka.http.scaladsl.settings.ClientConnectionSettings
+import akka.http.scaladsl.settings.ConnectionPoolSettings
 import akka.http.scaladsl.ClientTransport
 import akka.http.scaladsl.ConnectionContext
 import akka.http.scaladsl.Http
@@ -26,6 +27,8 @@ import akka.stream.scaladsl.Keep
 import akka.stream.scaladsl.Sink
 import akka.stream.scaladsl.Source
 import akka.stream.FlowShape
+import akka.stream.KillSwitch
+import akka.stream.KillSwitches
 import akka.stream.Materializer
 import akka.stream.OverflowStrategy
 import akka.util.ByteString
@@ -40,6 +43,7 @@ import java.net.InetSocketAddress
 import java.security.SecureRandom
 import java.util.concurrent.CompletionStage
 import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicReference
 import javax.net.ssl.KeyManager
 import javax.net.ssl.SSLContext
 import javax.net.ssl.TrustManager
@@ -73,24 +77,41 @@ object AkkaHttpClientUtils {
     // must default to no compression.
     // Configuring a different default could be a future feature.
     // Configuring compression per call could be a future power API feature.
-    implicit val writer = GrpcProtocolNative.newWriter(Identity)
+    implicit val writer: GrpcProtocolWriter =
+      if (settings.grpcWeb) GrpcProtocolWeb.newWriter(Identity) else GrpcProtocolNative.newWriter(Identity)
+    val telemetry = TelemetryExtension(sys).spi
 
     // TODO FIXME adapt to new API's for discovery, loadbalancing etc
     // https://github.com/akka/akka-grpc/issues/1196
     // https://github.com/akka/akka-grpc/issues/1197
 
+    // the endpoint of the current connection, to which the outcome of the calls started on it is attributed
+    val connected = new AtomicReference[ConnectedEndpoint]
+    // the endpoints found by the last discovery lookup
+    val discovered = new AtomicReference[immutable.Seq[InetSocketAddress]](Nil)
+    val outlierDetector = settings.outlierDetection.map { outlierDetection =>
+      new OutlierDetector[InetSocketAddress](
+        outlierDetection,
+        ejected =>
+          connected.get match {
+            // only move away if there is an endpoint to move to
+            case current @ ConnectedEndpoint(`ejected`, killSwitch) if discovered.get.exists(_ != ejected) =>
+              log.info("Closing the connection to ejected endpoint [{}] of {}", ejected, settings.serviceName)
+              // calls started until the next connection is established are not attributed to any endpoint
+              connected.compareAndSet(current, null)
+              killSwitch.abort(new EndpointEjectedException(ejected))
+            case _ =>
+          })
+    }
+
     val roundRobin = new AtomicInteger(0)
-    val clientConnectionSettings =
-      ClientConnectionSettings(sys).withTransport(ClientTransport.withCustomResolver((host, _) => {
-        settings.overrideAuthority.foreach { authority =>
-          if (host != authority)
-            throw new IllegalArgumentException(s"Unexpected host [$host], expected authority [$authority]")
-        }
-        settings.serviceDiscovery.lookup(settings.serviceName, 10.seconds).map { resolved =>
-          // quasi-roundrobin is nicer than random selection: somewhat lower chance of making
-          // an 'unlucky choice' multiple times in a row.
-          val nextIndex = roundRobin.incrementAndGet()
-          val target = resolved.addresses(nextIndex % resolved.addresses.size)
+    val resolvingTransport = ClientTransport.withCustomResolver((host, _) => {
+      settings.overrideAuthority.foreach { authority =>
+        if (host != authority)
+          throw new IllegalArgumentException(s"Unexpected host [$host], expected authority [$authority]")
+      }
+      settings.serviceDiscovery.lookup(settings.serviceName, 10.seconds).map { resolved =>
+        val endpoints = resolved.addresses.map { target =>
           target.address match {
             case Some(address) =>
               new InetSocketAddress(address, target.port.getOrElse(settings.defaultPort))
@@ -98,15 +119,53 @@ object AkkaHttpClientUtils {
               new InetSocketAddress(target.host, target.port.getOrElse(settings.defaultPort))
           }
         }
-      }))
+        discovered.set(endpoints)
+        val candidates = outlierDetector match {
+          case Some(detector) =>
+            detector.retain(endpoints.toSet)
+            // if all endpoints are ejected use any of them
+            val healthy = endpoints.filterNot(detector.isEjected)
+            if (healthy.nonEmpty) healthy else endpoints
+          case None => endpoints
+        }
+        // quasi-roundrobin is nicer than random selection: somewhat lower chance of making
+        // an 'unlucky choice' multiple times in a row.
+        val nextIndex = roundRobin.incrementAndGet()
+        candidates(nextIndex % candidates.size)
+      }
+    })
+    // completed once a connection is established, to warm up the channel
+    val firstConnection = Promise[Done]()
+    val transport = new ClientTransport {
+      override def connectTo(host: String, port: Int, connectionSettings: ClientConnectionSettings)(
+          implicit system: ActorSystem): Flow[ByteString, ByteString, Future[Http.OutgoingConnection]] = {
+        val connection = outlierDetector match {
+          case None => resolvingTransport.connectTo(host, port, connectionSettings)
+          case Some(_) =>
+            resolvingTransport
+              .connectTo(host, port, connectionSettings)
+              .viaMat(KillSwitches.single[ByteString])(Keep.both)
+              .mapMaterializedValue {
+                case (connection, killSwitch) =>
+                  connection.foreach(c => connected.set(ConnectedEndpoint(c.remoteAddress, killSwitch)))
+                  connection
+              }
+        }
+        connection.mapMaterializedValue { connection =>
+          connection.foreach(_ => firstConnection.trySuccess(Done))
+          connection
+        }
+      }
+    }
+    val clientConnectionSettings = connectionSettings(settings, ClientConnectionSettings(sys).withTransport(transport))
 
     val builder = Http()
       .connectionTo(settings.overrideAuthority.getOrElse(settings.serviceName))
       .withClientConnectionSettings(clientConnectionSettings)
 
-    val http2client =
-      if (settings.useTls) {
-        val connectionContext: HttpsConnectionContext =
+    val connectionContext: Option[HttpsConnectionContext] =
+      if (settings.useTls)
+        Some(
           settings.sslContextProvider
             .map(provider => ConnectionContext.httpsClient((host, port) => provider().createSSLEngine(host, port)))
             .getOrElse {
@@ -118,12 +177,16 @@ object AkkaHttpClientUtils {
                   sslContext
               })
               ConnectionContext.httpsClient(sslContext)
-            }
-
-        builder.withCustomHttpsConnectionContext(connectionContext).managedPersistentHttp2()
-      } else {
-        builder.managedPersistentHttp2WithPriorKnowledge()
-      }
+            })
+      else None
+
+    val httpClient: Flow[HttpRequest, HttpResponse, Any] =
+      if (settings.grpcWeb) grpcWebClient(connectionContext, clientConnectionSettings)
+      else
+        connectionContext match {
+          case Some(context) => builder.withCustomHttpsConnectionContext(context).managedPersistentHttp2()
+          case None          => builder.managedPersistentHttp2WithPriorKnowledge()
+        }
 
     // make sure we always fail all queued on http client fail to connect
     val cancelFailed: Flow[HttpRequest, HttpRequest, NotUsed] = {
@@ -148,12 +211,19 @@ object AkkaHttpClientUtils {
       Source
         .queue[HttpRequest](4242, OverflowStrategy.fail)
         .via(cancelFailed)
-        .via(http2client)
+        .via(httpClient)
         .toMat(Sink.foreach { res =>
           res.attribute(ResponsePromise.Key).get.promise.trySuccess(res)
         })(Keep.both)
         .run()
 
+    for (outlierDetection <- settings.outlierDetection; detector <- outlierDetector) {
+      val evaluation = sys.classicSystem.scheduler.scheduleWithFixedDelay(
+        outlierDetection.interval,
+        outlierDetection.interval)(() => detector.evaluate())
+      doneFuture.onComplete(_ => evaluation.cancel())
+    }
+
     def singleRequest(request: HttpRequest): Future[HttpResponse] = {
       val p = Promise[HttpResponse]()
       queue.offer(request.addAttribute(ResponsePromise.Key, ResponsePromise(p))).flatMap(_ => p.future).recover {
@@ -176,6 +246,13 @@ object AkkaHttpClientUtils {
 
       override def done: Future[Done] = doneFuture
 
+      // the grpc-web connection pool only connects for a request
+      override def warmUp(): Future[Done] =
+        if (settings.grpcWeb) Future.successful(Done)
+        else ChannelUtils.warmUp(firstConnection.future, doneFuture)
+
+      override val retryBudget: Option[RetryBudget] = RetryBudget(settings)
+
       override def invoke[I, O](
           request: I,
           headers: MetadataImpl,
@@ -215,16 +292,124 @@ object AkkaHttpClientUtils {
           descriptor: MethodDescriptor[I, O],
           streamingResponse: Boolean,
           options: CallOptions): Source[O, Future[GrpcResponseMetadata]] = {
-        implicit val serializer: ProtobufSerializer[I] = serializerFromMethodDescriptor(descriptor)
-        val deserializer: ProtobufSerializer[O] = deserializerFromMethodDescriptor(descriptor)
-        val scheme = if (settings.useTls) "https" else "http"
-        val httpRequest = GrpcRequestHelpers(
-          Uri(
-            s"${scheme}://${settings.overrideAuthority.getOrElse(settings.serviceName)}/" + descriptor.getFullMethodName),
-          GrpcEntityHelpers.metadataHeaders(headers.entries),
-          source)
-        responseToSource(httpRequest.uri, singleRequest(httpRequest), deserializer, streamingResponse)
+        CallTelemetry.instrumentAkkaHttpClient(
+          telemetry,
+          descriptor,
+          serializerFromMethodDescriptor(descriptor),
+          deserializerFromMethodDescriptor(descriptor),
+          headers,
+          source) { (serializer, deserializer, headers, source) =>
+          val scheme = if (settings.useTls) "https" else "http"
+          val authority = settings.overrideAuthority.getOrElse(settings.serviceName)
+          if (settings.grpcWeb && !descriptor.getType.clientSendsOneMessage()) {
+            // grpc-web proxies only forward the request once it is complete
+            val failure = new StatusRuntimeException(
+              Status.UNIMPLEMENTED.withDescription(
+                s"Client streaming call ${descriptor.getFullMethodName} is not supported with grpc-web"))
+            Source.failed[O](failure).mapMaterializedValue(_ => Future.failed[GrpcResponseMetadata](failure))
+          } else {
+            val metadataHeaders = GrpcEntityHelpers.metadataHeaders(headers.entries)
+            val httpRequest = GrpcRequestHelpers(
+              Uri(s"${scheme}://${authority}/" + descriptor.getFullMethodName),
+              if (settings.grpcWeb) metadataHeaders :+ GrpcWebHeader else metadataHeaders,
+              source)(serializer, writer, sys)
+            // the connection the request is offered to, a later connection may have a different endpoint
+            val endpoint = connected.get
+            val responses = responseToSource(
+              httpRequest.uri,
+              singleRequest(httpRequest),
+              deserializer,
+              streamingResponse,
+              settings.responseDeserializationParallelism,
+              settings.maxInboundMessageSize.getOrElse(Int.MaxValue))
+            outlierDetector match {
+              case Some(detector) if endpoint ne null => recordOutcome(detector, endpoint, descriptor, responses)
+              case _                                  => responses
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * INTERNAL API
+   *
+   * The HTTP/2 keep-alive, idle timeout and flow control window of the client settings applied to the connection
+   * settings.
+   */
+  @InternalApi
+  private[akka] def connectionSettings(
+      settings: GrpcClientSettings,
+      base: ClientConnectionSettings): ClientConnectionSettings = {
+    val withIdleTimeout = settings.idleTimeout.fold(base)(base.withIdleTimeout(_))
+    val http2 = settings.initialWindowSize.fold(withIdleTimeout.http2Settings) { windowSize =>
+      withIdleTimeout.http2Settings
+        .withIncomingStreamLevelBufferSize(windowSize)
+        .withIncomingConnectionLevelBufferSize(
+          math.max(withIdleTimeout.http2Settings.incomingConnectionLevelBufferSize, windowSize))
+    }
+    val withKeepAlive = settings.keepAliveTime match {
+      case Some(time) =>
+        // Akka HTTP requires the ping interval to be a multiple of the ping timeout, zero uses the interval
+        val timeout =
+          if (settings.keepAliveTimeout <= time && time.toNanos % settings.keepAliveTimeout.toNanos == 0)
+            settings.keepAliveTimeout
+          else Duration.Zero
+        http2.withPingInterval(time).withPingTimeout(timeout)
+      case None => http2
+    }
+    withIdleTimeout.withHttp2Settings(withKeepAlive)
+  }
+
+  private val GrpcWebHeader = RawHeader("x-grpc-web", "1")
+
+  /**
+   * The HTTP/1.1 connection pool for grpc-web calls, in place of the persistent HTTP/2 connection. A failed request
+   * only fails its own response promise, the pool keeps serving the other requests.
+   */
+  private def grpcWebClient(
+      connectionContext: Option[HttpsConnectionContext],
+      clientConnectionSettings: ClientConnectionSettings)(
+      implicit sys: ClassicActorSystemProvider): Flow[HttpRequest, HttpResponse, NotUsed] = {
+    val poolSettings = ConnectionPoolSettings(sys).withConnectionSettings(clientConnectionSettings)
+    val pool = connectionContext match {
+      case Some(context) => Http().superPool[ResponsePromise](context, poolSettings)
+      case None          => Http().superPool[ResponsePromise](settings = poolSettings)
+    }
+    Flow[HttpRequest]
+      .map(request => request -> request.attribute(ResponsePromise.Key).get)
+      .via(pool)
+      .mapConcat {
+        case (Success(response), promise) => response.addAttribute(ResponsePromise.Key, promise) :: Nil
+        case (Failure(ex), promise) =>
+          promise.promise.tryFailure(ex)
+          Nil
       }
+  }
+
+  private final case class ConnectedEndpoint(address: InetSocketAddress, killSwitch: KillSwitch)
+
+  private final class EndpointEjectedException(endpoint: InetSocketAddress)
+      extends RuntimeException(s"Endpoint [$endpoint] ejected by outlier detection", null, false, false)
+
+  private def recordOutcome[I, O](
+      detector: OutlierDetector[InetSocketAddress],
+      endpoint: ConnectedEndpoint,
+      descriptor: MethodDescriptor[I, O],
+      responses: Source[O, Future[GrpcResponseMetadata]]): Source[O, Future[GrpcResponseMetadata]] = {
+    val startNanos = System.nanoTime()
+    responses.watchTermination() { (mat, done) =>
+      done.onComplete { result =>
+        val success = result match {
+          case Success(_)  => true
+          case Failure(ex) => Status.fromThrowable(ex).isOk
+        }
+        val latencyNanos =
+          if (descriptor.getType == MethodDescriptor.MethodType.UNARY) System.nanoTime() - startNanos else -1L
+        detector.record(endpoint.address, success, latencyNanos)
+      }(ExecutionContext.parasitic)
+      mat
     }
   }
 
@@ -238,6 +423,30 @@ object AkkaHttpClientUtils {
       deserializer: ProtobufSerializer[O],
       streamingResponse: Boolean)(
       implicit ec: ExecutionContext,
+      mat: Materializer): Source[O, Future[GrpcResponseMetadata]] =
+    responseToSource(
+      requestUri,
+      response,
+      deserializer,
+      streamingResponse,
+      deserializationParallelism = 1,
+      maxMessageSize = Int.MaxValue)
+
+  /**
+   * INTERNAL API
+   *
+   * @param deserializationParallelism the number of messages of a streamed response to deserialize in parallel
+   * @param maxMessageSize the response fails with `RESOURCE_EXHAUSTED` on a larger message
+   */
+  @InternalApi
+  def responseToSource[O](
+      requestUri: Uri,
+      response: Future[HttpResponse],
+      deserializer: ProtobufSerializer[O],
+      streamingResponse: Boolean,
+      deserializationParallelism: Int,
+      maxMessageSize: Int)(
+      implicit ec: ExecutionContext,
       mat: Materializer): Source[O, Future[GrpcResponseMetadata]] = {
     Source.lazyFutureSource[O, Future[GrpcResponseMetadata]](() => {
       response.map { response =>
@@ -245,53 +454,94 @@ object AkkaHttpClientUtils {
           if (response.status != StatusCodes.OK) {
             response.entity.discardBytes()
             val failure = mapToStatusException(requestUri, response, immutable.Seq.empty)
-            Source.failed(failure).mapMaterializedValue(_ => Future.failed(failure))
+            Source.failed[O](failure).mapMaterializedValue(_ => Future.failed[GrpcResponseMetadata](failure))
           } else {
             Codecs.detect(response) match {
               case Success(codec) =>
-                implicit val reader: GrpcProtocolReader = GrpcProtocolNative.newReader(codec)
+                val webProtocol = GrpcProtocol.detect(response.entity.contentType.mediaType).collect {
+                  case web: GrpcProtocolWebBase => web
+                }
+                val reader: GrpcProtocolReader = webProtocol match {
+                  case Some(web) => web.newReader(codec, maxMessageSize)
+                  case None =>
+                    if (maxMessageSize == Int.MaxValue) GrpcProtocolNative.newReader(codec)
+                    else GrpcProtocolNative.newReader(codec, maxMessageSize)
+                }
                 val trailerPromise = Promise[immutable.Seq[HttpHeader]]()
                 // Completed with success or failure based on grpc-status and grpc-message trailing headers
                 val completionFuture: Future[Unit] =
                   trailerPromise.future.flatMap(trailers => parseResponseStatus(requestUri, response, trailers))
 
-                val responseData =
-                  response.entity match {
-                    case Chunked(_, chunks) =>
-                      chunks
-                        .map {
-                          case Chunk(data, _) =>
-                            data
-                          case LastChunk(_, trailer) =>
-                            trailerPromise.success(trailer)
-                            ByteString.empty
+                def withStatus(data: Source[ByteString, Any]): Source[ByteString, Any] = {
+                  val baseFlow = data
+                    // This never adds any data to the stream, but makes sure it fails with the correct error code if applicable
+                    .concat(
+                      Source
+                        .maybe[ByteString]
+                        .mapMaterializedValue(promise => promise.completeWith(completionFuture.map(_ => None))))
+                  if (streamingResponse) {
+                    baseFlow
+                  } else {
+                    // Make sure we continue reading to get the trailing header even if we're no longer interested in the rest of the body
+                    baseFlow.via(new CancellationBarrierGraphStage)
+                  }
+                }
+
+                val frames = webProtocol match {
+                  case Some(_) =>
+                    // grpc-web carries the trailers in a trailer frame at the end of the body
+                    withStatus(
+                      response.entity.dataBytes
+                        .via(reader.frameDecoder)
+                        .mapConcat {
+                          case DataFrame(data) => data :: Nil
+                          case TrailerFrame(trailer) =>
+                            trailerPromise.trySuccess(trailer)
+                            Nil
                         }
                         .watchTermination()((_, done) =>
-                          done.onComplete(_ => trailerPromise.trySuccess(immutable.Seq.empty)))
-                    case Strict(_, data) =>
-                      val rawTrailers = response.attribute(AttributeKeys.trailer).map(_.headers).getOrElse(Seq.empty)
-                      val trailers = rawTrailers.map(h => RawHeader(h._1, h._2))
-                      trailerPromise.success(trailers)
-                      Source.single[ByteString](data)
+                          done.onComplete(_ => trailerPromise.trySuccess(immutable.Seq.empty))))
+                  case None =>
+                    val responseData =
+                      response.entity match {
+                        case Chunked(_, chunks) =>
+                          chunks
+                            .map {
+                              case Chunk(data, _) =>
+                                data
+                              case LastChunk(_, trailer) =>
+                                trailerPromise.success(trailer)
+                                ByteString.empty
+                            }
+                            .watchTermination()((_, done) =>
+                              done.onComplete(_ => trailerPromise.trySuccess(immutable.Seq.empty)))
+                        case Strict(_, data) =>
+                          val rawTrailers =
+                            response.attribute(AttributeKeys.trailer).map(_.headers).getOrElse(Seq.empty)
+                          val trailers = rawTrailers.map(h => RawHeader(h._1, h._2))
+                          trailerPromise.success(trailers)
+                          Source.single[ByteString](data)
+                        case _ =>
+                          response.entity.discardBytes()
+                          throw mapToStatusException(requestUri, response, Seq.empty)
+                      }
+                    withStatus(responseData).via(reader.dataFrameDecoder)
+                }
+                val messages =
+                  if (streamingResponse && deserializationParallelism > 1) deserializer match {
+                    // the telemetry hooks must not run concurrently, so only the parsing runs in parallel
+                    case counting: CallTelemetry.CountingDeserializer[O @unchecked] =>
+                      frames
+                        .map { bytes =>
+                          counting.count(bytes)
+                          bytes
+                        }
+                        .mapAsync(deserializationParallelism)(bytes => Future(counting.underlying.deserialize(bytes)))
                     case _ =>
-                      response.entity.discardBytes()
-                      throw mapToStatusException(requestUri, response, Seq.empty)
+                      frames.mapAsync(deserializationParallelism)(bytes => Future(deserializer.deserialize(bytes)))
                   }
-                val baseFlow = responseData
-                  // This never adds any data to the stream, but makes sure it fails with the correct error code if applicable
-                  .concat(
-                    Source
-                      .maybe[ByteString]
-                      .mapMaterializedValue(promise => promise.completeWith(completionFuture.map(_ => None))))
-                val flow = if (streamingResponse) {
-                  baseFlow
-                } else {
-                  // Make sure we continue reading to get the trailing header even if we're no longer interested in the rest of the body
-                  baseFlow.via(new CancellationBarrierGraphStage)
-                }
-                flow
-                  .via(reader.dataFrameDecoder)
-                  .map(deserializer.deserialize)
+                  else frames.map(deserializer.deserialize)
+                messages
                   .mapMaterializedValue(_ =>
                     Future.successful(new GrpcResponseMetadata() {
                       override def headers: akka.grpc.scaladsl.Metadata =
@@ -11,6 +11,9 @@ import akka.stream.{ Attributes => _, _ }
 import akka.stream.stage._
 import io.grpc._
 
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicBoolean
+
 import scala.concurrent.ExecutionContext
 import scala.concurrent.{ Future, Promise }
 import scala.jdk.FutureConverters._
@@ -34,7 +37,12 @@ private object AkkaNettyGrpcClientGraphStage {
  *  upstream pull <-- onReady ---  |      call      | <-- request(1) ---  downstream pull
  *                                 ------------------
  *
+ * Listener events are put on a queue that is drained by the stage, the async callback is only
+ * invoked to signal that the queue went from empty to non-empty, so that a burst of messages from
+ * Netty results in a single hop to the stage rather than one per element.
+ *
  * @param streamingResponse Do we expect a stream of responses or does more than 1 response mean a faulty server?
+ * @param flowBuffer records the number of listener events drained at once when the stream is instrumented, or null
  */
 @InternalApi
 private final class AkkaNettyGrpcClientGraphStage[I, O](
@@ -42,7 +50,8 @@ private final class AkkaNettyGrpcClientGraphStage[I, O](
     channel: Channel,
     options: CallOptions,
     streamingResponse: Boolean,
-    headers: MetadataImpl)
+    headers: MetadataImpl,
+    flowBuffer: StreamFlowBuffer)
     extends GraphStageWithMaterializedValue[FlowShape[I, O], Future[GrpcResponseMetadata]] {
   val fqMethodName = descriptor.getFullMethodName
   val in = Inlet[I](fqMethodName + ".in")
@@ -62,8 +71,36 @@ private final class AkkaNettyGrpcClientGraphStage[I, O](
       var sawFirstElement = false
       var requested = 0
 
+      // listener events, in order, produced by the netty call listener (callbacks for a call are
+      // serialized by grpc-java so there is a single producer) and consumed by the stage
       // any here to avoid wrapping every incoming element
-      val callback = getAsyncCallback[Any] {
+      val pending = new ConcurrentLinkedQueue[Any]()
+      // true while a drain has been scheduled but has not yet started
+      val drainScheduled = new AtomicBoolean(false)
+
+      val drainCallback = getAsyncCallback[Unit] { _ =>
+        drainScheduled.set(false)
+        drain()
+      }
+
+      def enqueue(event: Any): Unit = {
+        pending.offer(event)
+        if (drainScheduled.compareAndSet(false, true)) drainCallback.invoke(())
+      }
+
+      def drain(): Unit = {
+        var drained = 0
+        var event = pending.poll()
+        while (event != null) {
+          onEvent(event)
+          drained += 1
+          // stop draining once the stage has been completed or failed
+          event = if (isClosed(in) && isClosed(out)) null else pending.poll()
+        }
+        if (flowBuffer ne null) flowBuffer.recordBuffered(drained)
+      }
+
+      def onEvent(event: Any): Unit = event match {
         case msg: ControlMessage =>
           msg match {
             case ReadyForSending         => if (!isClosed(in) && !hasBeenPulled(in)) tryPull(in)
@@ -83,7 +120,7 @@ private final class AkkaNettyGrpcClientGraphStage[I, O](
 
       val listener = new ClientCall.Listener[O] {
         override def onReady(): Unit =
-          callback.invoke(ReadyForSending)
+          enqueue(ReadyForSending)
         override def onHeaders(responseHeaders: Metadata): Unit =
           matVal.success(new GrpcResponseMetadata {
             private lazy val sMetadata = MetadataImpl.scalaMetadataFromGoogleGrpcMetadata(responseHeaders)
@@ -100,14 +137,14 @@ private final class AkkaNettyGrpcClientGraphStage[I, O](
             def getTrailers() = jTrailers
           })
         override def onMessage(message: O): Unit =
-          callback.invoke(message)
+          enqueue(message)
         override def onClose(status: Status, trailers: Metadata): Unit = {
           if (!matVal.isCompleted) {
             // Trailers only response, first invoke onHeaders to setup the materialized value
             onHeaders(trailers)
           }
           trailerPromise.success(trailers)
-          callback.invoke(Closed(status, trailers))
+          enqueue(Closed(status, trailers))
         }
       }
       override def preStart(): Unit = {
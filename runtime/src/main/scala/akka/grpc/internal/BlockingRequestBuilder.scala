@@ -7,10 +7,12 @@ package akka.grpc.internal
 import akka.NotUsed
 import akka.annotation.InternalApi
 import akka.annotation.InternalStableApi
+import akka.grpc.GrpcRetryPolicy
 import akka.grpc.GrpcSingleResponse
 import akka.grpc.javadsl.SingleBlockingResponseRequestBuilder
 import akka.pattern.RetrySettings
 import akka.stream.javadsl.{ Source => JavaSource }
+import io.grpc.Status
 
 import java.time.Duration
 import java.util.concurrent.CompletionStage
@@ -70,6 +72,18 @@ private[akka] final class JavaSingleBlockingResponseRequestBuilder[I, O](delegat
   override def withRetry(maxRetries: Int): JavaSingleBlockingResponseRequestBuilder[I, O] =
     copy(delegate.withRetry(maxRetries))
 
+  override def withRetry(retryPolicy: GrpcRetryPolicy): JavaSingleBlockingResponseRequestBuilder[I, O] =
+    copy(delegate.withRetry(retryPolicy))
+
+  override def withHedging(maxAttempts: Int, hedgingDelay: Duration): JavaSingleBlockingResponseRequestBuilder[I, O] =
+    copy(delegate.withHedging(maxAttempts, hedgingDelay))
+
+  override def withHedging(
+      maxAttempts: Int,
+      hedgingDelay: Duration,
+      nonFatalStatusCodes: java.util.Set[Status.Code]): JavaSingleBlockingResponseRequestBuilder[I, O] =
+    copy(delegate.withHedging(maxAttempts, hedgingDelay, nonFatalStatusCodes))
+
   override def headers: MetadataImpl = delegate.headers
 
   override def withHeaders(headers: MetadataImpl): JavaSingleBlockingResponseRequestBuilder[I, O] = copy(
@@ -122,6 +136,20 @@ private[akka] final class JavaClientStreamingBlockingResponseRequestBuilder[I, O
   override def withRetry(maxRetries: Int): JavaClientStreamingBlockingResponseRequestBuilder[I, O] =
     copy(delegate.withRetry(maxRetries))
 
+  override def withRetry(retryPolicy: GrpcRetryPolicy): JavaClientStreamingBlockingResponseRequestBuilder[I, O] =
+    copy(delegate.withRetry(retryPolicy))
+
+  override def withHedging(
+      maxAttempts: Int,
+      hedgingDelay: Duration): JavaClientStreamingBlockingResponseRequestBuilder[I, O] =
+    copy(delegate.withHedging(maxAttempts, hedgingDelay))
+
+  override def withHedging(
+      maxAttempts: Int,
+      hedgingDelay: Duration,
+      nonFatalStatusCodes: java.util.Set[Status.Code]): JavaClientStreamingBlockingResponseRequestBuilder[I, O] =
+    copy(delegate.withHedging(maxAttempts, hedgingDelay, nonFatalStatusCodes))
+
   private def copy(
       delegate: JavaClientStreamingRequestBuilder[I, O]): JavaClientStreamingBlockingResponseRequestBuilder[I, O] =
     new JavaClientStreamingBlockingResponseRequestBuilder[I, O](delegate)
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.{ LinkedHashMap => JLinkedHashMap, Map => JMap }
+
+import akka.{ Done, NotUsed }
+import akka.annotation.InternalApi
+import akka.grpc.{ GrpcResponseMetadata, GrpcSingleResponse }
+import akka.grpc.scaladsl.{ Metadata, MetadataEntry }
+import akka.stream.scaladsl.Source
+import akka.util.Helpers
+import io.grpc.{ CallCredentials, CallOptions, MethodDescriptor }
+
+import scala.concurrent.{ ExecutionContext, Future }
+import scala.concurrent.duration._
+import scala.util.Success
+
+/**
+ * INTERNAL API
+ *
+ * Caches the responses of unary calls to methods marked with `option idempotency_level = NO_SIDE_EFFECTS`, which
+ * the generated code marks as safe in their `MethodDescriptor`. Requests are keyed on the request message itself
+ * and the request headers, or only the `keyHeaders` if given, so a hit neither serializes the request nor touches the
+ * network, and callers with different headers, such as an authorization header, never share a response. Calls with
+ * call credentials other than the `clientCredentials` of the client are not cached, since their headers are only
+ * known once the call is made.
+ *
+ * The cache holds at most `maxEntries` responses, evicting the least recently used one, each for at most
+ * `timeToLive`. A `cache-control` trailer (or header) from the server with `no-store` or `no-cache` prevents
+ * caching the response, and `max-age=<seconds>` replaces the time to live for it.
+ */
+@InternalApi
+private[akka] final class CachingInternalChannel(
+    delegate: InternalChannel,
+    maxEntries: Int,
+    timeToLive: FiniteDuration,
+    keyHeaders: Option[Set[String]] = None,
+    clientCredentials: Option[CallCredentials] = None,
+    clock: () => Long = () => System.nanoTime())
+    extends InternalChannel {
+  import CachingInternalChannel._
+
+  require(maxEntries > 0, s"maxEntries must be positive, was [$maxEntries]")
+
+  private val cache = new JLinkedHashMap[CacheKey, CacheEntry](16, 0.75f, true) {
+    override def removeEldestEntry(eldest: JMap.Entry[CacheKey, CacheEntry]): Boolean = size() > maxEntries
+  }
+
+  override def invoke[I, O](
+      request: I,
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      options: CallOptions): Future[O] =
+    if (!isCacheable(descriptor, options)) delegate.invoke(request, headers, descriptor, options)
+    else {
+      val key = CacheKey(descriptor.getFullMethodName, request, keyEntries(headers, keyHeaders))
+      lookup(key) match {
+        case Some(response) => Future.successful(response.asInstanceOf[O])
+        case None =>
+          delegate.invokeWithMetadata(request, headers, descriptor, options).map { response =>
+            response.trailers.onComplete {
+              case Success(trailers) =>
+                cacheTimeToLive(trailers, response.headers, timeToLive).foreach { ttl =>
+                  store(key, response.value, ttl)
+                }
+              case _ => // call failed, nothing to cache
+            }(ExecutionContext.parasitic)
+            response.value
+          }(ExecutionContext.parasitic)
+      }
+    }
+
+  private def isCacheable(descriptor: MethodDescriptor[_, _], options: CallOptions): Boolean =
+    descriptor.isSafe && descriptor.getType == MethodDescriptor.MethodType.UNARY &&
+    !hasOwnCredentials(options, clientCredentials)
+
+  private def lookup(key: CacheKey): Option[Any] = cache.synchronized {
+    cache.get(key) match {
+      case null => None
+      case entry if entry.expiresAtNanos - clock() > 0 => Some(entry.response)
+      case _ =>
+        cache.remove(key)
+        None
+    }
+  }
+
+  private def store(key: CacheKey, response: Any, ttl: FiniteDuration): Unit = cache.synchronized {
+    cache.put(key, CacheEntry(response, clock() + ttl.toNanos))
+  }
+
+  override def invokeWithMetadata[I, O](
+      request: I,
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      options: CallOptions): Future[GrpcSingleResponse[O]] =
+    delegate.invokeWithMetadata(request, headers, descriptor, options)
+
+  override def invokeWithMetadata[I, O](
+      source: Source[I, NotUsed],
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      streamingResponse: Boolean,
+      options: CallOptions): Source[O, Future[GrpcResponseMetadata]] =
+    delegate.invokeWithMetadata(source, headers, descriptor, streamingResponse, options)
+
+  override def shutdown(): Unit = delegate.shutdown()
+
+  override def done: Future[Done] = delegate.done
+
+  override def retryBudget: Option[RetryBudget] = delegate.retryBudget
+
+  override def warmUp(): Future[Done] = delegate.warmUp()
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object CachingInternalChannel {
+  val CacheControlHeader = "cache-control"
+
+  private final case class CacheKey(method: String, request: Any, headers: List[(String, MetadataEntry)])
+  private final case class CacheEntry(response: Any, expiresAtNanos: Long)
+
+  /**
+   * @return whether the call has call credentials other than those of the client, whose headers are only known once
+   *         the call is made
+   */
+  def hasOwnCredentials(options: CallOptions, clientCredentials: Option[CallCredentials]): Boolean =
+    options.getCredentials match {
+      case null        => false
+      case credentials => !clientCredentials.contains(credentials)
+    }
+
+  /**
+   * @return the request headers that are part of the key of a call, all of them if `keyHeaders` is None
+   */
+  def keyEntries(headers: MetadataImpl, keyHeaders: Option[Set[String]]): List[(String, MetadataEntry)] =
+    keyHeaders match {
+      case None        => headers.entries
+      case Some(names) => headers.entries.filter { case (name, _) => names.contains(Helpers.toRootLowerCase(name)) }
+    }
+
+  /**
+   * @return how long to cache a response according to its `cache-control` trailer or header, None if it must not
+   *         be cached
+   */
+  def cacheTimeToLive(trailers: Metadata, headers: Metadata, default: FiniteDuration): Option[FiniteDuration] =
+    trailers.getText(CacheControlHeader).orElse(headers.getText(CacheControlHeader)) match {
+      case None => Some(default)
+      case Some(value) =>
+        val directives = value.split(',').iterator.map(d => Helpers.toRootLowerCase(d.trim)).toList
+        if (directives.exists(d => d == "no-store" || d == "no-cache")) None
+        else
+          directives.collectFirst {
+            case d if d.startsWith("max-age=") => parseSeconds(d.substring("max-age=".length))
+          } match {
+            case Some(seconds) if seconds > 0 => Some(seconds.seconds)
+            case Some(_)                      => None // zero or malformed, do not cache
+            case None                         => Some(default)
+          }
+    }
+
+  private def parseSeconds(value: String): Long =
+    try value.toLong
+    catch {
+      case _: NumberFormatException => -1L
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.CompletionStage
+
+import akka.NotUsed
+import akka.annotation.InternalApi
+import akka.grpc.{ GrpcResponseMetadata, ProtobufSerializer }
+import akka.http.javadsl.{ model => jm }
+import akka.http.scaladsl.model.{ AttributeKeys, HttpEntity, HttpHeader, HttpRequest, HttpResponse }
+import akka.http.scaladsl.model.HttpEntity.{ Chunk, ChunkStreamPart, LastChunk }
+import akka.stream.scaladsl.{ Flow, Source }
+import akka.util.ByteString
+import io.grpc.{
+  CallOptions,
+  Channel,
+  ClientCall,
+  ClientInterceptor,
+  ClientStreamTracer,
+  ForwardingClientCall,
+  ForwardingClientCallListener,
+  Metadata,
+  MethodDescriptor,
+  Status
+}
+
+import scala.concurrent.{ ExecutionContext, Future }
+import scala.jdk.FutureConverters._
+import scala.util.{ Failure, Success, Try }
+import scala.util.control.NonFatal
+
+/**
+ * INTERNAL API
+ *
+ * Invokes the call lifecycle hooks of the [[TelemetrySpi]]. Nothing is instrumented for calls for which
+ * `onCallStart` returns null, which is the case for the no-op telemetry.
+ */
+@InternalApi
+private[akka] object CallTelemetry {
+
+  /**
+   * Instrument a call handled by a generated server handler. The messages are counted from the gRPC frames of the
+   * request and response entities, the status is taken from the trailers.
+   */
+  def instrumentServer(spi: TelemetrySpi, service: String, method: String, request: HttpRequest)(
+      handle: HttpRequest => Future[HttpResponse]): Future[HttpResponse] =
+    if ((spi eq NoOpTelemetry) || !GrpcProtocolNative.mediaTypes.contains(request.entity.contentType.mediaType))
+      handle(request)
+    else
+      spi.onServerCallStart(service, method, new HttpMessageMetadataImpl(request)) match {
+        case null => handle(request)
+        case context =>
+          val startNanos = System.nanoTime()
+          def end(status: Status): Unit = spi.onCallEnd(context, status, System.nanoTime() - startNanos)
+
+          val received = new FrameCounter(size => spi.onMessageReceived(context, size))
+          val countedRequest = request.entity match {
+            case strict: HttpEntity.Strict =>
+              received.feed(strict.data)
+              request
+            case entity =>
+              request.withEntity(entity.transformDataBytes(streamFlow(spi, context, outbound = false) {
+                Flow[ByteString].map { bytes =>
+                  received.feed(bytes)
+                  bytes
+                }
+              }))
+          }
+
+          val result =
+            try spi.inServerCallScope(context)(() => handle(countedRequest))
+            catch {
+              case NonFatal(ex) => Future.failed(ex)
+            }
+          result.transform {
+            case Success(response) => Success(instrumentResponse(spi, context, response, end))
+            case failure @ Failure(ex) =>
+              end(Status.fromThrowable(ex))
+              failure
+          }(ExecutionContext.parasitic)
+      }
+
+  /**
+   * Java API for generated Java server handlers
+   */
+  def instrumentJavaServer(
+      spi: TelemetrySpi,
+      service: String,
+      method: String,
+      request: jm.HttpRequest,
+      handle: java.util.function.Function[jm.HttpRequest, CompletionStage[jm.HttpResponse]])
+      : CompletionStage[jm.HttpResponse] =
+    instrumentServer(spi, service, method, request.asInstanceOf[HttpRequest]) { r =>
+      handle(r).asScala.map(_.asInstanceOf[HttpResponse])(ExecutionContext.parasitic)
+    }.map(response => response: jm.HttpResponse)(ExecutionContext.parasitic).asJava
+
+  private def instrumentResponse(
+      spi: TelemetrySpi,
+      context: AnyRef,
+      response: HttpResponse,
+      end: Status => Unit): HttpResponse = {
+    val sent = new FrameCounter(size => spi.onMessageSent(context, size))
+    // a trailers-only response carries the status in the headers
+    val headerStatus = statusFrom(response.headers)
+    response.entity match {
+      case strict: HttpEntity.Strict =>
+        sent.feed(strict.data)
+        end(
+          headerStatus
+            .orElse(response.attribute(AttributeKeys.trailer).flatMap(t => statusFromRaw(t.headers)))
+            .getOrElse(Status.UNKNOWN))
+        response
+      case HttpEntity.Chunked(contentType, chunks) =>
+        var trailerStatus: Option[Status] = None
+        val countedChunks = chunks
+          .map {
+            case chunk: Chunk =>
+              sent.feed(chunk.data)
+              chunk
+            case last: LastChunk =>
+              trailerStatus = statusFrom(last.trailer)
+              last: ChunkStreamPart
+          }
+          .via(streamFlow(spi, context, outbound = true)(Flow[ChunkStreamPart]))
+          .watchTermination() { (mat, done) =>
+            done.onComplete {
+              case Success(_) =>
+                // completed without trailers means the stream was cancelled by the client
+                end(trailerStatus.orElse(headerStatus).getOrElse(Status.CANCELLED))
+              case Failure(ex) => end(Status.fromThrowable(ex))
+            }(ExecutionContext.parasitic)
+            mat
+          }
+        response.withEntity(HttpEntity.Chunked(contentType, countedChunks))
+      case _ =>
+        end(headerStatus.getOrElse(Status.UNKNOWN))
+        response
+    }
+  }
+
+  /**
+   * Add the stream flow instrumentation after `flow` if enabled by the telemetry.
+   *
+   * @param context the context of the call
+   */
+  def streamFlow[T, M](spi: TelemetrySpi, context: AnyRef, outbound: Boolean)(flow: Flow[T, T, M]): Flow[T, T, M] =
+    spi.streamFlowReportInterval match {
+      case Some(interval) =>
+        flow.via(new StreamFlowInstrumentation[T](spi, () => context, outbound, interval, null))
+      case None => flow
+    }
+
+  /**
+   * Instrument a call made by the Akka HTTP client backend. The messages are counted by wrapping the serializers,
+   * so the sizes are those of the uncompressed messages.
+   */
+  def instrumentAkkaHttpClient[I, O](
+      spi: TelemetrySpi,
+      descriptor: MethodDescriptor[I, O],
+      serializer: ProtobufSerializer[I],
+      deserializer: ProtobufSerializer[O],
+      headers: MetadataImpl,
+      source: Source[I, NotUsed])(
+      invoke: (
+          ProtobufSerializer[I],
+          ProtobufSerializer[O],
+          MetadataImpl,
+          Source[I, NotUsed]) => Source[O, Future[GrpcResponseMetadata]]): Source[O, Future[GrpcResponseMetadata]] =
+    spi.onCallStart(client = true, descriptor.getServiceName, descriptor.getBareMethodName) match {
+      case null => invoke(serializer, deserializer, headers, source)
+      case context =>
+        val withTelemetryHeaders = spi.clientCallHeaders(context).foldLeft(headers) {
+          case (acc, (key, value)) => acc.addEntry(key, value)
+        }
+        val startNanos = System.nanoTime()
+        val countingSerializer = new ProtobufSerializer[I] {
+          override def serialize(t: I): ByteString = {
+            val bytes = serializer.serialize(t)
+            spi.onMessageSent(context, bytes.size)
+            bytes
+          }
+          override def deserialize(bytes: ByteString): I = serializer.deserialize(bytes)
+        }
+        val countingDeserializer =
+          new CountingDeserializer[O](deserializer, size => spi.onMessageReceived(context, size))
+        val requests =
+          if (descriptor.getType.clientSendsOneMessage) source
+          else source.via(streamFlow(spi, context, outbound = true)(Flow[I]))
+        val responses = invoke(countingSerializer, countingDeserializer, withTelemetryHeaders, requests)
+        val instrumentedResponses =
+          if (descriptor.getType.serverSendsOneMessage) responses
+          else responses.via(streamFlow(spi, context, outbound = false)(Flow[O]))
+        instrumentedResponses.watchTermination() { (mat, done) =>
+          done.onComplete { result =>
+            val status = result match {
+              case Success(_)  => Status.OK
+              case Failure(ex) => Status.fromThrowable(ex)
+            }
+            spi.onCallEnd(context, status, System.nanoTime() - startNanos)
+          }(ExecutionContext.parasitic)
+          mat
+        }
+    }
+
+  /**
+   * Call option with which a stage starting a call gets the telemetry context created by the interceptor.
+   */
+  val ContextHolderKey: CallOptions.Key[TelemetryContextHolder] =
+    CallOptions.Key.create[TelemetryContextHolder]("akka-grpc-telemetry-context")
+
+  /**
+   * A client interceptor for the Netty client backend, using the stream tracer of grpc-java to count the messages.
+   */
+  def nettyClientInterceptor(spi: TelemetrySpi): ClientInterceptor =
+    new ClientInterceptor {
+      override def interceptCall[I, O](
+          method: MethodDescriptor[I, O],
+          callOptions: CallOptions,
+          next: Channel): ClientCall[I, O] =
+        spi.onCallStart(client = true, method.getServiceName, method.getBareMethodName) match {
+          case null => next.newCall(method, callOptions)
+          case context =>
+            val startNanos = System.nanoTime()
+            callOptions.getOption(ContextHolderKey) match {
+              case null   =>
+              case holder => holder.context = context
+            }
+            val tracerFactory = new ClientStreamTracer.Factory {
+              override def newClientStreamTracer(info: ClientStreamTracer.StreamInfo, headers: Metadata) =
+                new ClientStreamTracer {
+                  override def outboundMessageSent(seqNo: Int, wireSize: Long, uncompressedSize: Long): Unit =
+                    spi.onMessageSent(context, size(wireSize, uncompressedSize))
+                  override def inboundMessageRead(seqNo: Int, wireSize: Long, uncompressedSize: Long): Unit =
+                    spi.onMessageReceived(context, size(wireSize, uncompressedSize))
+                }
+            }
+            new ForwardingClientCall.SimpleForwardingClientCall[I, O](
+              next.newCall(method, callOptions.withStreamTracerFactory(tracerFactory))) {
+              override def start(listener: ClientCall.Listener[O], headers: Metadata): Unit = {
+                spi.clientCallHeaders(context).foreach {
+                  case (key, value) => headers.put(MetadataImpl.asciiKey(key), value)
+                }
+                super.start(
+                  new ForwardingClientCallListener.SimpleForwardingClientCallListener[O](listener) {
+                    override def onClose(status: Status, trailers: Metadata): Unit = {
+                      spi.onCallEnd(context, status, System.nanoTime() - startNanos)
+                      super.onClose(status, trailers)
+                    }
+                  },
+                  headers)
+              }
+            }
+        }
+    }
+
+  // the sizes are -1 when unknown
+  private def size(wireSize: Long, uncompressedSize: Long): Int =
+    (if (wireSize >= 0) wireSize else math.max(uncompressedSize, 0L)).toInt
+
+  private def statusFrom(headers: Seq[HttpHeader]): Option[Status] =
+    headers.collectFirst { case h if h.is("grpc-status") => parseStatus(h.value) }
+
+  private def statusFromRaw(headers: Seq[(String, String)]): Option[Status] =
+    headers.collectFirst { case (name, value) if name == "grpc-status" => parseStatus(value) }
+
+  private def parseStatus(value: String): Status =
+    Try(Status.fromCodeValue(value.toInt)).getOrElse(Status.UNKNOWN)
+
+  /**
+   * Counts the received messages of a call made by the Akka HTTP client backend. The backend calls `count` and
+   * `underlying` separately when it deserializes messages in parallel, as the telemetry hooks of a call must not be
+   * called concurrently.
+   */
+  final class CountingDeserializer[T](val underlying: ProtobufSerializer[T], onMessage: Int => Unit)
+      extends ProtobufSerializer[T] {
+    def count(bytes: ByteString): Unit = onMessage(bytes.size)
+    override def serialize(t: T): ByteString = underlying.serialize(t)
+    override def deserialize(bytes: ByteString): T = {
+      count(bytes)
+      underlying.deserialize(bytes)
+    }
+  }
+
+  /**
+   * Counts the messages in a stream of gRPC frames without copying or decoding them, frames with the trailer flag
+   * are not counted.
+   */
+  private final class FrameCounter(onMessage: Int => Unit) {
+    private var headerRemaining = 5
+    private var flags = 0
+    private var length = 0
+    private var payloadRemaining = 0
+
+    def feed(bytes: ByteString): Unit = {
+      var i = 0
+      val size = bytes.length
+      while (i < size) {
+        if (headerRemaining > 0) {
+          val b = bytes(i) & 0xff
+          if (headerRemaining == 5) flags = b
+          else length = (length << 8) | b
+          headerRemaining -= 1
+          i += 1
+          if (headerRemaining == 0) {
+            if ((flags & 0x80) == 0) onMessage(length)
+            payloadRemaining = length
+            if (payloadRemaining == 0) reset()
+          }
+        } else {
+          val skip = math.min(payloadRemaining, size - i)
+          i += skip
+          payloadRemaining -= skip
+          if (payloadRemaining == 0) reset()
+        }
+      }
+    }
+
+    private def reset(): Unit = {
+      headerRemaining = 5
+      length = 0
+    }
+  }
+}
@@ -13,7 +13,8 @@ import akka.grpc.GrpcClientSettings
 
 import io.grpc.{ ConnectivityState, ManagedChannel }
 
-import scala.concurrent.{ Future, Promise }
+import scala.concurrent.{ ExecutionContext, Future, Promise }
+import scala.concurrent.duration.{ Duration, FiniteDuration }
 
 /**
  * Used to indicate that a gRPC client can not establish a connection
@@ -36,13 +37,40 @@ object ChannelUtils {
   @InternalApi
   private[akka] def create(settings: GrpcClientSettings, log: LoggingAdapter)(
       implicit sys: ClassicActorSystemProvider): InternalChannel = {
-    settings.backend match {
+    val channel = settings.backend match {
       case "netty" =>
         NettyClientUtils.createChannel(settings, log)(sys.classicSystem.dispatcher, sys.classicSystem)
       case "akka-http" =>
         AkkaHttpClientUtils.createChannel(settings, log)
       case _ => throw new IllegalArgumentException(s"Unexpected backend [${settings.backend}]")
     }
+    val circuitBreaking = settings.circuitBreaker match {
+      case Some(circuitBreaker) =>
+        val callTimeout = settings.deadline match {
+          case finite: FiniteDuration => finite
+          case _                      => Duration.Zero
+        }
+        new CircuitBreakingInternalChannel(channel, circuitBreaker, callTimeout, sys.classicSystem.scheduler)(
+          sys.classicSystem.dispatcher)
+      case None => channel
+    }
+    val coalescing = settings.requestCoalescing match {
+      case Some(keyExtractor) =>
+        new CoalescingInternalChannel(
+          circuitBreaking,
+          keyExtractor,
+          settings.responseCacheKeyHeaders,
+          settings.callCredentials)
+      case None               => circuitBreaking
+    }
+    if (settings.responseCacheMaxEntries > 0)
+      new CachingInternalChannel(
+        coalescing,
+        settings.responseCacheMaxEntries,
+        settings.responseCacheTimeToLive,
+        settings.responseCacheKeyHeaders,
+        settings.callCredentials)
+    else coalescing
   }
 
   /**
@@ -54,6 +82,21 @@ object ChannelUtils {
     internalChannel.done
   }
 
+  /**
+   * INTERNAL API
+   *
+   * Completes with `connected`, or fails when the channel is `done` before that.
+   */
+  @InternalApi
+  private[akka] def warmUp(connected: Future[Done], done: Future[Done]): Future[Done] = {
+    val warm = Promise[Done]()
+    warm.completeWith(connected)
+    done.onComplete { closed =>
+      warm.tryFailure(closed.failed.getOrElse(new IllegalStateException("Channel closed before it was ready")))
+    }(ExecutionContext.parasitic)
+    warm.future
+  }
+
   /**
    * INTERNAL API
    */
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.{ ConcurrentHashMap, TimeoutException }
+
+import akka.{ Done, NotUsed }
+import akka.actor.Scheduler
+import akka.annotation.InternalApi
+import akka.grpc.{ GrpcCircuitBreakerSettings, GrpcResponseMetadata, GrpcSingleResponse }
+import akka.pattern.{ CircuitBreaker, CircuitBreakerOpenException }
+import akka.stream.scaladsl.{ Keep, Source }
+import io.grpc.{ CallOptions, MethodDescriptor, Status, StatusRuntimeException }
+
+import scala.concurrent.{ ExecutionContext, Future }
+import scala.concurrent.duration._
+import scala.util.{ Failure, Success, Try }
+
+/**
+ * INTERNAL API
+ *
+ * Fails calls with `UNAVAILABLE` without sending them while the circuit breaker for the channel, or for the method
+ * with `perMethod`, is open. Unary calls taking longer than `callTimeout` count as failures, `Duration.Zero` disables
+ * that. Streaming calls only count by their outcome, and are all let through while the breaker is half-open. Hedged
+ * attempts that are cancelled because another attempt won do not count.
+ */
+@InternalApi
+private[akka] final class CircuitBreakingInternalChannel(
+    delegate: InternalChannel,
+    settings: GrpcCircuitBreakerSettings,
+    callTimeout: FiniteDuration,
+    scheduler: Scheduler)(implicit ec: ExecutionContext)
+    extends InternalChannel {
+  import CircuitBreakingInternalChannel._
+
+  private val channelBreaker = if (settings.perMethod) null else newBreaker()
+  private val methodBreakers = new ConcurrentHashMap[String, CircuitBreaker]()
+
+  private def newBreaker(): CircuitBreaker = {
+    val breaker = new CircuitBreaker(scheduler, settings.maxFailures, callTimeout, settings.resetTimeout)
+    if (settings.maxResetTimeout > settings.resetTimeout) breaker.withExponentialBackoff(settings.maxResetTimeout)
+    else breaker
+  }
+
+  private[internal] def breakerFor(descriptor: MethodDescriptor[_, _]): CircuitBreaker =
+    if (channelBreaker ne null) channelBreaker
+    else methodBreakers.computeIfAbsent(descriptor.getFullMethodName, (_: String) => newBreaker())
+
+  private def isFailure(ex: Throwable): Boolean =
+    settings.failureStatusCodes.contains(Status.fromThrowable(ex).getCode)
+
+  private val isFailedCall: Try[Any] => Boolean = {
+    case Failure(ex) => isFailure(ex)
+    case Success(_)  => false
+  }
+
+  private def guarded[T](descriptor: MethodDescriptor[_, _])(call: => Future[T]): Future[T] =
+    breakerFor(descriptor).withCircuitBreaker(call, isFailedCall).transform {
+      case Failure(_: CircuitBreakerOpenException) => Failure(openException)
+      case Failure(_: TimeoutException)            => Failure(timeoutException)
+      case other                                   => other
+    }(ExecutionContext.parasitic)
+
+  override def invoke[I, O](
+      request: I,
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      options: CallOptions): Future[O] =
+    guarded(descriptor)(delegate.invoke(request, headers, descriptor, options))
+
+  override def invokeWithMetadata[I, O](
+      request: I,
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      options: CallOptions): Future[GrpcSingleResponse[O]] =
+    guarded(descriptor)(delegate.invokeWithMetadata(request, headers, descriptor, options))
+
+  override def invokeWithMetadata[I, O](
+      source: Source[I, NotUsed],
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      streamingResponse: Boolean,
+      options: CallOptions): Source[O, Future[GrpcResponseMetadata]] = {
+    val breaker = breakerFor(descriptor)
+    if (breaker.isOpen)
+      Source.failed[O](openException).mapMaterializedValue(_ => Future.failed[GrpcResponseMetadata](openException))
+    else
+      delegate
+        .invokeWithMetadata(source, headers, descriptor, streamingResponse, options)
+        .watchTermination()(Keep.both)
+        .mapMaterializedValue {
+          case (metadata, completion) =>
+            completion.onComplete {
+              case Failure(Hedging.HedgedAttemptCancelled) => // another attempt of a hedged call won
+              case Failure(ex) if isFailure(ex)            => breaker.fail()
+              case _                                       => breaker.succeed()
+            }(ExecutionContext.parasitic)
+            metadata
+        }
+  }
+
+  override def shutdown(): Unit = delegate.shutdown()
+
+  override def done: Future[Done] = delegate.done
+
+  override def retryBudget: Option[RetryBudget] = delegate.retryBudget
+
+  override def warmUp(): Future[Done] = delegate.warmUp()
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object CircuitBreakingInternalChannel {
+  private def openException =
+    new StatusRuntimeException(Status.UNAVAILABLE.withDescription("Circuit breaker is open"))
+
+  private def timeoutException =
+    new StatusRuntimeException(Status.DEADLINE_EXCEEDED.withDescription("Call timed out in the circuit breaker"))
+}
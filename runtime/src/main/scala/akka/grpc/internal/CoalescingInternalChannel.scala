@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.ConcurrentHashMap
+
+import akka.{ Done, NotUsed }
+import akka.annotation.InternalApi
+import akka.grpc.{ CoalescingKeyExtractor, GrpcResponseMetadata, GrpcSingleResponse }
+import akka.grpc.scaladsl.MetadataEntry
+import akka.stream.scaladsl.Source
+import io.grpc.{ CallCredentials, CallOptions, Deadline, MethodDescriptor }
+
+import scala.concurrent.{ ExecutionContext, Future, Promise }
+
+/**
+ * INTERNAL API
+ *
+ * Shares one in-flight unary call between concurrent callers of `invoke`, or of the unary `invokeWithMetadata`, with
+ * the same method, request key and request headers, or only the `keyHeaders` if given ("single-flight"). The entry
+ * is removed as soon as the call completes, so responses are never cached.
+ *
+ * Like for the response cache, calls with call credentials other than the `clientCredentials` of the client are not
+ * coalesced. A call only joins an in-flight call whose deadline is not later than its own, so that it never waits
+ * longer than its deadline.
+ */
+@InternalApi
+private[akka] final class CoalescingInternalChannel(
+    delegate: InternalChannel,
+    keyExtractor: CoalescingKeyExtractor,
+    keyHeaders: Option[Set[String]] = None,
+    clientCredentials: Option[CallCredentials] = None)
+    extends InternalChannel {
+  import CoalescingInternalChannel._
+
+  private val inFlight = new ConcurrentHashMap[CoalescingKey, InFlightCall]()
+
+  override def invoke[I, O](
+      request: I,
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      options: CallOptions): Future[O] =
+    coalesce(request, headers, descriptor, options, withMetadata = false)(
+      delegate.invoke(request, headers, descriptor, options))
+
+  // used by the response cache on a miss, which needs the trailers of the response for its time to live
+  override def invokeWithMetadata[I, O](
+      request: I,
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      options: CallOptions): Future[GrpcSingleResponse[O]] =
+    coalesce(request, headers, descriptor, options, withMetadata = true)(
+      delegate.invokeWithMetadata(request, headers, descriptor, options))
+
+  private def coalesce[I, T](
+      request: I,
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, _],
+      options: CallOptions,
+      withMetadata: Boolean)(call: => Future[T]): Future[T] =
+    if (CachingInternalChannel.hasOwnCredentials(options, clientCredentials)) call
+    else
+      keyExtractor.extractKey(descriptor, request) match {
+        case null => call
+        case requestKey =>
+          val key = CoalescingKey(
+            descriptor.getFullMethodName,
+            requestKey,
+            CachingInternalChannel.keyEntries(headers, keyHeaders),
+            withMetadata)
+          val promise = Promise[Any]()
+          val started = new InFlightCall(promise.future, options.getDeadline)
+          val existing = inFlight.putIfAbsent(key, started)
+          if (existing ne null) {
+            if (existing.endsBy(options.getDeadline)) existing.result.asInstanceOf[Future[T]]
+            else call
+          } else {
+            val result = call
+            result.onComplete { _ =>
+              inFlight.remove(key, started)
+            }(ExecutionContext.parasitic)
+            promise.completeWith(result)
+            result
+          }
+      }
+
+  override def invokeWithMetadata[I, O](
+      source: Source[I, NotUsed],
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      streamingResponse: Boolean,
+      options: CallOptions): Source[O, Future[GrpcResponseMetadata]] =
+    delegate.invokeWithMetadata(source, headers, descriptor, streamingResponse, options)
+
+  override def shutdown(): Unit = delegate.shutdown()
+
+  override def done: Future[Done] = delegate.done
+
+  override def retryBudget: Option[RetryBudget] = delegate.retryBudget
+
+  override def warmUp(): Future[Done] = delegate.warmUp()
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object CoalescingInternalChannel {
+  private final case class CoalescingKey(
+      method: String,
+      requestKey: AnyRef,
+      headers: List[(String, MetadataEntry)],
+      withMetadata: Boolean)
+
+  /**
+   * @param deadline the deadline of the call, null if it has none
+   */
+  private final class InFlightCall(val result: Future[Any], deadline: Deadline) {
+
+    /**
+     * @return whether this call ends at the latest at `other`, null meaning no deadline
+     */
+    def endsBy(other: Deadline): Boolean =
+      if (deadline eq null) other eq null
+      else (other eq null) || !other.isBefore(deadline)
+  }
+}
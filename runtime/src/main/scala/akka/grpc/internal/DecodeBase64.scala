@@ -17,6 +17,98 @@ import akka.util.ByteString
 @InternalApi private[akka] object DecodeBase64 {
   def apply(): Flow[ByteString, ByteString, NotUsed] =
     Flow[ByteString].via(new DecodeBase64)
+
+  /**
+   * Decodes base64 that may contain padding between its 4 character quanta, as produced by encoding each frame of a
+   * stream separately.
+   */
+  def decode(data: ByteString): ByteString = {
+    val decoder = new Decoder
+    val decoded = decoder.decode(data)
+    val tail = decoder.finish()
+    if (tail.isEmpty) decoded else decoded ++ tail
+  }
+
+  private final val Invalid: Byte = -1
+  private final val Padding: Byte = -2
+
+  private val decodeTable: Array[Byte] = {
+    val table = Array.fill[Byte](256)(Invalid)
+    EncodeBase64.Alphabet.indices.foreach(i => table(EncodeBase64.Alphabet(i)) = i.toByte)
+    table('=') = Padding
+    table
+  }
+
+  /**
+   * Incremental base64 decoder that carries at most the 3 characters of an incomplete quantum from one chunk to the
+   * next, and decodes each chunk directly into the array of the resulting `ByteString`.
+   */
+  final class Decoder {
+    // the bits of the characters of the current quantum so far
+    private var bits = 0
+    private var count = 0
+    private var padding = 0
+
+    /**
+     * @throws IllegalArgumentException if the data is not valid base64
+     */
+    def decode(chunk: ByteString): ByteString = {
+      val out = new Array[Byte]((count + chunk.length) / 4 * 3)
+      var written = 0
+      val buffers = chunk.asByteBuffers.iterator
+      while (buffers.hasNext) {
+        val buffer = buffers.next()
+        var i = buffer.position()
+        val end = buffer.limit()
+        while (i < end) {
+          written = accept(buffer.get(i), out, written)
+          i += 1
+        }
+      }
+      if (written == 0) ByteString.empty else ByteString.fromArrayUnsafe(out, 0, written)
+    }
+
+    /**
+     * Decodes the unpadded end of the data
+     *
+     * @throws IllegalArgumentException if a single character is left
+     */
+    def finish(): ByteString =
+      if (count == 0) ByteString.empty
+      else if (count == 1) throw new IllegalArgumentException("Incomplete base64 data")
+      else {
+        val out = new Array[Byte](2)
+        var written = 0
+        while (count != 0) written = accept('='.toByte, out, written)
+        ByteString.fromArrayUnsafe(out, 0, written)
+      }
+
+    private def accept(char: Byte, out: Array[Byte], offset: Int): Int = {
+      val value = decodeTable(char & 0xff)
+      if (value == Invalid)
+        throw new IllegalArgumentException(s"Illegal base64 character 0x${Integer.toHexString(char & 0xff)}")
+      else if (value == Padding) {
+        if (count < 2) throw new IllegalArgumentException("Unexpected base64 padding")
+        padding += 1
+        bits <<= 6
+      } else {
+        if (padding > 0) throw new IllegalArgumentException("Base64 data after padding")
+        bits = (bits << 6) | value
+      }
+      count += 1
+      if (count < 4) offset
+      else {
+        out(offset) = (bits >> 16).toByte
+        if (padding < 2) out(offset + 1) = (bits >> 8).toByte
+        if (padding < 1) out(offset + 2) = bits.toByte
+        val decoded = 3 - padding
+        bits = 0
+        count = 0
+        padding = 0
+        offset + decoded
+      }
+    }
+  }
 }
 
 /**
@@ -32,44 +124,21 @@ import akka.util.ByteString
 
   override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
     new GraphStageLogic(shape) with InHandler with OutHandler {
-      private var buffer: ByteString = ByteString.empty
+      private val decoder = new DecodeBase64.Decoder
 
       override def onPush(): Unit = {
-        buffer ++= grab(in)
-
-        val length = buffer.length
-        val decodeLength = length - length % 4
-
-        if (decodeLength > 0) {
-          val (decodeBytes, remaining) = buffer.splitAt(decodeLength)
-          push(out, decodeBytes.decodeBase64)
-          buffer = remaining
-        } else {
-          pull(in)
-        }
+        val decoded = decoder.decode(grab(in))
+        if (decoded.nonEmpty) push(out, decoded)
+        else pull(in)
       }
 
       override def onUpstreamFinish(): Unit = {
-        if (buffer.nonEmpty) {
-          if (isAvailable(out)) {
-            push(out, buffer.decodeBase64)
-            buffer = ByteString.empty
-          }
-        } else {
-          completeStage()
-        }
+        val tail = decoder.finish()
+        if (tail.nonEmpty) emit(out, tail, () => completeStage())
+        else completeStage()
       }
 
-      override def onPull(): Unit = {
-        if (isClosed(in)) {
-          if (buffer.nonEmpty) {
-            push(out, buffer.decodeBase64)
-            buffer = ByteString.empty
-          } else {
-            completeStage()
-          }
-        } else pull(in)
-      }
+      override def onPull(): Unit = pull(in)
 
       setHandlers(in, out, this)
     }
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.nio.charset.StandardCharsets
+
+import akka.annotation.InternalApi
+import akka.util.ByteString
+
+/**
+ * INTERNAL API
+ *
+ * Base64 encoding that reads the fragments of the data directly, rather than first copying them into one array.
+ */
+@InternalApi private[akka] object EncodeBase64 {
+  private[internal] val Alphabet: Array[Byte] =
+    "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII)
+
+  def apply(data: ByteString): ByteString =
+    if (data.isEmpty) ByteString.empty
+    else {
+      val out = new Array[Byte]((data.length + 2) / 3 * 4)
+      var written = 0
+      // the bytes of the current group of 3 so far
+      var bits = 0
+      var count = 0
+      val buffers = data.asByteBuffers.iterator
+      while (buffers.hasNext) {
+        val buffer = buffers.next()
+        var i = buffer.position()
+        val end = buffer.limit()
+        while (i < end) {
+          bits = (bits << 8) | (buffer.get(i) & 0xff)
+          count += 1
+          if (count == 3) {
+            out(written) = Alphabet((bits >> 18) & 0x3f)
+            out(written + 1) = Alphabet((bits >> 12) & 0x3f)
+            out(written + 2) = Alphabet((bits >> 6) & 0x3f)
+            out(written + 3) = Alphabet(bits & 0x3f)
+            written += 4
+            bits = 0
+            count = 0
+          }
+          i += 1
+        }
+      }
+      if (count > 0) {
+        bits <<= 8 * (3 - count)
+        out(written) = Alphabet((bits >> 18) & 0x3f)
+        out(written + 1) = Alphabet((bits >> 12) & 0x3f)
+        out(written + 2) = if (count == 2) Alphabet((bits >> 6) & 0x3f) else '='.toByte
+        out(written + 3) = '='.toByte
+      }
+      ByteString.fromArrayUnsafe(out)
+    }
+}
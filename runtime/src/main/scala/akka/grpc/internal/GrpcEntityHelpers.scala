@@ -16,6 +16,8 @@ import akka.http.scaladsl.model.headers.RawHeader
 import akka.stream.scaladsl.Source
 import io.grpc.Status
 
+import scala.concurrent.{ ExecutionContext, Future }
+
 /** INTERNAL API */
 @InternalApi
 object GrpcEntityHelpers {
@@ -25,8 +27,24 @@ object GrpcEntityHelpers {
       eHandler: ActorSystem => PartialFunction[Throwable, Trailers])(
       implicit m: ProtobufSerializer[T],
       writer: GrpcProtocolWriter,
+      system: ClassicActorSystemProvider): Source[ChunkStreamPart, NotUsed] =
+    GrpcEntityHelpers(e, trail, eHandler, parallelism = 1)
+
+  /**
+   * @param parallelism the number of messages to serialize and frame in parallel, keeping their order
+   */
+  def apply[T](
+      e: Source[T, NotUsed],
+      trail: Source[TrailerFrame, NotUsed],
+      eHandler: ActorSystem => PartialFunction[Throwable, Trailers],
+      parallelism: Int)(
+      implicit m: ProtobufSerializer[T],
+      writer: GrpcProtocolWriter,
       system: ClassicActorSystemProvider): Source[ChunkStreamPart, NotUsed] = {
-    chunks(e, trail).recover {
+    val parts =
+      if (parallelism <= 1) chunks(e, trail)
+      else parallelChunks(e, trail, parallelism)
+    parts.recover {
       case t =>
         val e = handleException(t, eHandler)
         writer.encodeFrame(trailer(e.status, e.metadata))
@@ -60,6 +78,16 @@ object GrpcEntityHelpers {
       writer: GrpcProtocolWriter): Source[ChunkStreamPart, NotUsed] =
     e.map { msg => DataFrame(m.serialize(msg)) }.via(concatCheap(trail)).via(writer.frameEncoder)
 
+  private def parallelChunks[T](e: Source[T, NotUsed], trail: Source[Frame, NotUsed], parallelism: Int)(
+      implicit m: ProtobufSerializer[T],
+      writer: GrpcProtocolWriter,
+      system: ClassicActorSystemProvider): Source[ChunkStreamPart, NotUsed] = {
+    implicit val ec: ExecutionContext = system.classicSystem.dispatcher
+    // encoding a frame only depends on the frame itself, so frames can be encoded independently
+    e.mapAsync(parallelism) { msg => Future(writer.encodeFrame(DataFrame(m.serialize(msg)))) }
+      .via(concatCheap(trail.via(writer.frameEncoder)))
+  }
+
   def trailer(status: Status): TrailerFrame =
     TrailerFrame(trailers = statusHeaders(status))
 
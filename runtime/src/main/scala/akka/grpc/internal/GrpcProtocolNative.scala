@@ -39,6 +39,12 @@ object GrpcProtocolNative extends AbstractGrpcProtocol("grpc") {
 
   override def newReader(codec: Codec): GrpcProtocolReader = reader(codec)
 
+  /**
+   * A reader failing with `RESOURCE_EXHAUSTED` on messages larger than `maxMessageSize` bytes
+   */
+  def newReader(codec: Codec, maxMessageSize: Int): GrpcProtocolReader =
+    AbstractGrpcProtocol.reader(codec, decodeFrame, maxMessageSize = maxMessageSize)
+
   @inline
   private def decodeFrame(frameType: Int, data: ByteString) = DataFrame(data)
 
@@ -8,9 +8,13 @@ import akka.NotUsed
 import akka.grpc.GrpcProtocol._
 import akka.http.scaladsl.model._
 import akka.http.scaladsl.model.HttpEntity.{ Chunk, ChunkStreamPart }
+import akka.http.scaladsl.model.headers.RawHeader
 import akka.stream.scaladsl.Flow
 import akka.util.{ ByteString, ByteStringBuilder }
 import io.grpc.{ Status, StatusException }
+
+import java.nio.charset.StandardCharsets
+import java.util.Locale
 import scala.collection.immutable
 
 abstract class GrpcProtocolWebBase(subType: String) extends AbstractGrpcProtocol(subType) {
@@ -24,6 +28,13 @@ abstract class GrpcProtocolWebBase(subType: String) extends AbstractGrpcProtocol
   override protected def reader(codec: Codec): GrpcProtocolReader =
     AbstractGrpcProtocol.reader(codec, decodeFrame, preDecodeStrict, preDecodeFlow)
 
+  /**
+   * A reader failing with `RESOURCE_EXHAUSTED` on messages larger than `maxMessageSize` bytes
+   */
+  def newReader(codec: Codec, maxMessageSize: Int): GrpcProtocolReader =
+    if (maxMessageSize == Int.MaxValue) newReader(codec)
+    else AbstractGrpcProtocol.reader(codec, decodeFrame, preDecodeStrict, preDecodeFlow, maxMessageSize)
+
   private def encodeFrame(codec: Codec, frame: Frame): ChunkStreamPart =
     Chunk(postEncode(encodeFrameToBytes(codec, frame)))
 
@@ -54,13 +65,9 @@ abstract class GrpcProtocolWebBase(subType: String) extends AbstractGrpcProtocol
           isTrailer = true)
     }
 
-  private final def decodeFrame(frameHeader: Int, data: ByteString): Frame = {
-    (frameHeader & 80) match {
-      case 0 => DataFrame(data)
-      case 1 => TrailerFrame(decodeTrailer(data))
-      case f => throw new StatusException(Status.INTERNAL.withDescription(s"Unknown frame type [$f]"))
-    }
-  }
+  private final def decodeFrame(frameHeader: Int, data: ByteString): Frame =
+    if ((frameHeader & 0x80) == 0) DataFrame(data)
+    else TrailerFrame(GrpcProtocolWebBase.decodeTrailer(data))
 
   private final def encodeTrailerHeaders(trailerHeaders: Iterator[(String, String)]): ByteString = {
     val builder = new ByteStringBuilder
@@ -71,8 +78,40 @@ abstract class GrpcProtocolWebBase(subType: String) extends AbstractGrpcProtocol
     builder.result()
   }
 
-  private final def decodeTrailer(data: ByteString): List[HttpHeader] = ???
+}
+
+object GrpcProtocolWebBase {
+
+  /**
+   * Parses the `name:value` lines, separated by CRLF, of a grpc-web trailer frame. The names are lower-cased and
+   * whitespace around the values is dropped.
+   */
+  def decodeTrailer(data: ByteString): List[HttpHeader] = {
+    val headers = List.newBuilder[HttpHeader]
+    val length = data.length
+    var start = 0
+    while (start < length) {
+      val newline = data.indexOf('\n'.toByte, start)
+      val end = if (newline == -1) length else newline
+      val lineEnd = if (end > start && data(end - 1) == '\r') end - 1 else end
+      if (lineEnd > start) {
+        val colon = data.indexOf(':'.toByte, start)
+        if (colon == -1 || colon >= lineEnd)
+          throw new StatusException(Status.INTERNAL.withDescription("Malformed grpc-web trailer"))
+        var valueStart = colon + 1
+        while (valueStart < lineEnd && isWhitespace(data(valueStart))) valueStart += 1
+        var valueEnd = lineEnd
+        while (valueEnd > valueStart && isWhitespace(data(valueEnd - 1))) valueEnd -= 1
+        headers += RawHeader(
+          data.slice(start, colon).decodeString(StandardCharsets.US_ASCII).toLowerCase(Locale.ROOT),
+          data.slice(valueStart, valueEnd).utf8String)
+      }
+      start = end + 1
+    }
+    headers.result()
+  }
 
+  private def isWhitespace(byte: Byte): Boolean = byte == ' ' || byte == '\t'
 }
 
 /**
@@ -98,9 +137,9 @@ object GrpcProtocolWeb extends GrpcProtocolWebBase("grpc-web") {
  */
 object GrpcProtocolWebText extends GrpcProtocolWebBase("grpc-web-text") {
 
-  override final def postEncode(framed: ByteString): ByteString = framed.encodeBase64
+  override final def postEncode(framed: ByteString): ByteString = EncodeBase64(framed)
 
-  override final def preDecodeStrict(frame: ByteString): ByteString = frame.decodeBase64
+  override final def preDecodeStrict(frame: ByteString): ByteString = DecodeBase64.decode(frame)
 
   override final def preDecodeFlow: Flow[ByteString, ByteString, NotUsed] = DecodeBase64()
 }
@@ -84,7 +84,7 @@ object GrpcResponseHelpers {
       implicit m: ProtobufSerializer[T],
       writer: GrpcProtocolWriter,
       system: ClassicActorSystemProvider): HttpResponse = {
-    response(GrpcEntityHelpers(e, trail, eHandler))
+    response(GrpcEntityHelpers(e, trail, eHandler, MarshallingSettings(system).streamParallelism))
   }
 
   private def response[T](entity: Source[ChunkStreamPart, NotUsed])(implicit writer: GrpcProtocolWriter) = {
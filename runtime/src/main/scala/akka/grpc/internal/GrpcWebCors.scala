@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.Locale
+
+import akka.annotation.InternalApi
+import akka.http.scaladsl.model.{ HttpHeader, HttpMethod, HttpMethods, HttpRequest, HttpResponse, StatusCodes }
+import akka.http.scaladsl.model.headers._
+import akka.http.scaladsl.settings.CorsSettings
+
+import scala.collection.immutable
+import scala.concurrent.{ ExecutionContext, Future }
+
+/**
+ * INTERNAL API
+ *
+ * CORS for grpc-web requests without the routing DSL: the response headers are computed from the settings once, and
+ * only the allowed origin is added per request, unless any origin is allowed without credentials.
+ */
+@InternalApi
+private[akka] final class GrpcWebCors(settings: CorsSettings) {
+  private val anyOrigin = settings.allowedOrigins.contains("*")
+  // origins like `https://*.example.com` match any subdomain
+  private val exactOrigins = settings.allowedOrigins.filterNot(_.contains('*'))
+  private val originPatterns: List[(String, String)] =
+    settings.allowedOrigins.toList.filter(origin => origin != "*" && origin.contains('*')).map { pattern =>
+      val wildcard = pattern.indexOf('*')
+      (pattern.substring(0, wildcard), pattern.substring(wildcard + 1))
+    }
+  private val anyHeader = settings.allowedHeaders.contains("*")
+  private val allowedHeaders = settings.allowedHeaders.map(_.toLowerCase(Locale.ROOT))
+  private val wildcardOrigin = anyOrigin && !settings.allowCredentials
+
+  private val credentialsHeaders: List[HttpHeader] =
+    if (settings.allowCredentials) List(`Access-Control-Allow-Credentials`(true)) else Nil
+  private val varyHeaders: List[HttpHeader] = if (wildcardOrigin) Nil else List(RawHeader("Vary", "Origin"))
+
+  private val preflightHeaders: List[HttpHeader] =
+    `Access-Control-Allow-Methods`(settings.allowedMethods.toList) ::
+    (if (anyHeader) Nil else List(`Access-Control-Allow-Headers`(settings.allowedHeaders.toList))) :::
+    (if (settings.maxAge.toSeconds > 0) List(`Access-Control-Max-Age`(settings.maxAge.toSeconds)) else Nil) :::
+    credentialsHeaders ::: varyHeaders
+
+  private val responseHeaders: List[HttpHeader] =
+    (if (settings.exposedHeaders.isEmpty) Nil
+     else List(`Access-Control-Expose-Headers`(settings.exposedHeaders.toList))) :::
+    credentialsHeaders ::: varyHeaders
+
+  // the preflight response is the same for every request if it does not depend on the origin or requested headers
+  private val cachedPreflight: Option[Future[HttpResponse]] =
+    if (wildcardOrigin && !anyHeader)
+      Some(Future.successful(HttpResponse(StatusCodes.OK, `Access-Control-Allow-Origin`.`*` :: preflightHeaders)))
+    else None
+
+  private val forbidden: Future[HttpResponse] = Future.successful(HttpResponse(StatusCodes.Forbidden))
+
+  /**
+   * Responds to CORS preflight requests, and adds the CORS headers to the response of the handler for other requests.
+   * Requests from origins, or with methods or headers, that are not allowed are rejected with _403: Forbidden_.
+   */
+  def apply(request: HttpRequest, handler: HttpRequest => Future[HttpResponse]): Future[HttpResponse] =
+    request.header[Origin].flatMap(_.origins.headOption) match {
+      case None =>
+        if (settings.allowGenericHttpRequests) handler(request) else forbidden
+      case Some(origin) =>
+        request.header[`Access-Control-Request-Method`] match {
+          case Some(requestMethod) if request.method == HttpMethods.OPTIONS =>
+            preflight(request, origin, requestMethod.method)
+          case _ =>
+            if (!isAllowed(origin) || !settings.allowedMethods.contains(request.method)) forbidden
+            else {
+              val headers = allowOrigin(origin) :: responseHeaders
+              handler(request).map(response => response.withHeaders(headers ++ response.headers))(
+                ExecutionContext.parasitic)
+            }
+        }
+    }
+
+  private def preflight(request: HttpRequest, origin: HttpOrigin, requestMethod: HttpMethod): Future[HttpResponse] = {
+    val requestHeaders = request.header[`Access-Control-Request-Headers`].fold(immutable.Seq.empty[String])(_.headers)
+    if (!isAllowed(origin) || !settings.allowedMethods.contains(requestMethod)) forbidden
+    else if (!anyHeader && !requestHeaders.forall(h => allowedHeaders.contains(h.toLowerCase(Locale.ROOT)))) forbidden
+    else
+      cachedPreflight.getOrElse {
+        val headers =
+          if (anyHeader && requestHeaders.nonEmpty) `Access-Control-Allow-Headers`(requestHeaders) :: preflightHeaders
+          else preflightHeaders
+        Future.successful(HttpResponse(StatusCodes.OK, allowOrigin(origin) :: headers))
+      }
+  }
+
+  private def allowOrigin(origin: HttpOrigin): HttpHeader =
+    if (wildcardOrigin) `Access-Control-Allow-Origin`.`*` else `Access-Control-Allow-Origin`(origin)
+
+  private def isAllowed(origin: HttpOrigin): Boolean =
+    anyOrigin || {
+      val value = origin.toString
+      exactOrigins.contains(value) || originPatterns.exists {
+        case (prefix, suffix) =>
+          value.length > prefix.length + suffix.length && value.startsWith(prefix) && value.endsWith(suffix)
+      }
+    }
+}
@@ -13,4 +13,13 @@ import scala.concurrent.duration.FiniteDuration
 class HardcodedServiceDiscovery(resolved: Resolved) extends ServiceDiscovery {
   override def lookup(lookup: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] =
     Future.successful(resolved)
+
+  // equal when resolving to the same targets, so that settings for the same static host and port are equivalent
+  override def equals(other: Any): Boolean =
+    other match {
+      case that: HardcodedServiceDiscovery => resolved == that.resolved
+      case _                               => false
+    }
+
+  override def hashCode: Int = resolved.hashCode
 }
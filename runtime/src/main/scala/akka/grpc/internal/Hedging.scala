@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+import akka.NotUsed
+import akka.actor.{ Cancellable, ClassicActorSystemProvider }
+import akka.annotation.InternalApi
+import akka.grpc.{ GrpcResponseMetadata, GrpcSingleResponse }
+import akka.stream.{ KillSwitches, Materializer, SystemMaterializer }
+import akka.stream.scaladsl.{ Keep, Sink, Source }
+import io.grpc.Status
+
+import scala.concurrent.{ ExecutionContext, Future, Promise }
+import scala.util.{ Failure, Success }
+import scala.util.control.NonFatal
+
+/**
+ * INTERNAL API
+ *
+ * A single attempt of a hedged call.
+ *
+ * @param result completed with the response of this attempt
+ * @param cancel cancels the underlying call, must be safe to call more than once and after the call completed
+ */
+@InternalApi
+private[akka] final case class HedgedAttempt[T](result: Future[T], cancel: () => Unit)
+
+/**
+ * INTERNAL API
+ *
+ * Hedging starts an attempt and, for as long as no response arrived, additional attempts of the same call every
+ * `hedgingDelay`, up to `maxAttempts` in total. An attempt that fails with one of the `nonFatalStatusCodes` starts
+ * the next one right away, any other failure fails the call and cancels the other attempts, like the hedging policy
+ * of gRPC. The first successful response completes the call and all other attempts are cancelled. If all attempts
+ * fail, the call fails with the error of the last attempt.
+ *
+ * This is only safe for idempotent calls since the server may see the same request several times.
+ */
+@InternalApi
+private[akka] object Hedging {
+
+  def hedge[T](settings: HedgingSettings, system: ClassicActorSystemProvider)(
+      attempt: () => HedgedAttempt[T]): Future[T] = {
+    implicit val ec: ExecutionContext = ExecutionContext.parasitic
+    val result = Promise[T]()
+    val started = new AtomicInteger(0)
+    val failed = new AtomicInteger(0)
+    val inFlight = new ConcurrentLinkedQueue[HedgedAttempt[T]]()
+
+    def cancelOthers(current: HedgedAttempt[T]): Unit =
+      inFlight.forEach(other => if (other ne current) other.cancel())
+
+    def startNext(): Unit =
+      if (!result.isCompleted && started.getAndIncrement() < settings.maxAttempts) {
+        val current =
+          try attempt()
+          catch {
+            case NonFatal(ex) => HedgedAttempt[T](Future.failed(ex), () => ())
+          }
+        inFlight.add(current)
+        // the call may have completed concurrently, make sure the attempt does not outlive it
+        if (result.isCompleted) current.cancel()
+        current.result.onComplete {
+          case Success(value) =>
+            // the winner is not cancelled, it may still be reading trailers
+            if (result.trySuccess(value)) cancelOthers(current)
+          case Failure(ex) if !settings.nonFatalStatusCodes.contains(Status.fromThrowable(ex).getCode) =>
+            if (result.tryFailure(ex)) cancelOthers(current)
+          case Failure(ex) =>
+            if (failed.incrementAndGet() == settings.maxAttempts) result.tryFailure(ex)
+            else startNext()
+        }
+      }
+
+    val scheduler = system.classicSystem.scheduler
+    val timers: Seq[Cancellable] = (1 until settings.maxAttempts).map { n =>
+      scheduler.scheduleOnce(settings.hedgingDelay * n.toLong)(startNext())(system.classicSystem.dispatcher)
+    }
+    startNext()
+
+    result.future.onComplete(_ => timers.foreach(_.cancel()))
+    result.future
+  }
+
+  /**
+   * Hedge a call with a single response using the streaming call API of the channel, so that attempts that lost the
+   * race can be cancelled.
+   */
+  def hedgeWithMetadata[I, O](
+      settings: HedgingSettings,
+      source: Source[I, NotUsed],
+      invoke: Source[I, NotUsed] => Source[O, Future[GrpcResponseMetadata]])(
+      implicit system: ClassicActorSystemProvider): Future[GrpcSingleResponse[O]] = {
+    val mat: Materializer = SystemMaterializer(system).materializer
+    hedge[GrpcSingleResponse[O]](settings, system) { () =>
+      val ((metadataFuture, killSwitch), resultFuture) =
+        invoke(source)
+          .viaMat(KillSwitches.single)(Keep.both)
+          // Continue reading to get the trailing headers
+          .via(new CancellationBarrierGraphStage)
+          .toMat(Sink.head)(Keep.both)
+          .run()(mat)
+
+      val response = metadataFuture.zip(resultFuture).map {
+        case (metadata, result) =>
+          new GrpcSingleResponse[O] {
+            def value: O = result
+            def getValue(): O = result
+            def headers = metadata.headers
+            def getHeaders() = metadata.getHeaders()
+            def trailers = metadata.trailers
+            def getTrailers() = metadata.getTrailers()
+          }
+      }(ExecutionContext.parasitic)
+
+      HedgedAttempt(response, () => killSwitch.abort(HedgedAttemptCancelled))
+    }
+  }
+
+  // the failure of an attempt that lost, not counted by the circuit breaker
+  private[internal] case object HedgedAttemptCancelled
+      extends RuntimeException("Hedged attempt cancelled since another attempt completed first", null, false, false)
+}
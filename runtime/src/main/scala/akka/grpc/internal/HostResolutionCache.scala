@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.net.InetAddress
+import java.util.concurrent.ConcurrentHashMap
+
+import akka.actor.{ ClassicActorSystemProvider, ExtendedActorSystem, Extension, ExtensionId, ExtensionIdProvider }
+import akka.annotation.InternalApi
+
+import scala.concurrent.{ ExecutionContext, Future }
+import scala.concurrent.duration._
+import scala.jdk.DurationConverters._
+
+/**
+ * INTERNAL API
+ *
+ * Resolves the host names of discovered targets that come without an address, caching each resolution for
+ * `timeToLive` and sharing it between all clients of the actor system. The blocking lookups run on `executor`, a
+ * resolution in progress is shared by all concurrent lookups of the same host and failures are not cached.
+ */
+@InternalApi
+private[akka] final class HostResolutionCache(
+    timeToLive: FiniteDuration,
+    executor: ExecutionContext,
+    resolve: String => InetAddress,
+    clock: () => Long) {
+  private val ttlNanos = timeToLive.toNanos
+  private val cache = new ConcurrentHashMap[String, HostResolutionCache.Entry]()
+
+  def lookup(host: String): Future[InetAddress] = {
+    val cached = cache.get(host)
+    if ((cached ne null) && (!cached.address.isCompleted || cached.expiresAtNanos - clock() > 0)) cached.address
+    else {
+      val entry = new HostResolutionCache.Entry(Future(resolve(host))(executor), clock() + ttlNanos)
+      // a concurrent lookup may have replaced the entry already, resolving twice is harmless
+      cache.put(host, entry)
+      entry.address.failed.foreach(_ => cache.remove(host, entry))(ExecutionContext.parasitic)
+      entry.address
+    }
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object HostResolutionCache extends ExtensionId[HostResolutionCache] with ExtensionIdProvider {
+  private final class Entry(val address: Future[InetAddress], val expiresAtNanos: Long)
+
+  override def lookup = HostResolutionCache
+
+  override def createExtension(system: ExtendedActorSystem): HostResolutionCache = {
+    val config = system.settings.config.getConfig("akka.grpc.discovery-resolver")
+    new HostResolutionCache(
+      config.getDuration("host-cache-time-to-live").toScala,
+      system.dispatchers.lookup("akka.grpc.discovery-resolver.dns-dispatcher"),
+      InetAddress.getByName,
+      () => System.nanoTime())
+  }
+
+  override def get(system: ClassicActorSystemProvider): HostResolutionCache = super.get(system)
+}
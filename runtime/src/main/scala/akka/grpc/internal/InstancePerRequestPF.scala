@@ -84,7 +84,8 @@ private[akka] final class InstancePerRequestPF[S](
   override def apply(request: HttpRequest): Future[HttpResponse] = {
     request.uri.path.tail.tail match {
       case model.Uri.Path.Slash(model.Uri.Path.Segment(method, model.Uri.Path.Empty)) =>
-        handle(spi.onRequest(prefix, method, request), method)
+        CallTelemetry.instrumentServer(spi, prefix, method, spi.onRequest(prefix, method, request))(
+          ServerDeadline.enforce(_)(handle(_, method))(system))
       case _ =>
         scala.concurrent.Future.failed(
           new akka.grpc.GrpcServiceException(
@@ -36,4 +36,15 @@ abstract class InternalChannel {
 
   def shutdown(): Unit
   def done: Future[Done]
+
+  /**
+   * The retry budget shared by all calls on this channel that retry according to a `GrpcRetryPolicy`, if configured
+   */
+  def retryBudget: Option[RetryBudget] = None
+
+  /**
+   * Connect to the service if not connected yet, completes once a connection is ready, or fails if the channel is
+   * closed before that
+   */
+  def warmUp(): Future[Done] = Future.successful(Done)
 }
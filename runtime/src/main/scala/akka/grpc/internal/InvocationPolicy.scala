@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import akka.annotation.InternalApi
+import akka.grpc.GrpcRetryPolicy
+import io.grpc.Status
+
+import scala.concurrent.duration.{ Duration, FiniteDuration }
+
+/**
+ * INTERNAL API
+ *
+ * How the attempts of a call with a single response are made, in addition to or instead of the Akka `RetrySettings`
+ * of a request builder. The policies are mutually exclusive.
+ */
+@InternalApi
+private[akka] sealed trait InvocationPolicy
+
+/**
+ * INTERNAL API
+ *
+ * @param maxAttempts the maximum number of attempts that are in flight for one call, including the first one
+ * @param hedgingDelay the delay after which an additional attempt is started if no response arrived yet
+ * @param nonFatalStatusCodes an attempt failing with one of these starts the next attempt, any other status fails
+ *                            the call right away
+ */
+@InternalApi
+private[akka] final case class HedgingSettings(
+    maxAttempts: Int,
+    hedgingDelay: FiniteDuration,
+    nonFatalStatusCodes: Set[Status.Code] = HedgingSettings.DefaultNonFatalStatusCodes)
+    extends InvocationPolicy {
+  require(maxAttempts >= 1, s"maxAttempts must be at least 1, was [$maxAttempts]")
+  require(hedgingDelay > Duration.Zero, s"hedgingDelay must be positive, was [$hedgingDelay]")
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object HedgingSettings {
+  val DefaultNonFatalStatusCodes: Set[Status.Code] = Set(Status.Code.UNAVAILABLE)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] final case class StatusAwareRetrySettings(policy: GrpcRetryPolicy) extends InvocationPolicy
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import akka.actor.{ ClassicActorSystemProvider, ExtendedActorSystem, Extension, ExtensionId, ExtensionIdProvider }
+import akka.annotation.InternalApi
+import com.typesafe.config.{ Config, ConfigUtil }
+
+import scala.jdk.CollectionConverters._
+
+/**
+ * INTERNAL API
+ *
+ * The `akka.grpc.server` settings used when marshalling messages, read once per actor system.
+ */
+@InternalApi
+private[akka] final class MarshallingSettings(config: Config) extends Extension {
+  val streamParallelism: Int = config.getInt("marshal-stream-parallelism")
+  require(streamParallelism >= 1, s"marshal-stream-parallelism must be at least 1, was [$streamParallelism]")
+
+  // by full method name, or 'default'
+  private val unmarshalParallelism: Map[String, Int] = {
+    val perMethod = config.getConfig("unmarshal-stream-parallelism")
+    perMethod.root.keySet.asScala.iterator.map { key =>
+      val parallelism = perMethod.getInt(ConfigUtil.joinPath(key))
+      require(parallelism >= 1, s"unmarshal-stream-parallelism for [$key] must be at least 1, was [$parallelism]")
+      key -> parallelism
+    }.toMap
+  }
+  private val defaultUnmarshalParallelism = unmarshalParallelism.getOrElse("default", 1)
+
+  /**
+   * @param service the full name of the service
+   */
+  def unmarshalStreamParallelism(service: String, method: String): Int =
+    if (unmarshalParallelism.size <= 1) defaultUnmarshalParallelism
+    else unmarshalParallelism.getOrElse(s"$service/$method", defaultUnmarshalParallelism)
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object MarshallingSettings extends ExtensionId[MarshallingSettings] with ExtensionIdProvider {
+  override def lookup = MarshallingSettings
+  override def createExtension(system: ExtendedActorSystem) =
+    new MarshallingSettings(system.settings.config.getConfig("akka.grpc.server"))
+
+  override def get(system: ClassicActorSystemProvider): MarshallingSettings = super.get(system)
+}
@@ -5,6 +5,7 @@
 package akka.grpc.internal
 
 import java.util.{ Locale, Optional, List => jList, Map => jMap }
+import java.util.concurrent.ConcurrentHashMap
 import scala.jdk.CollectionConverters._
 import scala.collection.immutable
 import scala.jdk.OptionConverters._
@@ -29,6 +30,32 @@ import scalapb.{ GeneratedMessage, GeneratedMessageCompanion }
 
   val empty = new MetadataImpl(List.empty)
 
+  // io.grpc.Metadata.Key.of validates and lower cases the name, so keys are interned,
+  // bounded to not grow without limit when header names are dynamic
+  private val MaxCachedKeys = 1024
+  private val asciiKeys = new ConcurrentHashMap[String, io.grpc.Metadata.Key[String]]()
+  private val binaryKeys = new ConcurrentHashMap[String, io.grpc.Metadata.Key[Array[Byte]]]()
+
+  def asciiKey(name: String): io.grpc.Metadata.Key[String] = {
+    val cached = asciiKeys.get(name)
+    if (cached ne null) cached
+    else {
+      val key = io.grpc.Metadata.Key.of(name, io.grpc.Metadata.ASCII_STRING_MARSHALLER)
+      if (asciiKeys.size < MaxCachedKeys) asciiKeys.putIfAbsent(name, key)
+      key
+    }
+  }
+
+  def binaryKey(name: String): io.grpc.Metadata.Key[Array[Byte]] = {
+    val cached = binaryKeys.get(name)
+    if (cached ne null) cached
+    else {
+      val key = io.grpc.Metadata.Key.of(name, io.grpc.Metadata.BINARY_BYTE_MARSHALLER)
+      if (binaryKeys.size < MaxCachedKeys) binaryKeys.putIfAbsent(name, key)
+      key
+    }
+  }
+
   def scalaMetadataFromGoogleGrpcMetadata(mutableMetadata: io.grpc.Metadata): Metadata =
     new GrpcMetadataImpl(mutableMetadata)
 
@@ -65,33 +92,71 @@ import scalapb.{ GeneratedMessage, GeneratedMessageCompanion }
  * INTERNAL API
  */
 // Note: type used by generated code, cannot be private
-@InternalApi final class MetadataImpl(val entries: List[(String, MetadataEntry)]) {
+@InternalApi final class MetadataImpl private (
+    val entries: List[(String, MetadataEntry)],
+    // the nearest metadata this was created from that caches its conversion, if any
+    base: MetadataImpl,
+    // the number of entries added since the base
+    addedEntries: Int,
+    cacheConversion: Boolean) {
+
+  def this(entries: List[(String, MetadataEntry)]) = this(entries, null, entries.size, false)
+
   def addEntry(key: String, value: String): MetadataImpl = {
     if (key.endsWith(MetadataImpl.BINARY_SUFFIX))
       throw new IllegalArgumentException(s"String header names must not end with '${MetadataImpl.BINARY_SUFFIX}'")
-    new MetadataImpl((key -> StringEntry(value)) :: entries)
+    add(key -> StringEntry(value))
   }
 
   def addEntry(key: String, value: ByteString): MetadataImpl = {
     if (!key.endsWith(MetadataImpl.BINARY_SUFFIX))
       throw new IllegalArgumentException(s"Binary headers names must end with '${MetadataImpl.BINARY_SUFFIX}'")
-    new MetadataImpl((key -> BytesEntry(value)) :: entries)
+    add(key -> BytesEntry(value))
   }
 
+  private def add(entry: (String, MetadataEntry)): MetadataImpl =
+    if (cacheConversion) new MetadataImpl(entry :: entries, this, 1, false)
+    else new MetadataImpl(entry :: entries, base, addedEntries + 1, false)
+
+  /**
+   * INTERNAL API: The same metadata, converting to io.grpc.Metadata once and reusing that for the metadata created
+   * from it. Used for the default headers of a client, which are shared by all its calls.
+   */
+  @InternalApi
+  def withCachedConversion(): MetadataImpl =
+    if (cacheConversion || entries.isEmpty) this
+    else new MetadataImpl(entries, null, entries.size, true)
+
+  /**
+   * Creates a new io.grpc.Metadata for a call. The entries of the metadata with a cached conversion this was created
+   * from are copied from that conversion, and only the entries added since are converted.
+   */
   def toGoogleGrpcMetadata(): io.grpc.Metadata = {
     val mutableMetadata = new io.grpc.Metadata()
-    entries.reverseIterator.foreach {
-      case (key, entry) =>
-        entry match {
-          case StringEntry(value) =>
-            mutableMetadata.put(io.grpc.Metadata.Key.of(key, io.grpc.Metadata.ASCII_STRING_MARSHALLER), value)
-
-          case BytesEntry(value) =>
-            mutableMetadata.put(io.grpc.Metadata.Key.of(key, io.grpc.Metadata.BINARY_BYTE_MARSHALLER), value.toArray)
-        }
+    if (cacheConversion) mutableMetadata.merge(converted)
+    else {
+      if (base ne null) mutableMetadata.merge(base.converted)
+      // entries are kept most recently added first
+      entries.take(addedEntries).reverseIterator.foreach(put(mutableMetadata, _))
     }
     mutableMetadata
   }
+
+  // the io.grpc.Metadata passed to a call is mutated by grpc-java, so this must only be merged into a new instance
+  private lazy val converted: io.grpc.Metadata = {
+    val mutableMetadata = new io.grpc.Metadata()
+    entries.reverseIterator.foreach(put(mutableMetadata, _))
+    mutableMetadata
+  }
+
+  private def put(mutableMetadata: io.grpc.Metadata, entry: (String, MetadataEntry)): Unit =
+    entry match {
+      case (key, StringEntry(value)) =>
+        mutableMetadata.put(MetadataImpl.asciiKey(key), value)
+
+      case (key, BytesEntry(value)) =>
+        mutableMetadata.put(MetadataImpl.binaryKey(key), value.toArray)
+    }
 }
 
 /**
@@ -123,10 +188,10 @@ class GrpcMetadataImpl(delegate: io.grpc.Metadata) extends Metadata {
     MetadataImpl.niceStringRep(map)
 
   private def binaryKey(key: String): io.grpc.Metadata.Key[Array[Byte]] =
-    io.grpc.Metadata.Key.of(key, io.grpc.Metadata.BINARY_BYTE_MARSHALLER)
+    MetadataImpl.binaryKey(key)
 
   private def textKey(key: String): io.grpc.Metadata.Key[String] =
-    io.grpc.Metadata.Key.of(key, io.grpc.Metadata.ASCII_STRING_MARSHALLER)
+    MetadataImpl.asciiKey(key)
 
   private def getEntries(key: String): List[MetadataEntry] =
     if (key.endsWith(io.grpc.Metadata.BINARY_HEADER_SUFFIX)) {
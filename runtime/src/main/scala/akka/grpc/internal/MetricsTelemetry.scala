@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+
+import akka.annotation.InternalApi
+import akka.grpc.MethodMetrics
+import akka.grpc.scaladsl.Metadata
+import akka.http.javadsl.model.HttpRequest
+import io.grpc.Status
+import org.HdrHistogram.{ Histogram, Recorder }
+
+import scala.collection.immutable
+import scala.concurrent.duration.FiniteDuration
+import scala.jdk.CollectionConverters._
+
+/**
+ * INTERNAL API
+ *
+ * Records the built-in metrics using the lifecycle hooks of the [[TelemetrySpi]], and passes all calls on to the
+ * configured telemetry.
+ */
+@InternalApi
+private[akka] final class MetricsTelemetry(delegate: TelemetrySpi) extends TelemetrySpi {
+  import MetricsTelemetry._
+
+  private val serverMethods = new ConcurrentHashMap[String, ConcurrentHashMap[String, MethodRecorder]]()
+  private val clientMethods = new ConcurrentHashMap[String, ConcurrentHashMap[String, MethodRecorder]]()
+
+  override def onRequest[T <: HttpRequest](prefix: String, method: String, request: T): T =
+    delegate.onRequest(prefix, method, request)
+
+  override def onCallStart(client: Boolean, service: String, method: String): AnyRef =
+    start(client, service, method, delegate.onCallStart(client, service, method))
+
+  override def onServerCallStart(service: String, method: String, headers: Metadata): AnyRef =
+    start(client = false, service, method, delegate.onServerCallStart(service, method, headers))
+
+  private def start(client: Boolean, service: String, method: String, delegateContext: AnyRef): CallContext = {
+    val methods = if (client) clientMethods else serverMethods
+    val recorder = methods
+      .computeIfAbsent(service, _ => new ConcurrentHashMap[String, MethodRecorder]())
+      .computeIfAbsent(method, _ => new MethodRecorder(client, service, method))
+    recorder.started.increment()
+    recorder.inFlight.increment()
+    new CallContext(recorder, delegateContext)
+  }
+
+  override def inServerCallScope[T](context: AnyRef)(handle: () => T): T = {
+    val call = context.asInstanceOf[CallContext]
+    if (call.delegateContext ne null) delegate.inServerCallScope(call.delegateContext)(handle) else handle()
+  }
+
+  override def clientCallHeaders(context: AnyRef): immutable.Seq[(String, String)] = {
+    val call = context.asInstanceOf[CallContext]
+    if (call.delegateContext ne null) delegate.clientCallHeaders(call.delegateContext) else Nil
+  }
+
+  override def onMessageReceived(context: AnyRef, sizeBytes: Int): Unit = {
+    val call = context.asInstanceOf[CallContext]
+    call.recorder.received.recordValue(sizeBytes.toLong)
+    if (call.delegateContext ne null) delegate.onMessageReceived(call.delegateContext, sizeBytes)
+  }
+
+  override def onMessageSent(context: AnyRef, sizeBytes: Int): Unit = {
+    val call = context.asInstanceOf[CallContext]
+    call.recorder.sent.recordValue(sizeBytes.toLong)
+    if (call.delegateContext ne null) delegate.onMessageSent(call.delegateContext, sizeBytes)
+  }
+
+  override def onCallEnd(context: AnyRef, status: Status, durationNanos: Long): Unit = {
+    val call = context.asInstanceOf[CallContext]
+    call.recorder.inFlight.decrement()
+    call.recorder.statuses(status.getCode.value).increment()
+    call.recorder.latency.recordValue(math.max(durationNanos, 0L))
+    if (call.delegateContext ne null) delegate.onCallEnd(call.delegateContext, status, durationNanos)
+  }
+
+  override def streamFlowReportInterval: Option[FiniteDuration] = delegate.streamFlowReportInterval
+
+  override def onStreamFlow(
+      context: AnyRef,
+      outbound: Boolean,
+      elements: Long,
+      upstreamWaitNanos: Long,
+      demandWaitNanos: Long,
+      maxBuffered: Int,
+      intervalNanos: Long): Unit = {
+    val call = context.asInstanceOf[CallContext]
+    if (call.delegateContext ne null)
+      delegate.onStreamFlow(
+        call.delegateContext,
+        outbound,
+        elements,
+        upstreamWaitNanos,
+        demandWaitNanos,
+        maxBuffered,
+        intervalNanos)
+  }
+
+  def snapshot(): immutable.Seq[MethodMetrics] =
+    (serverMethods.values().asScala.iterator ++ clientMethods.values().asScala.iterator)
+      .flatMap(_.values().asScala)
+      .map(_.snapshot())
+      .toVector
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object MetricsTelemetry {
+  private val StatusCodes = Status.Code.values()
+
+  private final class CallContext(val recorder: MethodRecorder, val delegateContext: AnyRef)
+
+  private final class MethodRecorder(client: Boolean, service: String, method: String) {
+    val started = new LongAdder
+    val inFlight = new LongAdder
+    val statuses: Array[LongAdder] = Array.fill(StatusCodes.length)(new LongAdder)
+    // the recorders are lock free for the recording side, the intervals are accumulated when taking a snapshot
+    val latency = new Recorder(3)
+    val received = new Recorder(2)
+    val sent = new Recorder(2)
+
+    private var latencyTotal: Histogram = null
+    private var receivedTotal: Histogram = null
+    private var sentTotal: Histogram = null
+
+    def snapshot(): MethodMetrics = synchronized {
+      latencyTotal = accumulate(latencyTotal, latency)
+      receivedTotal = accumulate(receivedTotal, received)
+      sentTotal = accumulate(sentTotal, sent)
+      new MethodMetrics(
+        client,
+        service,
+        method,
+        started.sum(),
+        inFlight.sum(),
+        StatusCodes.iterator.map(code => code -> statuses(code.value).sum()).filter(_._2 > 0).toMap,
+        latencyTotal.copy(),
+        receivedTotal.copy(),
+        sentTotal.copy())
+    }
+
+    private def accumulate(total: Histogram, recorder: Recorder): Histogram = {
+      val interval = recorder.getIntervalHistogram()
+      if (total eq null) interval
+      else {
+        total.add(interval)
+        total
+      }
+    }
+  }
+}
@@ -8,6 +8,7 @@ import akka.actor.ActorSystem
 import akka.annotation.InternalApi
 import akka.event.LoggingAdapter
 import akka.grpc.GrpcClientSettings
+import akka.grpc.OutlierDetectionSettings
 import akka.grpc.GrpcResponseMetadata
 import akka.grpc.GrpcSingleResponse
 import akka.stream.scaladsl.Flow
@@ -28,6 +29,7 @@ import io.grpc.netty.shaded.io.netty.handler.ssl.ApplicationProtocolNegotiator
 import io.grpc.netty.shaded.io.netty.handler.ssl.SslContextBuilder
 import io.grpc.netty.shaded.io.netty.handler.ssl.{ SslContext => ShadedNettySslContext }
 import io.grpc.CallOptions
+import io.grpc.ConnectivityState
 import io.grpc.MethodDescriptor
 
 import java.util
@@ -40,6 +42,7 @@ import scala.concurrent.duration.FiniteDuration
 import scala.concurrent.ExecutionContext
 import scala.concurrent.Future
 import scala.concurrent.Promise
+import scala.jdk.CollectionConverters._
 import scala.util.Failure
 import scala.util.Success
 
@@ -89,6 +92,60 @@ object NettyClientUtils {
     override def sessionContext(): SSLSessionContext = getContext(false).sessionContext()
   }
 
+  /**
+   * INTERNAL API
+   *
+   * A service config with the load balancing config for the settings, if the load balancing policy needs a config,
+   * which can only be passed in a service config.
+   */
+  @InternalApi
+  private[akka] def loadBalancingServiceConfig(settings: GrpcClientSettings): Option[util.Map[String, AnyRef]] = {
+    def policy(name: String, config: Map[String, AnyRef]): util.Map[String, AnyRef] =
+      Map[String, AnyRef](name -> config.asJava).asJava
+
+    val configured = settings.loadBalancingPolicy match {
+      case Some(ZoneAwareWeightedLoadBalancer.PolicyName) =>
+        ZoneAwareWeightedLoadBalancer.register()
+        val localZone = settings.localZone.fold(Map.empty[String, AnyRef])(zone => Map("localZone" -> zone))
+        Some(policy(ZoneAwareWeightedLoadBalancer.PolicyName, localZone))
+      case other =>
+        // only needs a config to be wrapped by the outlier detection, which requires an explicit child policy
+        settings.outlierDetection.map(_ => policy(other.getOrElse("pick_first"), Map.empty))
+    }
+    val wrapped = settings.outlierDetection match {
+      case Some(outlierDetection) =>
+        configured.map(child =>
+          policy("outlier_detection_experimental", outlierDetectionConfig(outlierDetection, child)))
+      case None => configured
+    }
+    wrapped.map(config => Map[String, AnyRef]("loadBalancingConfig" -> List(config).asJava).asJava)
+  }
+
+  private def outlierDetectionConfig(
+      settings: OutlierDetectionSettings,
+      childPolicy: util.Map[String, AnyRef]): Map[String, AnyRef] = {
+    // numbers in a service config are doubles and durations are strings in seconds
+    def number(value: Double): AnyRef = java.lang.Double.valueOf(value)
+    def duration(value: FiniteDuration): AnyRef = java.math.BigDecimal.valueOf(value.toMillis, 3).toPlainString + "s"
+
+    val successRate =
+      if (settings.successRateEnabled)
+        Map[String, AnyRef](
+          "successRateEjection" -> Map[String, AnyRef](
+            // in thousandths
+            "stdevFactor" -> number(math.round(settings.successRateStdevFactor * 1000).toDouble),
+            "enforcementPercentage" -> number(100),
+            "minimumHosts" -> number(settings.successRateMinimumHosts),
+            "requestVolume" -> number(settings.successRateRequestVolume)).asJava)
+      else Map.empty[String, AnyRef]
+    Map[String, AnyRef](
+      "interval" -> duration(settings.interval),
+      "baseEjectionTime" -> duration(settings.baseEjectionTime),
+      "maxEjectionTime" -> duration(settings.maxEjectionTime),
+      "maxEjectionPercent" -> number(settings.maxEjectionPercent),
+      "childPolicy" -> List(childPolicy).asJava) ++ successRate
+  }
+
   /**
    * INTERNAL API
    */
@@ -104,7 +161,7 @@ object NettyClientUtils {
         // Since grpc-core 1.60.0 Netty does no longer seem to pass the authority along, so we do that
         // ourselves below (channel builder is not shared between different clients anyway).
         .forTarget(s"//${settings.serviceName}")
-        .flowControlWindow(NettyChannelBuilder.DEFAULT_FLOW_CONTROL_WINDOW)
+        .flowControlWindow(settings.initialWindowSize.getOrElse(NettyChannelBuilder.DEFAULT_FLOW_CONTROL_WINDOW))
         // TODO avoid nameResolverFactory #1092, then 'nowarn' can be removed above
         .nameResolverFactory(
           new AkkaDiscoveryNameResolverProvider(
@@ -114,7 +171,8 @@ object NettyClientUtils {
             settings.servicePortName,
             settings.serviceProtocol,
             settings.resolveTimeout,
-            settings.discoveryRefreshInterval))
+            settings.discoveryRefreshInterval,
+            settings.targetAttributes))
 
     if (!settings.useTls)
       builder = builder.usePlaintext()
@@ -141,10 +199,26 @@ object NettyClientUtils {
       }
     }
 
-    builder = settings.loadBalancingPolicy.map(builder.defaultLoadBalancingPolicy(_)).getOrElse(builder)
+    builder = loadBalancingServiceConfig(settings) match {
+      case Some(serviceConfig) => builder.defaultServiceConfig(serviceConfig)
+      case None                => settings.loadBalancingPolicy.fold(builder)(builder.defaultLoadBalancingPolicy(_))
+    }
+    builder = settings.keepAliveTime.fold(builder) { time =>
+      builder
+        .keepAliveTime(time.toNanos, TimeUnit.NANOSECONDS)
+        .keepAliveTimeout(settings.keepAliveTimeout.toNanos, TimeUnit.NANOSECONDS)
+    }
+    builder = settings.idleTimeout.fold(builder)(timeout => builder.idleTimeout(timeout.toNanos, TimeUnit.NANOSECONDS))
+    builder = settings.maxInboundMessageSize.fold(builder)(builder.maxInboundMessageSize(_))
     builder = settings.overrideAuthority.map(builder.overrideAuthority(_)).getOrElse(builder)
     builder = settings.userAgent.map(builder.userAgent(_)).getOrElse(builder)
-    builder = settings.channelBuilderOverrides(builder)
+    val (withTransport, ownEventLoopGroup) = NettyEventLoops.configure(builder, settings.nettyTransport, system)
+    builder = settings.channelBuilderOverrides(withTransport)
+    val telemetry = TelemetryExtension(system).spi
+    telemetry match {
+      case NoOpTelemetry => // no need to intercept the calls
+      case spi           => builder = builder.intercept(CallTelemetry.nettyClientInterceptor(spi))
+    }
 
     val connectionAttempts = settings.loadBalancingPolicy match {
       case None | Some("pick_first") => settings.connectionAttempts
@@ -164,6 +238,8 @@ object NettyClientUtils {
 
     ChannelUtils.monitorChannel(channelReadyPromise, channelClosedPromise, channel, connectionAttempts, log)
 
+    ownEventLoopGroup.foreach(group => channelClosedPromise.future.onComplete(_ => group.shutdownGracefully()))
+
     channelReadyPromise.future.onComplete {
       case Success(()) =>
       // OK!
@@ -179,6 +255,20 @@ object NettyClientUtils {
     new InternalChannel {
       override def shutdown() = channel.shutdown()
       override def done = channelClosedPromise.future
+      override val retryBudget: Option[RetryBudget] = RetryBudget(settings)
+
+      override def warmUp(): Future[Done] = {
+        val ready = Promise[Done]()
+        def awaitReady(state: ConnectivityState): Unit = state match {
+          case ConnectivityState.READY    => ready.trySuccess(Done)
+          case ConnectivityState.SHUTDOWN => // the channel is done
+          case other                      =>
+            // requesting the connection again if the channel went idle in the meantime
+            channel.notifyWhenStateChanged(other, () => awaitReady(channel.getState(true)))
+        }
+        awaitReady(channel.getState(true))
+        ChannelUtils.warmUp(ready.future, channelClosedPromise.future)
+      }
 
       override def invoke[I, O](
           request: I,
@@ -225,7 +315,33 @@ object NettyClientUtils {
           descriptor: MethodDescriptor[I, O],
           streamingResponse: Boolean,
           options: CallOptions): Flow[I, O, Future[GrpcResponseMetadata]] =
-        Flow.fromGraph(new AkkaNettyGrpcClientGraphStage(descriptor, channel, options, streamingResponse, headers))
+        telemetry.streamFlowReportInterval match {
+          case Some(interval) if telemetry ne NoOpTelemetry =>
+            // the interceptor creates the telemetry context of the call once the stage starts the call
+            val holder = new TelemetryContextHolder
+            val buffer = new StreamFlowBuffer
+            val stage = new AkkaNettyGrpcClientGraphStage(
+              descriptor,
+              channel,
+              options.withOption(CallTelemetry.ContextHolderKey, holder),
+              streamingResponse,
+              headers,
+              buffer)
+            val requests =
+              if (descriptor.getType.clientSendsOneMessage) Flow[I]
+              else
+                Flow[I].via(
+                  new StreamFlowInstrumentation[I](telemetry, () => holder.context, outbound = true, interval, null))
+            val responses =
+              if (!streamingResponse) Flow[O]
+              else
+                Flow[O].via(
+                  new StreamFlowInstrumentation[O](telemetry, () => holder.context, outbound = false, interval, buffer))
+            requests.viaMat(stage)(Keep.right).via(responses)
+          case _ =>
+            Flow.fromGraph(
+              new AkkaNettyGrpcClientGraphStage(descriptor, channel, options, streamingResponse, headers, null))
+        }
 
     }
   }
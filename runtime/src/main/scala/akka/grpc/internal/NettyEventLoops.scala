@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.ConcurrentHashMap
+
+import akka.actor.{ ActorSystem, ExtendedActorSystem, Extension, ExtensionId, ExtensionIdProvider }
+import akka.annotation.InternalApi
+import akka.grpc.NettyTransportSettings
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder
+import io.grpc.netty.shaded.io.netty.buffer.{ ByteBufAllocator, PooledByteBufAllocator }
+import io.grpc.netty.shaded.io.netty.channel.{ Channel, ChannelOption, EventLoopGroup }
+import io.grpc.netty.shaded.io.netty.channel.epoll.{ Epoll, EpollEventLoopGroup, EpollSocketChannel }
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioSocketChannel
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory
+
+import scala.annotation.nowarn
+
+/**
+ * INTERNAL API
+ *
+ * The event loop groups shared by the Netty channels of the actor system, shut down when the actor system terminates.
+ */
+@InternalApi
+private[akka] final class NettyEventLoops(system: ExtendedActorSystem) extends Extension {
+  import NettyEventLoops._
+
+  private val shared = new ConcurrentHashMap[(Boolean, Int), EventLoopGroup]()
+
+  system.registerOnTermination(shared.values.forEach(group => group.shutdownGracefully()))
+
+  def sharedGroup(epoll: Boolean, threads: Int): EventLoopGroup =
+    shared.computeIfAbsent((epoll, threads), (_: (Boolean, Int)) => newGroup(epoll, threads))
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object NettyEventLoops extends ExtensionId[NettyEventLoops] with ExtensionIdProvider {
+  override def lookup = NettyEventLoops
+
+  override def createExtension(system: ExtendedActorSystem): NettyEventLoops = new NettyEventLoops(system)
+
+  private lazy val pooledDirectAllocator: ByteBufAllocator = new PooledByteBufAllocator(true)
+
+  def useEpoll(transport: String): Boolean =
+    transport match {
+      case "epoll" =>
+        if (!Epoll.isAvailable)
+          throw new IllegalArgumentException("The epoll transport is not available", Epoll.unavailabilityCause)
+        true
+      case "nio" => false
+      case _     => Epoll.isAvailable
+    }
+
+  @nowarn("msg=deprecated")
+  private def newGroup(epoll: Boolean, threads: Int): EventLoopGroup = {
+    val threadFactory = new DefaultThreadFactory("akka-grpc-netty-client", true)
+    if (epoll) new EpollEventLoopGroup(threads, threadFactory)
+    else new NioEventLoopGroup(threads, threadFactory)
+  }
+
+  /**
+   * Configures the transport, event loop group and allocator of the builder according to the settings.
+   *
+   * @return the builder, and the event loop group of its own to shut down when the channel is closed
+   */
+  def configure(builder: NettyChannelBuilder, settings: NettyTransportSettings, system: ActorSystem)
+      : (NettyChannelBuilder, Option[EventLoopGroup]) = {
+    val withAllocator =
+      if (settings.allocator == "pooled-direct") builder.withOption(ChannelOption.ALLOCATOR, pooledDirectAllocator)
+      else builder
+    if (!settings.customEventLoopGroup) (withAllocator, None)
+    else {
+      val epoll = useEpoll(settings.transport)
+      val channelType: Class[_ <: Channel] = if (epoll) classOf[EpollSocketChannel] else classOf[NioSocketChannel]
+      val (group, ownGroup) =
+        if (settings.shareEventLoopGroup) (NettyEventLoops(system).sharedGroup(epoll, settings.eventLoopThreads), None)
+        else {
+          val group = newGroup(epoll, settings.eventLoopThreads)
+          (group, Some(group))
+        }
+      (withAllocator.eventLoopGroup(group).channelType(channelType), ownGroup)
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.{ AtomicInteger, AtomicLong }
+
+import akka.annotation.InternalApi
+import akka.grpc.OutlierDetectionSettings
+
+import scala.jdk.CollectionConverters._
+
+/**
+ * INTERNAL API
+ *
+ * Tracks the outcome of the calls to each endpoint and ejects the outliers according to the
+ * [[OutlierDetectionSettings]]. Recording outcomes is lock free, ejecting and `evaluate`, which must be called
+ * every `interval`, synchronize on the detector.
+ *
+ * @param onEject called when an endpoint is ejected, while holding the lock of the detector
+ */
+@InternalApi
+private[akka] final class OutlierDetector[E](
+    settings: OutlierDetectionSettings,
+    onEject: E => Unit,
+    clock: () => Long = () => System.nanoTime()) {
+  import OutlierDetector._
+
+  private val endpoints = new ConcurrentHashMap[E, EndpointStats]()
+
+  /**
+   * @param latencyNanos the latency of a unary call, or -1 for other calls
+   */
+  def record(endpoint: E, success: Boolean, latencyNanos: Long): Unit = {
+    val stats = endpoints.computeIfAbsent(endpoint, (_: E) => new EndpointStats)
+    if (success) {
+      stats.successes.incrementAndGet()
+      stats.consecutiveFailures.set(0)
+    } else {
+      stats.failures.incrementAndGet()
+      val failuresInARow = stats.consecutiveFailures.incrementAndGet()
+      if (settings.consecutiveFailures > 0 && failuresInARow >= settings.consecutiveFailures) {
+        stats.consecutiveFailures.set(0)
+        synchronized(eject(endpoint, stats, clock()))
+      }
+    }
+    if (latencyNanos >= 0) {
+      stats.latencyCalls.incrementAndGet()
+      stats.latencyNanos.addAndGet(latencyNanos)
+    }
+  }
+
+  def isEjected(endpoint: E): Boolean = {
+    val stats = endpoints.get(endpoint)
+    (stats ne null) && stats.isEjected(clock())
+  }
+
+  /**
+   * Forget about endpoints that are no longer discovered
+   */
+  def retain(current: Set[E]): Unit =
+    endpoints.keySet.removeIf((endpoint: E) => !current.contains(endpoint))
+
+  /**
+   * Un-eject the endpoints whose ejection time passed, and eject the success rate and latency outliers of the last
+   * interval.
+   */
+  def evaluate(): Unit = synchronized {
+    val now = clock()
+    val all = endpoints.asScala.toVector
+    all.foreach {
+      case (_, stats) =>
+        if (stats.ejected && !stats.isEjected(now)) stats.ejected = false
+        // endpoints that behave are ejected for shorter and shorter times again
+        else if (!stats.ejected && stats.ejections > 0) stats.ejections -= 1
+    }
+    val intervalStats = all.map {
+      case (endpoint, stats) =>
+        val successes = stats.successes.getAndSet(0)
+        val calls = successes + stats.failures.getAndSet(0)
+        val latencyCalls = stats.latencyCalls.getAndSet(0)
+        val latencyNanos = stats.latencyNanos.getAndSet(0)
+        (endpoint, stats, calls, successes, latencyCalls, latencyNanos)
+    }
+
+    if (settings.successRateEnabled) {
+      val candidates = intervalStats.collect {
+        case (endpoint, stats, calls, successes, _, _) if calls >= settings.successRateRequestVolume && calls > 0 =>
+          (endpoint, stats, successes.toDouble / calls)
+      }
+      successRateOutliers(candidates.map(_._3), settings.successRateStdevFactor, settings.successRateMinimumHosts)
+        .foreach(i => eject(candidates(i)._1, candidates(i)._2, now))
+    }
+
+    if (settings.latencyEnabled) {
+      val candidates = intervalStats.collect {
+        case (endpoint, stats, _, _, latencyCalls, latencyNanos)
+            if latencyCalls >= settings.latencyRequestVolume && latencyCalls > 0 =>
+          (endpoint, stats, latencyNanos.toDouble / latencyCalls)
+      }
+      latencyOutliers(candidates.map(_._3), settings.latencyFactor, settings.latencyMinimumHosts)
+        .foreach(i => eject(candidates(i)._1, candidates(i)._2, now))
+    }
+  }
+
+  // must be called while holding the lock
+  private def eject(endpoint: E, stats: EndpointStats, now: Long): Unit =
+    if (!stats.isEjected(now)) {
+      val ejectedCount = endpoints.values.asScala.count(_.isEjected(now))
+      if (ejectedCount * 100 < settings.maxEjectionPercent * endpoints.size) {
+        stats.ejections += 1
+        val ejectionNanos =
+          math.min(settings.baseEjectionTime.toNanos * stats.ejections, settings.maxEjectionTime.toNanos)
+        stats.ejectedUntil = now + ejectionNanos
+        stats.ejected = true
+        onEject(endpoint)
+      }
+    }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object OutlierDetector {
+
+  private final class EndpointStats {
+    val successes = new AtomicLong
+    val failures = new AtomicLong
+    val consecutiveFailures = new AtomicInteger
+    val latencyCalls = new AtomicLong
+    val latencyNanos = new AtomicLong
+    // guarded by the lock of the detector, read without it
+    @volatile var ejectedUntil = 0L
+    @volatile var ejected = false
+    var ejections = 0
+
+    def isEjected(now: Long): Boolean = ejected && ejectedUntil - now > 0
+  }
+
+  /**
+   * @return the indices of the success rates more than `stdevFactor` standard deviations below the mean, if there
+   *         are at least `minimumHosts` of them
+   */
+  def successRateOutliers(rates: Vector[Double], stdevFactor: Double, minimumHosts: Int): Vector[Int] =
+    if (rates.isEmpty || rates.size < minimumHosts) Vector.empty
+    else {
+      val mean = rates.sum / rates.size
+      val stdev = math.sqrt(rates.map(rate => (rate - mean) * (rate - mean)).sum / rates.size)
+      val threshold = mean - stdevFactor * stdev
+      rates.indices.filter(rates(_) < threshold).toVector
+    }
+
+  /**
+   * @return the indices of the mean latencies more than `factor` times the median, if there are at least
+   *         `minimumHosts` of them
+   */
+  def latencyOutliers(latencies: Vector[Double], factor: Double, minimumHosts: Int): Vector[Int] =
+    if (latencies.isEmpty || latencies.size < minimumHosts) Vector.empty
+    else {
+      val sorted = latencies.sorted
+      val median =
+        if (sorted.size % 2 == 1) sorted(sorted.size / 2)
+        else (sorted(sorted.size / 2 - 1) + sorted(sorted.size / 2)) / 2
+      latencies.indices.filter(latencies(_) > factor * median).toVector
+    }
+}
@@ -10,7 +10,13 @@ import akka.NotUsed
 import akka.actor.ClassicActorSystemProvider
 import akka.annotation.{ InternalApi, InternalStableApi }
 import akka.grpc.scaladsl.SingleResponseRequestBuilder
-import akka.grpc.{ GrpcClientSettings, GrpcResponseMetadata, GrpcServiceException, GrpcSingleResponse }
+import akka.grpc.{
+  GrpcClientSettings,
+  GrpcResponseMetadata,
+  GrpcRetryPolicy,
+  GrpcServiceException,
+  GrpcSingleResponse
+}
 import akka.pattern.RetrySettings
 import akka.stream.{ Graph, Materializer, SourceShape }
 import akka.stream.javadsl.{ Source => JavaSource }
@@ -18,8 +24,10 @@ import akka.stream.scaladsl.{ Keep, Sink, Source }
 import akka.util.ByteString
 import io.grpc._
 
-import scala.concurrent.duration.Duration
+import scala.concurrent.duration.{ Duration, FiniteDuration }
 import scala.concurrent.{ ExecutionContext, Future }
+import scala.jdk.CollectionConverters._
+import scala.jdk.DurationConverters._
 import scala.jdk.FutureConverters._
 
 /**
@@ -32,10 +40,21 @@ final class ScalaUnaryRequestBuilder[I, O](
     defaultOptions: CallOptions,
     settings: GrpcClientSettings,
     val headers: MetadataImpl,
-    retrySettings: Option[RetrySettings])(implicit ec: ExecutionContext, system: ClassicActorSystemProvider)
+    retrySettings: Option[RetrySettings],
+    invocationPolicy: Option[InvocationPolicy])(implicit ec: ExecutionContext, system: ClassicActorSystemProvider)
     extends akka.grpc.scaladsl.SingleResponseRequestBuilder[I, O]
     with MetadataOperations[ScalaUnaryRequestBuilder[I, O]] {
 
+  // for backwards compatibility with clients generated with 2.5.5 and earlier
+  def this(
+      descriptor: MethodDescriptor[I, O],
+      channel: InternalChannel,
+      defaultOptions: CallOptions,
+      settings: GrpcClientSettings,
+      headers: MetadataImpl,
+      retrySettings: Option[RetrySettings])(implicit ec: ExecutionContext, system: ClassicActorSystemProvider) =
+    this(descriptor, channel, defaultOptions, settings, headers, retrySettings, None)
+
   // for backwards compatibility with clients generated with 2.5.3 and earlier
   def this(
       descriptor: MethodDescriptor[I, O],
@@ -43,7 +62,7 @@ final class ScalaUnaryRequestBuilder[I, O](
       defaultOptions: CallOptions,
       settings: GrpcClientSettings,
       headers: MetadataImpl)(implicit ec: ExecutionContext) =
-    this(descriptor, channel, defaultOptions, settings, headers, None)(ec, null)
+    this(descriptor, channel, defaultOptions, settings, headers, None, None)(ec, null)
 
   @InternalStableApi
   def this(
@@ -51,7 +70,7 @@ final class ScalaUnaryRequestBuilder[I, O](
       channel: InternalChannel,
       defaultOptions: CallOptions,
       settings: GrpcClientSettings)(implicit ec: ExecutionContext) =
-    this(descriptor, channel, defaultOptions, settings, MetadataImpl.empty, None)(ec, null)
+    this(descriptor, channel, defaultOptions, settings, MetadataImpl.empty, None, None)(ec, null)
 
   private def callOptionsWithDeadline(): CallOptions =
     NettyClientUtils.callOptionsWithDeadline(defaultOptions, settings)
@@ -59,16 +78,20 @@ final class ScalaUnaryRequestBuilder[I, O](
   private def systemOrThrow() =
     if (system eq null)
       throw new IllegalStateException(
-        "Retry settings cannot be used with clients generated with Akka 2.5.3 and earlier")
+        "Retry and hedging settings cannot be used with clients generated with an older version of Akka gRPC")
     else system
 
   override def invoke(request: I): Future[O] = {
     def callIt() =
       channel.invoke(request, headers, descriptor, defaultOptions).recoverWith(RequestBuilderImpl.richError)
-    retrySettings match {
-      case None => callIt()
-      case Some(settings) =>
+    (retrySettings, invocationPolicy) match {
+      case (_, Some(hedging: HedgingSettings)) =>
+        invokeHedged(request, hedging).map(_.value)(ExecutionContext.parasitic)
+      case (_, Some(StatusAwareRetrySettings(policy))) =>
+        StatusAwareRetry.retry(policy, channel.retryBudget, systemOrThrow())(callIt _)
+      case (Some(settings), _) =>
         akka.pattern.retry(settings)(callIt _)(systemOrThrow())
+      case _ => callIt()
     }
   }
 
@@ -77,13 +100,28 @@ final class ScalaUnaryRequestBuilder[I, O](
       channel
         .invokeWithMetadata(request, headers, descriptor, callOptionsWithDeadline())
         .recoverWith(RequestBuilderImpl.richError)
-    retrySettings match {
-      case None => callIt()
-      case Some(settings) =>
+    (retrySettings, invocationPolicy) match {
+      case (_, Some(hedging: HedgingSettings)) =>
+        invokeHedged(request, hedging)
+      case (_, Some(StatusAwareRetrySettings(policy))) =>
+        StatusAwareRetry.retry(policy, channel.retryBudget, systemOrThrow())(callIt _)
+      case (Some(settings), _) =>
         akka.pattern.retry(settings)(callIt _)(systemOrThrow())
+      case _ => callIt()
     }
   }
 
+  // the streaming call API is used for hedged attempts so that the attempts that lost can be cancelled, which
+  // bypasses the response cache and request coalescing, as documented on withHedging
+  private def invokeHedged(request: I, hedging: HedgingSettings): Future[GrpcSingleResponse[O]] =
+    Hedging
+      .hedgeWithMetadata[I, O](
+        hedging,
+        Source.single(request),
+        (source: Source[I, NotUsed]) =>
+          channel.invokeWithMetadata(source, headers, descriptor, false, callOptionsWithDeadline()))(systemOrThrow())
+      .recoverWith(RequestBuilderImpl.richError)
+
   override def withHeaders(headers: MetadataImpl): ScalaUnaryRequestBuilder[I, O] =
     copy(headers = headers)
 
@@ -93,15 +131,37 @@ final class ScalaUnaryRequestBuilder[I, O](
       else defaultOptions.withDeadlineAfter(deadline.toMillis, TimeUnit.MILLISECONDS))
 
   override def withRetry(retrySettings: RetrySettings): SingleResponseRequestBuilder[I, O] =
-    copy(retrySettings = Some(retrySettings))
+    copy(retrySettings = Some(retrySettings), invocationPolicy = None)
 
   override def withRetry(maxRetries: Int): SingleResponseRequestBuilder[I, O] = withRetry(RetrySettings(maxRetries))
 
+  override def withRetry(retryPolicy: GrpcRetryPolicy): SingleResponseRequestBuilder[I, O] =
+    copy(retrySettings = None, invocationPolicy = Some(StatusAwareRetrySettings(retryPolicy)))
+
+  override def withHedging(maxAttempts: Int, hedgingDelay: FiniteDuration): SingleResponseRequestBuilder[I, O] =
+    copy(retrySettings = None, invocationPolicy = Some(HedgingSettings(maxAttempts, hedgingDelay)))
+
+  override def withHedging(
+      maxAttempts: Int,
+      hedgingDelay: FiniteDuration,
+      nonFatalStatusCodes: Set[Status.Code]): SingleResponseRequestBuilder[I, O] =
+    copy(
+      retrySettings = None,
+      invocationPolicy = Some(HedgingSettings(maxAttempts, hedgingDelay, nonFatalStatusCodes)))
+
   private def copy(
       defaultOptions: CallOptions = defaultOptions,
       headers: MetadataImpl = headers,
-      retrySettings: Option[RetrySettings] = retrySettings): ScalaUnaryRequestBuilder[I, O] =
-    new ScalaUnaryRequestBuilder[I, O](descriptor, channel, defaultOptions, settings, headers, retrySettings)
+      retrySettings: Option[RetrySettings] = retrySettings,
+      invocationPolicy: Option[InvocationPolicy] = invocationPolicy): ScalaUnaryRequestBuilder[I, O] =
+    new ScalaUnaryRequestBuilder[I, O](
+      descriptor,
+      channel,
+      defaultOptions,
+      settings,
+      headers,
+      retrySettings,
+      invocationPolicy)
 }
 
 /**
@@ -114,11 +174,29 @@ final class JavaUnaryRequestBuilder[I, O](
     defaultOptions: CallOptions,
     settings: GrpcClientSettings,
     val headers: MetadataImpl,
-    retrySettings: Option[RetrySettings])(implicit ex: ExecutionContext, system: ClassicActorSystemProvider)
+    retrySettings: Option[RetrySettings],
+    invocationPolicy: Option[InvocationPolicy])(implicit ex: ExecutionContext, system: ClassicActorSystemProvider)
     extends akka.grpc.javadsl.SingleResponseRequestBuilder[I, O]
     with MetadataOperations[JavaUnaryRequestBuilder[I, O]] {
   private def delegate =
-    new ScalaUnaryRequestBuilder[I, O](descriptor, channel, defaultOptions, settings, headers, retrySettings)
+    new ScalaUnaryRequestBuilder[I, O](
+      descriptor,
+      channel,
+      defaultOptions,
+      settings,
+      headers,
+      retrySettings,
+      invocationPolicy)
+
+  // for backwards compatibility with clients generated with 2.5.5 and earlier
+  def this(
+      descriptor: MethodDescriptor[I, O],
+      channel: InternalChannel,
+      defaultOptions: CallOptions,
+      settings: GrpcClientSettings,
+      headers: MetadataImpl,
+      retrySettings: Option[RetrySettings])(implicit ec: ExecutionContext, system: ClassicActorSystemProvider) =
+    this(descriptor, channel, defaultOptions, settings, headers, retrySettings, None)
 
   // for backwards compatibility with clients generated with 2.5.3 and earlier
   def this(
@@ -127,7 +205,7 @@ final class JavaUnaryRequestBuilder[I, O](
       defaultOptions: CallOptions,
       settings: GrpcClientSettings,
       headers: MetadataImpl)(implicit ec: ExecutionContext) =
-    this(descriptor, channel, defaultOptions, settings, headers, None)(ec, null)
+    this(descriptor, channel, defaultOptions, settings, headers, None, None)(ec, null)
 
   @InternalStableApi
   def this(
@@ -135,7 +213,7 @@ final class JavaUnaryRequestBuilder[I, O](
       channel: InternalChannel,
       defaultOptions: CallOptions,
       settings: GrpcClientSettings)(implicit ec: ExecutionContext) =
-    this(descriptor, channel, defaultOptions, settings, MetadataImpl.empty, None)(ec, null)
+    this(descriptor, channel, defaultOptions, settings, MetadataImpl.empty, None, None)(ec, null)
 
   override def invoke(request: I): CompletionStage[O] =
     delegate.invoke(request).asJava
@@ -144,7 +222,7 @@ final class JavaUnaryRequestBuilder[I, O](
     delegate.invokeWithMetadata(request).asJava
 
   override def withHeaders(headers: MetadataImpl): JavaUnaryRequestBuilder[I, O] =
-    new JavaUnaryRequestBuilder[I, O](descriptor, channel, defaultOptions, settings, headers, retrySettings)
+    copy(headers = headers)
 
   override def setDeadline(deadline: JDuration): JavaUnaryRequestBuilder[I, O] =
     copy(defaultOptions =
@@ -152,15 +230,38 @@ final class JavaUnaryRequestBuilder[I, O](
       else defaultOptions.withDeadlineAfter(deadline.toMillis, TimeUnit.MILLISECONDS))
 
   override def withRetry(retrySettings: RetrySettings): JavaUnaryRequestBuilder[I, O] =
-    copy(retrySettings = Some(retrySettings))
+    copy(retrySettings = Some(retrySettings), invocationPolicy = None)
 
   override def withRetry(maxRetries: Int): JavaUnaryRequestBuilder[I, O] = withRetry(RetrySettings(maxRetries))
 
+  override def withRetry(retryPolicy: GrpcRetryPolicy): JavaUnaryRequestBuilder[I, O] =
+    copy(retrySettings = None, invocationPolicy = Some(StatusAwareRetrySettings(retryPolicy)))
+
+  override def withHedging(maxAttempts: Int, hedgingDelay: JDuration): JavaUnaryRequestBuilder[I, O] =
+    copy(retrySettings = None, invocationPolicy = Some(HedgingSettings(maxAttempts, hedgingDelay.toScala)))
+
+  override def withHedging(
+      maxAttempts: Int,
+      hedgingDelay: JDuration,
+      nonFatalStatusCodes: java.util.Set[Status.Code]): JavaUnaryRequestBuilder[I, O] =
+    copy(
+      retrySettings = None,
+      invocationPolicy =
+        Some(HedgingSettings(maxAttempts, hedgingDelay.toScala, nonFatalStatusCodes.asScala.toSet)))
+
   private def copy(
       defaultOptions: CallOptions = defaultOptions,
       headers: MetadataImpl = headers,
-      retrySettings: Option[RetrySettings] = retrySettings): JavaUnaryRequestBuilder[I, O] =
-    new JavaUnaryRequestBuilder[I, O](descriptor, channel, defaultOptions, settings, headers, retrySettings)
+      retrySettings: Option[RetrySettings] = retrySettings,
+      invocationPolicy: Option[InvocationPolicy] = invocationPolicy): JavaUnaryRequestBuilder[I, O] =
+    new JavaUnaryRequestBuilder[I, O](
+      descriptor,
+      channel,
+      defaultOptions,
+      settings,
+      headers,
+      retrySettings,
+      invocationPolicy)
 }
 
 /**
@@ -173,10 +274,20 @@ final class ScalaClientStreamingRequestBuilder[I, O](
     defaultOptions: CallOptions,
     settings: GrpcClientSettings,
     val headers: MetadataImpl,
-    retrySettings: Option[RetrySettings])(implicit mat: Materializer, ec: ExecutionContext)
+    retrySettings: Option[RetrySettings],
+    invocationPolicy: Option[InvocationPolicy])(implicit mat: Materializer, ec: ExecutionContext)
     extends akka.grpc.scaladsl.SingleResponseRequestBuilder[Source[I, NotUsed], O]
     with MetadataOperations[ScalaClientStreamingRequestBuilder[I, O]] {
 
+  def this(
+      descriptor: MethodDescriptor[I, O],
+      channel: InternalChannel,
+      defaultOptions: CallOptions,
+      settings: GrpcClientSettings,
+      headers: MetadataImpl,
+      retrySettings: Option[RetrySettings])(implicit mat: Materializer, ec: ExecutionContext) =
+    this(descriptor, channel, defaultOptions, settings, headers, retrySettings, None)
+
   // this is what the generated client scala code uses
   def this(
       descriptor: MethodDescriptor[I, O],
@@ -238,10 +349,12 @@ final class ScalaClientStreamingRequestBuilder[I, O](
         .recoverWith(RequestBuilderImpl.richError)
     }
 
-    retrySettings match {
-      case Some(settings) =>
+    (retrySettings, invocationPolicy) match {
+      case (_, Some(StatusAwareRetrySettings(policy))) =>
+        StatusAwareRetry.retry(policy, channel.retryBudget, mat.system)(invokeIt _)
+      case (Some(settings), _) =>
         akka.pattern.retry(settings)(invokeIt _)(mat.system)
-      case None =>
+      case _ =>
         invokeIt()
     }
   }
@@ -255,16 +368,38 @@ final class ScalaClientStreamingRequestBuilder[I, O](
       else defaultOptions.withDeadlineAfter(deadline.toMillis, TimeUnit.MILLISECONDS))
 
   override def withRetry(retrySettings: RetrySettings): SingleResponseRequestBuilder[Source[I, NotUsed], O] =
-    copy(retrySettings = Some(retrySettings))
+    copy(retrySettings = Some(retrySettings), invocationPolicy = None)
 
   override def withRetry(maxRetries: Int): SingleResponseRequestBuilder[Source[I, NotUsed], O] = withRetry(
     RetrySettings(maxRetries))
 
+  override def withRetry(retryPolicy: GrpcRetryPolicy): SingleResponseRequestBuilder[Source[I, NotUsed], O] =
+    copy(retrySettings = None, invocationPolicy = Some(StatusAwareRetrySettings(retryPolicy)))
+
+  override def withHedging(
+      maxAttempts: Int,
+      hedgingDelay: FiniteDuration): SingleResponseRequestBuilder[Source[I, NotUsed], O] =
+    RequestBuilderImpl.hedgingNotSupported()
+
+  override def withHedging(
+      maxAttempts: Int,
+      hedgingDelay: FiniteDuration,
+      nonFatalStatusCodes: Set[Status.Code]): SingleResponseRequestBuilder[Source[I, NotUsed], O] =
+    RequestBuilderImpl.hedgingNotSupported()
+
   private def copy(
       defaultOptions: CallOptions = defaultOptions,
       headers: MetadataImpl = headers,
-      retrySettings: Option[RetrySettings] = retrySettings): ScalaClientStreamingRequestBuilder[I, O] =
-    new ScalaClientStreamingRequestBuilder[I, O](descriptor, channel, defaultOptions, settings, headers, retrySettings)
+      retrySettings: Option[RetrySettings] = retrySettings,
+      invocationPolicy: Option[InvocationPolicy] = invocationPolicy): ScalaClientStreamingRequestBuilder[I, O] =
+    new ScalaClientStreamingRequestBuilder[I, O](
+      descriptor,
+      channel,
+      defaultOptions,
+      settings,
+      headers,
+      retrySettings,
+      invocationPolicy)
 }
 
 /**
@@ -277,9 +412,19 @@ final class JavaClientStreamingRequestBuilder[I, O](
     defaultOptions: CallOptions,
     settings: GrpcClientSettings,
     val headers: MetadataImpl,
-    retrySettings: Option[RetrySettings])(implicit mat: Materializer, ec: ExecutionContext)
+    retrySettings: Option[RetrySettings],
+    invocationPolicy: Option[InvocationPolicy])(implicit mat: Materializer, ec: ExecutionContext)
     extends akka.grpc.javadsl.SingleResponseRequestBuilder[JavaSource[I, NotUsed], O]
     with MetadataOperations[JavaClientStreamingRequestBuilder[I, O]] {
+  def this(
+      descriptor: MethodDescriptor[I, O],
+      channel: InternalChannel,
+      defaultOptions: CallOptions,
+      settings: GrpcClientSettings,
+      headers: MetadataImpl,
+      retrySettings: Option[RetrySettings])(implicit mat: Materializer, ec: ExecutionContext) =
+    this(descriptor, channel, defaultOptions, settings, headers, retrySettings, None)
+
   @InternalStableApi
   def this(
       descriptor: MethodDescriptor[I, O],
@@ -308,7 +453,14 @@ final class JavaClientStreamingRequestBuilder[I, O](
     this(descriptor, channel, defaultOptions, settings, headers, None)
 
   private def delegate =
-    new ScalaClientStreamingRequestBuilder[I, O](descriptor, channel, defaultOptions, settings, headers, retrySettings)
+    new ScalaClientStreamingRequestBuilder[I, O](
+      descriptor,
+      channel,
+      defaultOptions,
+      settings,
+      headers,
+      retrySettings,
+      invocationPolicy)
 
   override def invoke(request: JavaSource[I, NotUsed]): CompletionStage[O] =
     delegate.invoke(request.asScala).asJava
@@ -325,16 +477,36 @@ final class JavaClientStreamingRequestBuilder[I, O](
       else defaultOptions.withDeadlineAfter(deadline.toMillis, TimeUnit.MILLISECONDS))
 
   override def withRetry(retrySettings: RetrySettings): JavaClientStreamingRequestBuilder[I, O] =
-    copy(retrySettings = Some(retrySettings))
+    copy(retrySettings = Some(retrySettings), invocationPolicy = None)
 
   override def withRetry(maxRetries: Int): JavaClientStreamingRequestBuilder[I, O] =
     withRetry(RetrySettings(maxRetries))
 
+  override def withRetry(retryPolicy: GrpcRetryPolicy): JavaClientStreamingRequestBuilder[I, O] =
+    copy(retrySettings = None, invocationPolicy = Some(StatusAwareRetrySettings(retryPolicy)))
+
+  override def withHedging(maxAttempts: Int, hedgingDelay: JDuration): JavaClientStreamingRequestBuilder[I, O] =
+    RequestBuilderImpl.hedgingNotSupported()
+
+  override def withHedging(
+      maxAttempts: Int,
+      hedgingDelay: JDuration,
+      nonFatalStatusCodes: java.util.Set[Status.Code]): JavaClientStreamingRequestBuilder[I, O] =
+    RequestBuilderImpl.hedgingNotSupported()
+
   private def copy(
       defaultOptions: CallOptions = defaultOptions,
       headers: MetadataImpl = headers,
-      retrySettings: Option[RetrySettings] = retrySettings): JavaClientStreamingRequestBuilder[I, O] =
-    new JavaClientStreamingRequestBuilder[I, O](descriptor, channel, defaultOptions, settings, headers, retrySettings)
+      retrySettings: Option[RetrySettings] = retrySettings,
+      invocationPolicy: Option[InvocationPolicy] = invocationPolicy): JavaClientStreamingRequestBuilder[I, O] =
+    new JavaClientStreamingRequestBuilder[I, O](
+      descriptor,
+      channel,
+      defaultOptions,
+      settings,
+      headers,
+      retrySettings,
+      invocationPolicy)
 }
 
 /**
@@ -575,6 +747,11 @@ trait MetadataOperations[T <: MetadataOperations[T]] {
 }
 
 object RequestBuilderImpl {
+
+  // each attempt would materialize the request source again
+  private[internal] def hedgingNotSupported(): Nothing =
+    throw new UnsupportedOperationException("Hedging is only supported for unary calls, not client streaming calls")
+
   def richErrorStream[U]: PartialFunction[Throwable, Graph[SourceShape[U], NotUsed]] = {
     case item => Source.failed(RequestBuilderImpl.lift(item))
   }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.CompletionStage
+
+import akka.actor.ClassicActorSystemProvider
+import akka.annotation.InternalApi
+import akka.grpc.{ CallCancellation, GrpcDeadline, GrpcProtocol, Trailers }
+import akka.http.javadsl.{ model => jm }
+import akka.http.scaladsl.model.{ HttpEntity, HttpRequest, HttpResponse }
+import akka.http.scaladsl.model.HttpEntity.ChunkStreamPart
+import akka.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import akka.stream.scaladsl.Flow
+import akka.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler, TimerGraphStageLogic }
+import akka.util.ByteString
+import io.grpc.Status
+
+import scala.concurrent.{ ExecutionContext, Future, Promise }
+import scala.concurrent.duration._
+import scala.jdk.FutureConverters._
+import scala.util.control.NonFatal
+
+/**
+ * INTERNAL API
+ *
+ * Enforces the deadline a client sent with the `grpc-timeout` header on the server: if the handler did not respond
+ * in time the call is answered with `DEADLINE_EXCEEDED`, and a streamed response that is still running when the
+ * deadline passes is cancelled and ends with `DEADLINE_EXCEEDED` trailers.
+ *
+ * Also provides the [[CallCancellation]] of the call, which is triggered when the deadline passes, when the request
+ * stream fails and when the response entity is cancelled. Akka HTTP does not tell the handler about a reset once the
+ * request was received, it only cancels the response entity, so for calls without a deadline that respond with a
+ * single message the cancellation would only be triggered after the handler is done, and it is not offered to their
+ * handlers, see [[singleResponse]]. To not allocate anything for calls that do not use the cancellation, calls
+ * without a deadline are only watched through their response, and only if the handler looked up the cancellation
+ * before it responded. A failed request stream also fails the handler that consumes it.
+ */
+@InternalApi
+private[akka] object ServerDeadline {
+  val TimeoutHeader = "grpc-timeout"
+
+  private val DeadlineExceeded = Status.DEADLINE_EXCEEDED.withDescription("Deadline exceeded")
+  private val Cancelled = Status.CANCELLED.withDescription("Call cancelled by the client")
+
+  def enforce(request: HttpRequest)(handle: HttpRequest => Future[HttpResponse])(
+      implicit system: ClassicActorSystemProvider): Future[HttpResponse] = {
+    val cancellation = new CallCancellation
+    val withCancellation = request.addAttribute(CallCancellation.attributeKey, cancellation)
+    val deadlineAndWriter = for {
+      timeout <- request.headers.collectFirst { case h if h.is(TimeoutHeader) => h.value }.flatMap(parseTimeout)
+      (_, writer) <- GrpcProtocol.negotiate(request)
+    } yield (timeout, writer)
+
+    deadlineAndWriter match {
+      case None =>
+        safely(handle, withCancellation).map { response =>
+          if (cancellation.isTracked) trackResponse(response, cancellation, null, null) else response
+        }(ExecutionContext.parasitic)
+      case Some((timeout, writer)) =>
+        val deadline = GrpcDeadline.after(timeout)
+        val tracked = trackRequest(withCancellation, cancellation)
+        val result = safely(handle, tracked.addAttribute(GrpcDeadline.attributeKey, deadline))
+        val response = Promise[HttpResponse]()
+        val timer = system.classicSystem.scheduler.scheduleOnce(timeout) {
+          if (response.trySuccess(GrpcResponseHelpers.status(Trailers(DeadlineExceeded))(writer)))
+            cancellation.cancel(DeadlineExceeded)
+        }(ExecutionContext.parasitic)
+        result.onComplete { r =>
+          timer.cancel()
+          val trailer = writer.encodeFrame(GrpcEntityHelpers.trailer(DeadlineExceeded))
+          response.tryComplete(r.map(trackResponse(_, cancellation, deadline, trailer)))
+        }(ExecutionContext.parasitic)
+        response.future
+    }
+  }
+
+  /**
+   * Java API for generated Java server handlers
+   */
+  def enforceJava(
+      request: jm.HttpRequest,
+      handle: java.util.function.Function[jm.HttpRequest, CompletionStage[jm.HttpResponse]],
+      system: ClassicActorSystemProvider): CompletionStage[jm.HttpResponse] =
+    enforce(request.asInstanceOf[HttpRequest]) { r =>
+      handle(r).asScala.map(_.asInstanceOf[HttpResponse])(ExecutionContext.parasitic)
+    }(system).map(response => response: jm.HttpResponse)(ExecutionContext.parasitic).asJava
+
+  /**
+   * The request as seen by the handler of a method that responds with a single message: without a deadline, the
+   * [[CallCancellation]] of such a call could only be triggered after the handler responded, so it is removed.
+   */
+  def singleResponse(request: HttpRequest): HttpRequest =
+    if (request.attribute(GrpcDeadline.attributeKey).isDefined) request
+    else request.removeAttribute(CallCancellation.attributeKey)
+
+  /**
+   * Java API for generated Java server handlers
+   */
+  def singleResponseJava(request: jm.HttpRequest): jm.HttpRequest =
+    singleResponse(request.asInstanceOf[HttpRequest])
+
+  /**
+   * Parse a `grpc-timeout` value: at most 8 digits followed by the unit.
+   */
+  def parseTimeout(value: String): Option[FiniteDuration] = {
+    val digits = value.substring(0, math.max(value.length - 1, 0))
+    if (digits.isEmpty || digits.length > 8 || !digits.forall(c => c >= '0' && c <= '9')) None
+    else {
+      val amount = digits.toLong
+      value.charAt(value.length - 1) match {
+        case 'H' => Some(amount.hours)
+        case 'M' => Some(amount.minutes)
+        case 'S' => Some(amount.seconds)
+        case 'm' => Some(amount.millis)
+        case 'u' => Some(amount.micros)
+        case 'n' => Some(amount.nanos)
+        case _   => None
+      }
+    }
+  }
+
+  private def safely(handle: HttpRequest => Future[HttpResponse], request: HttpRequest): Future[HttpResponse] =
+    try handle(request)
+    catch {
+      case NonFatal(ex) => Future.failed(ex)
+    }
+
+  private def trackRequest(request: HttpRequest, cancellation: CallCancellation): HttpRequest =
+    request.entity match {
+      case _: HttpEntity.Strict => request
+      case entity =>
+        request.withEntity(entity.transformDataBytes(Flow[ByteString].watchTermination() { (_, done) =>
+          done.failed.foreach(_ => cancellation.cancel(Cancelled))(ExecutionContext.parasitic)
+        }))
+    }
+
+  /**
+   * @param deadline the deadline of the call or null if it has none
+   * @param trailer the trailer to end the response with when the deadline passes, null if there is no deadline
+   */
+  private def trackResponse(
+      response: HttpResponse,
+      cancellation: CallCancellation,
+      deadline: GrpcDeadline,
+      trailer: ChunkStreamPart): HttpResponse =
+    response.entity match {
+      case HttpEntity.Chunked(contentType, chunks) =>
+        response.withEntity(
+          HttpEntity.Chunked(contentType, chunks.via(new ResponseStage(cancellation, deadline, trailer))))
+      case _ => response
+    }
+
+  /**
+   * Passes the parts of a response, triggers the cancellation if the response is cancelled because the client reset
+   * the call and, if there is a deadline, cancels upstream once it passed and ends the response with the given
+   * trailer.
+   */
+  private final class ResponseStage(cancellation: CallCancellation, deadline: GrpcDeadline, trailer: ChunkStreamPart)
+      extends GraphStage[FlowShape[ChunkStreamPart, ChunkStreamPart]] {
+    val in = Inlet[ChunkStreamPart]("ServerDeadline.in")
+    val out = Outlet[ChunkStreamPart]("ServerDeadline.out")
+    override val shape: FlowShape[ChunkStreamPart, ChunkStreamPart] = FlowShape(in, out)
+
+    override protected def initialAttributes: Attributes = Attributes.name("grpcServerDeadline")
+
+    override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+      new TimerGraphStageLogic(shape) with InHandler with OutHandler {
+        override def preStart(): Unit =
+          if (deadline ne null) {
+            val timeLeft = deadline.timeLeft
+            scheduleOnce(DeadlineTimer, if (timeLeft > Duration.Zero) timeLeft else Duration.Zero)
+          }
+
+        override def onPush(): Unit = {
+          val part = grab(in)
+          if (part.isLastChunk) cancelTimer(DeadlineTimer)
+          push(out, part)
+        }
+
+        override def onPull(): Unit = pull(in)
+
+        override def onDownstreamFinish(cause: Throwable): Unit = {
+          cancellation.cancel(Cancelled)
+          super.onDownstreamFinish(cause)
+        }
+
+        override protected def onTimer(timerKey: Any): Unit = {
+          cancellation.cancel(DeadlineExceeded)
+          cancel(in)
+          emit(out, trailer, () => completeStage())
+        }
+
+        setHandlers(in, out, this)
+      }
+
+    private case object DeadlineTimer
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.{ LinkedHashMap => JLinkedHashMap }
+import java.util.concurrent.atomic.AtomicLong
+
+import akka.actor.ClassicActorSystemProvider
+import akka.annotation.InternalApi
+import akka.http.scaladsl.model.{ AttributeKeys, HttpEntity, HttpMethods, HttpRequest, HttpResponse, StatusCodes }
+import akka.http.scaladsl.settings.ServerSettings
+import akka.stream.SystemMaterializer
+import akka.util.{ ByteString, Helpers }
+
+import scala.concurrent.{ ExecutionContext, Future }
+import scala.concurrent.duration._
+
+/**
+ * INTERNAL API
+ *
+ * Caches the complete responses of unary calls to the given methods, keyed on the path, the content type, the
+ * encoding headers, the values of the key headers and the raw bytes of the request. Any other metadata is not part of
+ * the key, so a cached response is shared between all callers of the method. Requests carrying an `authorization`
+ * header are never cached, unless `authorization` is one of the key headers. Unary responses are produced by
+ * `GrpcProtocolWriter.encodeDataToResponse` as a strict entity holding the framed (and possibly compressed) message
+ * with the trailer as an attribute, so a hit can be served as is without invoking the implementation or the
+ * serializer.
+ *
+ * Only successful responses of the native gRPC protocol are cached. The cache is bounded by the total number of
+ * request and response bytes, evicting the least recently used entries first.
+ *
+ * @param requestTimeout how long to wait for the request entity of a cacheable call, None for the request timeout
+ *                       of the Akka HTTP server
+ * @param keyHeaders the names of the request headers whose values are part of the cache key
+ */
+@InternalApi
+private[akka] final class ServerResponseCache(
+    cacheableMethods: Set[String],
+    maxBytes: Long,
+    timeToLive: FiniteDuration,
+    requestTimeout: Option[FiniteDuration] = None,
+    keyHeaders: Set[String] = Set.empty,
+    clock: () => Long = () => System.nanoTime()) {
+  import ServerResponseCache._
+
+  require(maxBytes > 0, s"maxBytes must be positive, was [$maxBytes]")
+  require(timeToLive > Duration.Zero, s"timeToLive must be positive, was [$timeToLive]")
+  require(requestTimeout.forall(_ > Duration.Zero), s"requestTimeout must be positive, was [$requestTimeout]")
+
+  private val keyHeaderNames = keyHeaders.map(Helpers.toRootLowerCase)
+  private val cachesAuthorized = keyHeaderNames.contains(AuthorizationHeader)
+
+  private val hitCount = new AtomicLong()
+  private val missCount = new AtomicLong()
+  private val evictionCount = new AtomicLong()
+
+  // guarded by cache
+  private val cache = new JLinkedHashMap[CacheKey, CacheEntry](16, 0.75f, true)
+  private var currentBytes = 0L
+
+  def hits: Long = hitCount.get()
+  def misses: Long = missCount.get()
+  def evictions: Long = evictionCount.get()
+  def sizeBytes: Long = cache.synchronized(currentBytes)
+
+  def wrap(handler: HttpRequest => Future[HttpResponse])(
+      implicit system: ClassicActorSystemProvider): HttpRequest => Future[HttpResponse] = {
+    val mat = SystemMaterializer(system).materializer
+    val toStrictTimeout = requestTimeout.getOrElse {
+      ServerSettings(system.classicSystem).timeouts.requestTimeout match {
+        case finite: FiniteDuration => finite
+        case _                      => DefaultRequestTimeout
+      }
+    }
+
+    { request =>
+      if (request.method != HttpMethods.POST || !cacheableMethods.contains(methodName(request)) ||
+        (!cachesAuthorized && request.headers.exists(_.lowercaseName == AuthorizationHeader))) handler(request)
+      else
+        request.entity
+          .toStrict(toStrictTimeout)(mat)
+          .flatMap { strict =>
+            val key = CacheKey(
+              request.uri.path.toString,
+              strict.contentType.toString,
+              request.headers.collect {
+                case h if EncodingHeaders.contains(h.lowercaseName) => h.value
+              },
+              keyEntries(request),
+              strict.data)
+            lookup(key) match {
+              case Some(response) =>
+                hitCount.incrementAndGet()
+                Future.successful(response)
+              case None =>
+                missCount.incrementAndGet()
+                val result = handler(request.withEntity(strict))
+                result.foreach(response => if (isCacheable(response)) store(key, response))(ExecutionContext.parasitic)
+                result
+            }
+          }(ExecutionContext.parasitic)
+    }
+  }
+
+  // stable sort, so repeated headers keep their order
+  private def keyEntries(request: HttpRequest): Seq[(String, String)] =
+    if (keyHeaderNames.isEmpty) Nil
+    else
+      request.headers.collect {
+        case h if keyHeaderNames.contains(h.lowercaseName) => h.lowercaseName -> h.value
+      }.sortBy(_._1)
+
+  private def methodName(request: HttpRequest): String = {
+    val path = request.uri.path.toString
+    if (path.startsWith("/")) path.substring(1) else path
+  }
+
+  private def lookup(key: CacheKey): Option[HttpResponse] = cache.synchronized {
+    cache.get(key) match {
+      case null => None
+      case entry if entry.expiresAtNanos - clock() > 0 => Some(entry.response)
+      case entry =>
+        cache.remove(key)
+        currentBytes -= entry.sizeBytes
+        None
+    }
+  }
+
+  private def store(key: CacheKey, response: HttpResponse): Unit = {
+    val size = key.requestBytes.size.toLong + response.entity.asInstanceOf[HttpEntity.Strict].data.size
+    if (size <= maxBytes) cache.synchronized {
+      val previous = cache.put(key, CacheEntry(response, size, clock() + timeToLive.toNanos))
+      if (previous ne null) currentBytes -= previous.sizeBytes
+      currentBytes += size
+      val eldest = cache.values().iterator()
+      while (currentBytes > maxBytes && eldest.hasNext) {
+        currentBytes -= eldest.next().sizeBytes
+        eldest.remove()
+        evictionCount.incrementAndGet()
+      }
+    }
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object ServerResponseCache {
+  // when the server request timeout is infinite
+  private val DefaultRequestTimeout = 20.seconds
+  private val EncodingHeaders = Set("grpc-encoding", "grpc-accept-encoding")
+  private val AuthorizationHeader = "authorization"
+
+  private final case class CacheKey(
+      path: String,
+      contentType: String,
+      encodings: Seq[String],
+      headers: Seq[(String, String)],
+      requestBytes: ByteString)
+  private final case class CacheEntry(response: HttpResponse, sizeBytes: Long, expiresAtNanos: Long)
+
+  private def isCacheable(response: HttpResponse): Boolean =
+    response.status == StatusCodes.OK && response.entity.isInstanceOf[HttpEntity.Strict] &&
+    response.attribute(AttributeKeys.trailer).exists(_.headers.exists {
+      case (name, value) => name == "grpc-status" && value == "0"
+    })
+}
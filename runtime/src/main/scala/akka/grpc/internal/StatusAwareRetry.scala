@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import akka.actor.ClassicActorSystemProvider
+import akka.annotation.InternalApi
+import akka.grpc.{ GrpcClientSettings, GrpcRetryPolicy, GrpcServiceException }
+import io.grpc.{ Status, StatusException, StatusRuntimeException }
+
+import scala.annotation.tailrec
+import scala.concurrent.{ ExecutionContext, Future }
+import scala.concurrent.duration._
+import scala.util.{ Failure, Success }
+
+/**
+ * INTERNAL API
+ *
+ * Token bucket limiting the retries of all calls on a channel, with the same semantics as `retryThrottling` in the
+ * gRPC service config: every retryable failure takes one token, every successful call adds `tokenRatio` tokens and
+ * retries are only allowed while more than half of `maxTokens` are available.
+ */
+@InternalApi
+private[akka] final class RetryBudget(maxTokens: Int, tokenRatio: Double) {
+  require(maxTokens > 0, s"maxTokens must be positive, was [$maxTokens]")
+  require(tokenRatio > 0, s"tokenRatio must be positive, was [$tokenRatio]")
+
+  // tokens are kept multiplied by 1000 to get integer arithmetic for the fractional ratio
+  private val max = maxTokens * 1000
+  private val threshold = max / 2
+  private val ratio = (tokenRatio * 1000).toInt
+  private val tokens = new AtomicInteger(max)
+
+  /**
+   * @return true if there are enough tokens left to retry after taking one for this failure
+   */
+  @tailrec
+  def recordRetryableFailure(): Boolean = {
+    val current = tokens.get()
+    val updated = math.max(current - 1000, 0)
+    if (tokens.compareAndSet(current, updated)) updated > threshold
+    else recordRetryableFailure()
+  }
+
+  @tailrec
+  def recordSuccess(): Unit = {
+    val current = tokens.get()
+    if (current < max) {
+      val updated = math.min(current + ratio, max)
+      if (!tokens.compareAndSet(current, updated)) recordSuccess()
+    }
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object RetryBudget {
+  def apply(settings: GrpcClientSettings): Option[RetryBudget] =
+    if (settings.retryBudgetMaxTokens > 0)
+      Some(new RetryBudget(settings.retryBudgetMaxTokens, settings.retryBudgetTokenRatio))
+    else None
+}
+
+/**
+ * INTERNAL API
+ *
+ * Retries a call according to a [[GrpcRetryPolicy]].
+ */
+@InternalApi
+private[akka] object StatusAwareRetry {
+  val RetryPushbackHeader = "grpc-retry-pushback-ms"
+
+  def retry[T](policy: GrpcRetryPolicy, budget: Option[RetryBudget], system: ClassicActorSystemProvider)(
+      attempt: () => Future[T]): Future[T] = {
+    implicit val ec: ExecutionContext = ExecutionContext.parasitic
+    val classicSystem = system.classicSystem
+
+    def attemptFrom(attemptNr: Int): Future[T] =
+      attempt().transformWith {
+        case success @ Success(_) =>
+          budget.foreach(_.recordSuccess())
+          Future.fromTry(success)
+        case failure @ Failure(ex) =>
+          retryDelay(policy, budget, attemptNr, ex) match {
+            case Some(delay) =>
+              akka.pattern.after(delay, classicSystem.scheduler)(attemptFrom(attemptNr + 1))(classicSystem.dispatcher)
+            case None =>
+              Future.fromTry(failure)
+          }
+      }
+
+    attemptFrom(1)
+  }
+
+  /**
+   * @param attemptNr the number of the attempt that failed, starting at 1
+   * @return the delay before the next attempt, or None if the call should not be retried
+   */
+  def retryDelay(
+      policy: GrpcRetryPolicy,
+      budget: Option[RetryBudget],
+      attemptNr: Int,
+      failure: Throwable): Option[FiniteDuration] =
+    statusAndPushback(failure) match {
+      case Some((code, pushback)) if policy.retryableStatusCodes.contains(code) =>
+        // a retryable failure counts against the budget even if there are no attempts left
+        val withinBudget = budget.forall(_.recordRetryableFailure())
+        if (!withinBudget || attemptNr >= policy.maxAttempts) None
+        else
+          pushback match {
+            case None                        => Some(policy.backoff(attemptNr))
+            case Some(millis) if millis >= 0 => Some(millis.millis)
+            case Some(_)                     => None // the server asked for no retry
+          }
+      case _ => None
+    }
+
+  private def statusAndPushback(failure: Throwable): Option[(Status.Code, Option[Long])] =
+    failure match {
+      // before StatusRuntimeException, which it extends, since it may not have raw trailers
+      case ex: GrpcServiceException =>
+        Some((ex.status.getCode, ex.metadata.getText(RetryPushbackHeader).map(parsePushback)))
+      case ex: StatusRuntimeException =>
+        Some((ex.getStatus.getCode, pushbackFrom(ex.getTrailers)))
+      case ex: StatusException =>
+        Some((ex.getStatus.getCode, pushbackFrom(ex.getTrailers)))
+      case _ => None
+    }
+
+  private def pushbackFrom(trailers: io.grpc.Metadata): Option[Long] =
+    if (trailers eq null) None
+    else Option(trailers.get(MetadataImpl.asciiKey(RetryPushbackHeader))).map(parsePushback)
+
+  // a malformed value is treated as negative, meaning no retry, like grpc-java does
+  private def parsePushback(value: String): Long =
+    try value.trim.toLong
+    catch {
+      case _: NumberFormatException => -1L
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import akka.annotation.InternalApi
+import akka.stream.{ Attributes, FlowShape, Inlet, Outlet }
+import akka.stream.stage.{ GraphStage, GraphStageLogic, InHandler, OutHandler, TimerGraphStageLogic }
+
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * INTERNAL API
+ *
+ * The number of elements buffered by a stage between the transport and the stream, updated by the stage owning
+ * the buffer and read by a [[StreamFlowInstrumentation]] fused with it.
+ */
+@InternalApi
+private[akka] final class StreamFlowBuffer {
+  private var maxBuffered = -1
+
+  def recordBuffered(elements: Int): Unit =
+    if (elements > maxBuffered) maxBuffered = elements
+
+  /** @return the max number of buffered elements since the last call, -1 if nothing was recorded */
+  def takeMaxBuffered(): Int = {
+    val result = maxBuffered
+    maxBuffered = -1
+    result
+  }
+}
+
+/**
+ * INTERNAL API
+ *
+ * Pass-through stage measuring where the time of a message stream goes, reported with `TelemetrySpi.onStreamFlow`
+ * every `reportInterval` and when the stream stops:
+ *
+ *  - upstream wait: the time downstream demanded an element that upstream did not provide yet
+ *  - demand wait: the time an element was handed to downstream until downstream demanded the next one
+ *
+ * For an inbound stream a long upstream wait points at the peer or the transport and a long demand wait at the
+ * consumer of the messages, and the other way around for an outbound stream.
+ *
+ * @param context the telemetry context of the call, may return null if the call is not (yet) known
+ * @param buffer the buffer of an adjacent stage to report the occupancy of, or null
+ */
+@InternalApi
+private[akka] final class StreamFlowInstrumentation[T](
+    spi: TelemetrySpi,
+    context: () => AnyRef,
+    outbound: Boolean,
+    reportInterval: FiniteDuration,
+    buffer: StreamFlowBuffer)
+    extends GraphStage[FlowShape[T, T]] {
+  val in = Inlet[T]("StreamFlowInstrumentation.in")
+  val out = Outlet[T]("StreamFlowInstrumentation.out")
+  override val shape: FlowShape[T, T] = FlowShape(in, out)
+
+  override protected def initialAttributes: Attributes = Attributes.name("streamFlowInstrumentation")
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic =
+    new TimerGraphStageLogic(shape) with InHandler with OutHandler {
+      private var elements = 0L
+      private var upstreamWaitNanos = 0L
+      private var demandWaitNanos = 0L
+      // when downstream pulled and upstream did not push yet, 0 if not waiting
+      private var pulledAt = 0L
+      // when an element was pushed and downstream did not pull yet, 0 if not waiting
+      private var pushedAt = 0L
+      private var lastReport = System.nanoTime()
+
+      override def preStart(): Unit =
+        scheduleWithFixedDelay(ReportTimer, reportInterval, reportInterval)
+
+      override def onPull(): Unit = {
+        val now = System.nanoTime()
+        if (pushedAt != 0L) {
+          demandWaitNanos += now - pushedAt
+          pushedAt = 0L
+        }
+        pulledAt = now
+        pull(in)
+      }
+
+      override def onPush(): Unit = {
+        val now = System.nanoTime()
+        if (pulledAt != 0L) {
+          upstreamWaitNanos += now - pulledAt
+          pulledAt = 0L
+        }
+        elements += 1
+        push(out, grab(in))
+        pushedAt = now
+      }
+
+      override protected def onTimer(timerKey: Any): Unit = report()
+
+      override def postStop(): Unit = report()
+
+      private def report(): Unit =
+        context() match {
+          case null =>
+          case ctx =>
+            val now = System.nanoTime()
+            // count the wait in progress up to now, the rest goes into the next interval
+            if (pulledAt != 0L) {
+              upstreamWaitNanos += now - pulledAt
+              pulledAt = now
+            }
+            if (pushedAt != 0L) {
+              demandWaitNanos += now - pushedAt
+              pushedAt = now
+            }
+            val maxBuffered = if (buffer eq null) -1 else buffer.takeMaxBuffered()
+            spi.onStreamFlow(ctx, outbound, elements, upstreamWaitNanos, demandWaitNanos, maxBuffered, now - lastReport)
+            elements = 0L
+            upstreamWaitNanos = 0L
+            demandWaitNanos = 0L
+            lastReport = now
+        }
+
+      setHandlers(in, out, this)
+    }
+
+  private case object ReportTimer
+}
+
+/**
+ * INTERNAL API
+ *
+ * Hands the telemetry context created by the client interceptor to the stages of the same call.
+ */
+@InternalApi
+private[akka] final class TelemetryContextHolder {
+  @volatile var context: AnyRef = null
+}
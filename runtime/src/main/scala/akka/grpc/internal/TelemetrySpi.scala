@@ -14,8 +14,12 @@ import akka.actor.{
 }
 import akka.annotation.{ InternalApi, InternalStableApi }
 import akka.http.javadsl.model.HttpRequest
+import akka.grpc.scaladsl.Metadata
+import io.grpc.Status
 
 import scala.annotation.nowarn
+import scala.collection.immutable
+import scala.concurrent.duration.FiniteDuration
 
 /** INTERNAL API */
 @InternalStableApi
@@ -35,7 +39,15 @@ object TelemetryExtension extends ExtensionId[TelemetryExtensionImpl] with Exten
 
 private[internal] object TelemetrySpi {
   private val ConfigKey = "akka.grpc.telemetry-class"
+  private val MetricsEnabledKey = "akka.grpc.metrics.enabled"
+
   def apply(system: ClassicActorSystemProvider): TelemetrySpi = {
+    val configured = configuredTelemetry(system)
+    if (system.classicSystem.settings.config.getBoolean(MetricsEnabledKey)) new MetricsTelemetry(configured)
+    else configured
+  }
+
+  private def configuredTelemetry(system: ClassicActorSystemProvider): TelemetrySpi = {
     if (!system.classicSystem.settings.config.hasPath(ConfigKey)) NoOpTelemetry
     else {
       val fqcn = system.classicSystem.settings.config.getString(ConfigKey)
@@ -61,6 +73,90 @@ private[internal] object TelemetrySpi {
 trait TelemetrySpi {
   @nowarn
   def onRequest[T <: HttpRequest](prefix: String, method: String, request: T): T = request
+
+  /**
+   * Called when a call starts, on the server for calls using the native gRPC protocol (not gRPC-Web) and on the
+   * client for calls made with either backend.
+   *
+   * @param client true for calls made by a client, false for calls handled by a server
+   * @param service the full service name (or the prefix the service is served under)
+   * @return a context that is passed to the other hooks for the same call, or null to not track the call any further,
+   *         which is what the default implementation does so that calls are not instrumented at all
+   */
+  @nowarn
+  def onCallStart(client: Boolean, service: String, method: String): AnyRef = null
+
+  /**
+   * Called instead of `onCallStart` when a call starts on the server, with the request headers, for example to
+   * continue a trace propagated by the client. Defaults to `onCallStart`.
+   */
+  def onServerCallStart(service: String, method: String, headers: Metadata): AnyRef =
+    onCallStart(client = false, service, method)
+
+  /**
+   * Called around the invocation of the server handler for a call, for example to make the trace context of the call
+   * current so that calls the handler makes are part of the same trace. Only the code the handler runs on the calling
+   * thread is inside the scope. Defaults to just invoking the handler.
+   *
+   * @param context the context returned by `onServerCallStart`
+   */
+  def inServerCallScope[T](context: AnyRef)(handle: () => T): T = handle()
+
+  /**
+   * Called right after `onCallStart` for calls made by a client, the returned headers are added to the request, for
+   * example to propagate a trace to the server.
+   */
+  @nowarn
+  def clientCallHeaders(context: AnyRef): immutable.Seq[(String, String)] = Nil
+
+  /**
+   * Called for every message received in a call, with the size of the serialized message. May be called from
+   * different threads for the same call, but never concurrently.
+   */
+  @nowarn
+  def onMessageReceived(context: AnyRef, sizeBytes: Int): Unit = ()
+
+  /**
+   * Called for every message sent in a call, with the size of the serialized message. May be called concurrently
+   * with `onMessageReceived` for the same call.
+   */
+  @nowarn
+  def onMessageSent(context: AnyRef, sizeBytes: Int): Unit = ()
+
+  /**
+   * Called once when a call completes, with the final status and the time since `onCallStart`.
+   */
+  @nowarn
+  def onCallEnd(context: AnyRef, status: Status, durationNanos: Long): Unit = ()
+
+  /**
+   * How often `onStreamFlow` is called for the message streams of a call, None (the default) to not instrument the
+   * message streams. Only streamed messages are instrumented, not those of unary calls.
+   */
+  def streamFlowReportInterval: Option[FiniteDuration] = None
+
+  /**
+   * Called every `streamFlowReportInterval` and when a message stream completes, with what happened since the
+   * previous call, to find out where the backpressure in a streaming call comes from.
+   *
+   * @param outbound true for the messages sent, false for the messages received
+   * @param elements the number of stream elements passed, which may be chunks of bytes rather than messages
+   * @param upstreamWaitNanos the time the stream waited for the producer of the messages (the peer or the transport
+   *                          for received messages, the application for sent messages)
+   * @param demandWaitNanos the time the stream waited for the consumer of the messages (the application for
+   *                        received messages, the peer or the transport for sent messages)
+   * @param maxBuffered the max number of messages buffered between the transport and the stream, -1 if not known
+   * @param intervalNanos the time since the previous call for the same stream
+   */
+  @nowarn
+  def onStreamFlow(
+      context: AnyRef,
+      outbound: Boolean,
+      elements: Long,
+      upstreamWaitNanos: Long,
+      demandWaitNanos: Long,
+      maxBuffered: Int,
+      intervalNanos: Long): Unit = ()
 }
 
 @InternalApi
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.net.SocketAddress
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.{ List => JList, Map => JMap }
+
+import akka.annotation.InternalApi
+import io.grpc.{
+  ConnectivityState,
+  ConnectivityStateInfo,
+  EquivalentAddressGroup,
+  LoadBalancer,
+  LoadBalancerProvider,
+  LoadBalancerRegistry,
+  NameResolver,
+  Status
+}
+import io.grpc.LoadBalancer.{ CreateSubchannelArgs, PickResult, PickSubchannelArgs, Subchannel, SubchannelPicker }
+
+import scala.annotation.tailrec
+import scala.jdk.CollectionConverters._
+
+/**
+ * INTERNAL API
+ *
+ * A load balancer connecting to all targets that, as long as any target in the local zone is ready, only picks
+ * targets in the local zone, and otherwise any ready target. Picks are spread over the targets with a smooth weighted
+ * round robin. The zone and weight of a target come from the attributes of its address group, see
+ * [[AkkaDiscoveryNameResolver.ZoneKey]] and [[AkkaDiscoveryNameResolver.WeightKey]].
+ *
+ * All methods are called from the synchronization context of the channel, so no synchronization is needed.
+ */
+@InternalApi
+private[akka] final class ZoneAwareWeightedLoadBalancer(helper: LoadBalancer.Helper) extends LoadBalancer {
+  import ZoneAwareWeightedLoadBalancer._
+
+  private var localZone: Option[String] = None
+  private var targets = Map.empty[JList[SocketAddress], Target]
+
+  override def acceptResolvedAddresses(resolvedAddresses: LoadBalancer.ResolvedAddresses): Status = {
+    // a target listed twice would get a second subchannel that is never shut down
+    val groups = resolvedAddresses.getAddresses.asScala.distinctBy(_.getAddresses)
+    if (groups.isEmpty) {
+      val status = Status.UNAVAILABLE.withDescription("Name resolution returned no addresses")
+      handleNameResolutionError(status)
+      status
+    } else {
+      localZone = resolvedAddresses.getLoadBalancingPolicyConfig match {
+        case config: Config => config.localZone
+        case _              => None
+      }
+      val updated = groups.map { group =>
+        val target = targets.get(group.getAddresses) match {
+          case Some(existing) =>
+            existing.subchannel.updateAddresses(JList.of(group))
+            existing
+          case None => createTarget(group)
+        }
+        target.zone = Option(group.getAttributes.get(AkkaDiscoveryNameResolver.ZoneKey))
+        target.weight = Option(group.getAttributes.get(AkkaDiscoveryNameResolver.WeightKey)).fold(1)(_.intValue)
+        group.getAddresses -> target
+      }.toMap
+      targets.foreach {
+        case (addresses, target) => if (!updated.contains(addresses)) target.subchannel.shutdown()
+      }
+      targets = updated
+      updateBalancingState()
+      Status.OK
+    }
+  }
+
+  private def createTarget(group: EquivalentAddressGroup): Target = {
+    val subchannel = helper.createSubchannel(CreateSubchannelArgs.newBuilder().setAddresses(group).build())
+    val target = new Target(subchannel)
+    subchannel.start { stateInfo =>
+      // ignore updates for targets that were removed in the meantime
+      if (targets.get(group.getAddresses).exists(_ eq target)) {
+        target.state = stateInfo
+        stateInfo.getState match {
+          case ConnectivityState.IDLE =>
+            helper.refreshNameResolution()
+            subchannel.requestConnection()
+          case ConnectivityState.TRANSIENT_FAILURE =>
+            // the target may have moved, like the round robin policy of grpc-java
+            helper.refreshNameResolution()
+          case _ =>
+        }
+        updateBalancingState()
+      }
+    }
+    subchannel.requestConnection()
+    target
+  }
+
+  private def updateBalancingState(): Unit = {
+    val ready = targets.values.filter(_.state.getState == ConnectivityState.READY).toVector
+    if (ready.nonEmpty) {
+      val picked = preferLocalZone(ready, localZone)(_.zone)
+      helper.updateBalancingState(
+        ConnectivityState.READY,
+        new WeightedRoundRobinPicker(schedule(picked.map(_.weight)).map(picked(_).subchannel)))
+    } else if (targets.values.exists(t =>
+        t.state.getState == ConnectivityState.CONNECTING || t.state.getState == ConnectivityState.IDLE))
+      helper.updateBalancingState(ConnectivityState.CONNECTING, new FixedPicker(PickResult.withNoResult()))
+    else {
+      val status = targets.values.map(_.state.getStatus).find(!_.isOk).getOrElse(Status.UNAVAILABLE)
+      helper.updateBalancingState(ConnectivityState.TRANSIENT_FAILURE, new FixedPicker(PickResult.withError(status)))
+    }
+  }
+
+  override def handleNameResolutionError(error: Status): Unit =
+    if (!targets.values.exists(_.state.getState == ConnectivityState.READY))
+      helper.updateBalancingState(ConnectivityState.TRANSIENT_FAILURE, new FixedPicker(PickResult.withError(error)))
+
+  override def requestConnection(): Unit =
+    targets.values.foreach(_.subchannel.requestConnection())
+
+  override def shutdown(): Unit = {
+    targets.values.foreach(_.subchannel.shutdown())
+    targets = Map.empty
+  }
+}
+
+/**
+ * INTERNAL API
+ */
+@InternalApi
+private[akka] object ZoneAwareWeightedLoadBalancer {
+  val PolicyName = "zone_aware_weighted_round_robin"
+
+  final case class Config(localZone: Option[String])
+
+  private final class Target(val subchannel: Subchannel) {
+    var zone: Option[String] = None
+    var weight: Int = 1
+    var state: ConnectivityStateInfo = ConnectivityStateInfo.forNonError(ConnectivityState.CONNECTING)
+  }
+
+  /**
+   * The targets in the local zone if there are any, otherwise all targets
+   */
+  def preferLocalZone[T](targets: Vector[T], localZone: Option[String])(zone: T => Option[String]): Vector[T] =
+    localZone match {
+      case Some(_) =>
+        val local = targets.filter(zone(_) == localZone)
+        if (local.nonEmpty) local else targets
+      case None => targets
+    }
+
+  /**
+   * The order in which the targets with the given weights are picked, spreading the picks of each target as evenly
+   * as possible over the schedule, with the smooth weighted round robin of nginx. The weights are divided by their
+   * greatest common divisor to keep the schedule short.
+   *
+   * @return the indices of the targets, one cycle of the schedule
+   */
+  def schedule(weights: Vector[Int]): Vector[Int] = {
+    @tailrec def gcd(a: Int, b: Int): Int = if (b == 0) a else gcd(b, a % b)
+    val divisor = weights.foldLeft(0)(gcd)
+    val normalized = weights.map(_ / divisor).toArray
+    val total = normalized.sum
+    val current = new Array[Int](normalized.length)
+    Vector.fill(total) {
+      var best = 0
+      var i = 0
+      while (i < normalized.length) {
+        current(i) += normalized(i)
+        if (current(i) > current(best)) best = i
+        i += 1
+      }
+      current(best) -= total
+      best
+    }
+  }
+
+  private final class WeightedRoundRobinPicker(schedule: Vector[Subchannel]) extends SubchannelPicker {
+    // start at a random position so that all clients do not pick the same target first
+    private val next = new AtomicInteger(ThreadLocalRandom.current().nextInt(schedule.size))
+
+    override def pickSubchannel(args: PickSubchannelArgs): PickResult =
+      PickResult.withSubchannel(schedule(Math.floorMod(next.getAndIncrement(), schedule.size)))
+  }
+
+  private final class FixedPicker(result: PickResult) extends SubchannelPicker {
+    override def pickSubchannel(args: PickSubchannelArgs): PickResult = result
+  }
+
+  final class Provider extends LoadBalancerProvider {
+    override def isAvailable: Boolean = true
+    override def getPriority: Int = 5
+    override def getPolicyName: String = PolicyName
+    override def newLoadBalancer(helper: LoadBalancer.Helper): LoadBalancer = new ZoneAwareWeightedLoadBalancer(helper)
+
+    override def parseLoadBalancingPolicyConfig(rawConfig: JMap[String, _]): NameResolver.ConfigOrError =
+      NameResolver.ConfigOrError.fromConfig(Config(rawConfig.get("localZone") match {
+        case zone: String if zone.nonEmpty => Some(zone)
+        case _                             => None
+      }))
+  }
+
+  private lazy val registered: Unit = LoadBalancerRegistry.getDefaultRegistry.register(new Provider)
+
+  /**
+   * Register the policy in the default registry of grpc-java, if not registered yet
+   */
+  def register(): Unit = registered
+}
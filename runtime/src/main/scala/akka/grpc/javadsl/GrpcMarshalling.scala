@@ -9,6 +9,7 @@ import java.util.Optional
 import akka.NotUsed
 import akka.actor.ActorSystem
 import akka.actor.ClassicActorSystemProvider
+import akka.annotation.{ ApiMayChange, InternalApi }
 import akka.grpc._
 import akka.grpc.internal._
 import akka.grpc.GrpcProtocol.{ GrpcProtocolReader, GrpcProtocolWriter }
@@ -18,6 +19,7 @@ import akka.stream.Materializer
 import akka.stream.javadsl.Source
 import akka.util.ByteString
 
+import scala.concurrent.{ ExecutionContext, Future }
 import scala.util.control.NonFatal
 
 object GrpcMarshalling {
@@ -77,6 +79,65 @@ object GrpcMarshalling {
       reader: GrpcProtocolReader): CompletionStage[Source[T, NotUsed]] =
     unmarshalStream(entity.getDataBytes, u, mat, reader)
 
+  /**
+   * Deserializes up to `parallelism` messages in parallel on the execution context of the materializer, keeping
+   * their order, for large messages where deserializing on the single thread of the stream is the bottleneck.
+   */
+  @ApiMayChange
+  def unmarshalStream[T](
+      data: Source[ByteString, AnyRef],
+      u: ProtobufSerializer[T],
+      mat: Materializer,
+      reader: GrpcProtocolReader,
+      parallelism: Int): CompletionStage[Source[T, NotUsed]] =
+    if (parallelism <= 1) unmarshalStream(data, u, mat, reader)
+    else {
+      implicit val ec: ExecutionContext = mat.executionContext
+      CompletableFuture.completedFuture[Source[T, NotUsed]](
+        data.asScala
+          .mapMaterializedValue(_ => NotUsed)
+          .via(reader.dataFrameDecoder)
+          .mapAsync(parallelism)(bytes => Future(u.deserialize(bytes)))
+          // In gRPC we signal failure by returning an error code, so we
+          // don't want the cancellation bubbled out
+          .via(new CancellationBarrierGraphStage)
+          .asJava)
+    }
+
+  /**
+   * Deserializes up to `parallelism` messages in parallel on the execution context of the materializer, keeping
+   * their order, for large messages where deserializing on the single thread of the stream is the bottleneck.
+   */
+  @ApiMayChange
+  def unmarshalStream[T](
+      entity: HttpEntity,
+      u: ProtobufSerializer[T],
+      mat: Materializer,
+      reader: GrpcProtocolReader,
+      parallelism: Int): CompletionStage[Source[T, NotUsed]] =
+    unmarshalStream(entity.getDataBytes, u, mat, reader, parallelism)
+
+  /**
+   * INTERNAL API
+   *
+   * For generated handlers, with the parallelism configured for the method in
+   * `akka.grpc.server.unmarshal-stream-parallelism`.
+   */
+  @InternalApi
+  def unmarshalStream[T](
+      entity: HttpEntity,
+      u: ProtobufSerializer[T],
+      mat: Materializer,
+      reader: GrpcProtocolReader,
+      service: String,
+      method: String): CompletionStage[Source[T, NotUsed]] =
+    unmarshalStream(
+      entity.getDataBytes,
+      u,
+      mat,
+      reader,
+      MarshallingSettings(mat.system).unmarshalStreamParallelism(service, method))
+
   def marshal[T](
       e: T,
       m: ProtobufSerializer[T],
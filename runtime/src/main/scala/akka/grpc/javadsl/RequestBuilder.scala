@@ -8,10 +8,11 @@ import java.time.Duration
 import java.util.concurrent.CompletionStage
 import akka.NotUsed
 import akka.annotation.{ ApiMayChange, DoNotInherit }
-import akka.grpc.{ GrpcResponseMetadata, GrpcSingleResponse }
+import akka.grpc.{ GrpcResponseMetadata, GrpcRetryPolicy, GrpcSingleResponse }
 import akka.pattern.RetrySettings
 import akka.stream.javadsl.Source
 import akka.util.ByteString
+import io.grpc.Status
 
 /**
  * Request builder for requests providing per call specific metadata capabilities in
@@ -67,6 +68,41 @@ trait SingleResponseRequestBuilder[Req, Res] {
    * @param maxRetries The number of retries to make
    */
   def withRetry(maxRetries: Int): SingleResponseRequestBuilder[Req, Res]
+
+  /**
+   * Retry calls failing with one of the status codes of the retry policy, honouring the `grpc-retry-pushback-ms`
+   * trailer sent by the server and the retry budget of the channel, if configured in the [[GrpcClientSettings]].
+   * Replaces any retry or hedging settings configured on this request builder.
+   */
+  def withRetry(retryPolicy: GrpcRetryPolicy): SingleResponseRequestBuilder[Req, Res]
+
+  /**
+   * Hedge the call: if no response arrived after `hedgingDelay` an additional attempt is sent, possibly to a different
+   * backend, up to `maxAttempts` attempts in total. The first successful response is used and the other attempts are
+   * cancelled. An attempt that fails with status `UNAVAILABLE` immediately triggers the next attempt, any other
+   * status fails the call and cancels the other attempts.
+   *
+   * Only use hedging for idempotent calls since the server may receive the same request more than once.
+   * Hedging replaces any retry settings configured on this request builder and vice versa. Hedging is only supported
+   * for unary calls, client streaming request builders throw `UnsupportedOperationException`.
+   *
+   * So that the attempts that lost can be cancelled, they are sent as streaming calls, bypassing the response cache
+   * and request coalescing of the client. A circuit breaker counts every attempt that completes as a call, but not
+   * the cancelled attempts.
+   *
+   * @param maxAttempts The maximum number of attempts, including the first one
+   * @param hedgingDelay The delay between starting attempts
+   */
+  def withHedging(maxAttempts: Int, hedgingDelay: Duration): SingleResponseRequestBuilder[Req, Res]
+
+  /**
+   * Hedge the call like `withHedging(maxAttempts, hedgingDelay)`, with the status codes for which a failed attempt
+   * triggers the next attempt instead of failing the call.
+   */
+  def withHedging(
+      maxAttempts: Int,
+      hedgingDelay: Duration,
+      nonFatalStatusCodes: java.util.Set[Status.Code]): SingleResponseRequestBuilder[Req, Res]
 }
 
 /**
@@ -136,6 +172,41 @@ trait SingleBlockingResponseRequestBuilder[Req, Res] {
    * @param maxRetries The number of retries to make
    */
   def withRetry(maxRetries: Int): SingleBlockingResponseRequestBuilder[Req, Res]
+
+  /**
+   * Retry calls failing with one of the status codes of the retry policy, honouring the `grpc-retry-pushback-ms`
+   * trailer sent by the server and the retry budget of the channel, if configured in the [[GrpcClientSettings]].
+   * Replaces any retry or hedging settings configured on this request builder.
+   */
+  def withRetry(retryPolicy: GrpcRetryPolicy): SingleBlockingResponseRequestBuilder[Req, Res]
+
+  /**
+   * Hedge the call: if no response arrived after `hedgingDelay` an additional attempt is sent, possibly to a different
+   * backend, up to `maxAttempts` attempts in total. The first successful response is used and the other attempts are
+   * cancelled. An attempt that fails with status `UNAVAILABLE` immediately triggers the next attempt, any other
+   * status fails the call and cancels the other attempts.
+   *
+   * Only use hedging for idempotent calls since the server may receive the same request more than once.
+   * Hedging replaces any retry settings configured on this request builder and vice versa. Hedging is only supported
+   * for unary calls, client streaming request builders throw `UnsupportedOperationException`.
+   *
+   * So that the attempts that lost can be cancelled, they are sent as streaming calls, bypassing the response cache
+   * and request coalescing of the client. A circuit breaker counts every attempt that completes as a call, but not
+   * the cancelled attempts.
+   *
+   * @param maxAttempts The maximum number of attempts, including the first one
+   * @param hedgingDelay The delay between starting attempts
+   */
+  def withHedging(maxAttempts: Int, hedgingDelay: Duration): SingleBlockingResponseRequestBuilder[Req, Res]
+
+  /**
+   * Hedge the call like `withHedging(maxAttempts, hedgingDelay)`, with the status codes for which a failed attempt
+   * triggers the next attempt instead of failing the call.
+   */
+  def withHedging(
+      maxAttempts: Int,
+      hedgingDelay: Duration,
+      nonFatalStatusCodes: java.util.Set[Status.Code]): SingleBlockingResponseRequestBuilder[Req, Res]
 }
 
 /**
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.javadsl
+
+import java.util.concurrent.CompletionStage
+
+import akka.actor.ClassicActorSystemProvider
+import akka.annotation.ApiMayChange
+import akka.grpc.internal.ServerResponseCache
+import akka.http.javadsl.model.{ HttpRequest, HttpResponse }
+import akka.http.scaladsl.{ model => sm }
+import akka.japi.function.{ Function => JFunction }
+
+import scala.concurrent.ExecutionContext
+import scala.jdk.CollectionConverters._
+import scala.jdk.DurationConverters._
+import scala.jdk.FutureConverters._
+
+@ApiMayChange
+object ResponseCache {
+
+  /**
+   * A server side cache for the responses of unary calls to the given methods, for example methods marked with
+   * `option idempotency_level = NO_SIDE_EFFECTS`.
+   *
+   * Only the method, the encoding and the request message are part of the cache key, not the other metadata of the
+   * request, so a cached response is served to every caller of the method that sends the same request. Only list
+   * methods whose response does not depend on the caller, or use the overload with key headers. Requests carrying an
+   * `authorization` header are not cached.
+   *
+   * @param cacheableMethods the full names of the methods to cache, for example `helloworld.GreeterService/SayHello`
+   * @param maxBytes the maximum total size of the cached requests and responses
+   * @param timeToLive how long a response is served from the cache
+   */
+  def create(cacheableMethods: java.util.Set[String], maxBytes: Long, timeToLive: java.time.Duration): ResponseCache =
+    new ResponseCache(new ServerResponseCache(cacheableMethods.asScala.toSet, maxBytes, timeToLive.toScala))
+
+  /**
+   * A server side cache like `ResponseCache.create(cacheableMethods, maxBytes, timeToLive)`, waiting at most
+   * `requestTimeout` for the request of a cacheable call to be received, instead of the request timeout of the
+   * Akka HTTP server.
+   */
+  def create(
+      cacheableMethods: java.util.Set[String],
+      maxBytes: Long,
+      timeToLive: java.time.Duration,
+      requestTimeout: java.time.Duration): ResponseCache =
+    new ResponseCache(
+      new ServerResponseCache(
+        cacheableMethods.asScala.toSet,
+        maxBytes,
+        timeToLive.toScala,
+        Some(requestTimeout.toScala)))
+
+  /**
+   * A server side cache like `ResponseCache.create(cacheableMethods, maxBytes, timeToLive, requestTimeout)`, with the
+   * values of the given request headers, for example `x-tenant-id`, as part of the cache key. Requests carrying an
+   * `authorization` header are only cached if `authorization` is one of the key headers.
+   */
+  def create(
+      cacheableMethods: java.util.Set[String],
+      maxBytes: Long,
+      timeToLive: java.time.Duration,
+      requestTimeout: java.time.Duration,
+      keyHeaders: java.util.Set[String]): ResponseCache =
+    new ResponseCache(
+      new ServerResponseCache(
+        cacheableMethods.asScala.toSet,
+        maxBytes,
+        timeToLive.toScala,
+        Some(requestTimeout.toScala),
+        keyHeaders.asScala.toSet))
+}
+
+/**
+ * Caches the already serialized responses of successful unary calls, keyed on the method, the raw request bytes and
+ * the values of the configured key headers, so that identical requests are served without invoking the service
+ * implementation. The least recently used
+ * responses are evicted first.
+ */
+@ApiMayChange
+final class ResponseCache private (cache: ServerResponseCache) {
+
+  /**
+   * Wrap a handler, for example one created with `ServiceHandler.concatOrNotFound`, to serve cacheable calls from
+   * this cache.
+   */
+  def wrap(
+      handler: JFunction[HttpRequest, CompletionStage[HttpResponse]],
+      system: ClassicActorSystemProvider): JFunction[HttpRequest, CompletionStage[HttpResponse]] = {
+    val wrapped = cache.wrap { (request: sm.HttpRequest) =>
+      handler(request).asScala.map(_.asInstanceOf[sm.HttpResponse])(ExecutionContext.parasitic)
+    }(system)
+    (request: HttpRequest) =>
+      wrapped(request.asInstanceOf[sm.HttpRequest])
+        .map(response => response: HttpResponse)(ExecutionContext.parasitic)
+        .asJava
+  }
+
+  /** The number of calls served from the cache */
+  def hits: Long = cache.hits
+
+  /** The number of cacheable calls that were not in the cache */
+  def misses: Long = cache.misses
+
+  /** The number of responses evicted to stay within the size bound */
+  def evictions: Long = cache.evictions
+
+  /** The current total size of the cached requests and responses */
+  def sizeBytes: Long = cache.sizeBytes
+}
@@ -6,13 +6,13 @@ package akka.grpc.scaladsl
 
 import io.grpc.Status
 
-import scala.concurrent.Future
+import scala.concurrent.{ ExecutionContext, Future }
 import scala.util.{ Failure, Success, Try }
 
 import akka.NotUsed
 import akka.actor.ActorSystem
 import akka.actor.ClassicActorSystemProvider
-import akka.annotation.InternalApi
+import akka.annotation.{ ApiMayChange, InternalApi }
 import akka.grpc._
 import akka.grpc.GrpcProtocol.{ GrpcProtocolReader, GrpcProtocolWriter }
 import akka.grpc.internal._
@@ -80,6 +80,52 @@ object GrpcMarshalling {
       reader: GrpcProtocolReader): Future[Source[T, NotUsed]] =
     unmarshalStream(entity.dataBytes)
 
+  /**
+   * Deserializes up to `parallelism` messages in parallel on the execution context of the materializer, keeping
+   * their order, for large messages where deserializing on the single thread of the stream is the bottleneck.
+   */
+  @ApiMayChange
+  def unmarshalStream[T](data: Source[ByteString, Any], parallelism: Int)(
+      implicit u: ProtobufSerializer[T],
+      mat: Materializer,
+      reader: GrpcProtocolReader): Future[Source[T, NotUsed]] =
+    if (parallelism <= 1) unmarshalStream(data)
+    else {
+      implicit val ec: ExecutionContext = mat.executionContext
+      Future.successful(
+        data
+          .mapMaterializedValue(_ => NotUsed)
+          .via(reader.dataFrameDecoder)
+          .mapAsync(parallelism)(bytes => Future(u.deserialize(bytes)))
+          // In gRPC we signal failure by returning an error code, so we
+          // don't want the cancellation bubbled out
+          .via(new CancellationBarrierGraphStage))
+    }
+
+  /**
+   * Deserializes up to `parallelism` messages in parallel on the execution context of the materializer, keeping
+   * their order, for large messages where deserializing on the single thread of the stream is the bottleneck.
+   */
+  @ApiMayChange
+  def unmarshalStream[T](entity: HttpEntity, parallelism: Int)(
+      implicit u: ProtobufSerializer[T],
+      mat: Materializer,
+      reader: GrpcProtocolReader): Future[Source[T, NotUsed]] =
+    unmarshalStream(entity.dataBytes, parallelism)
+
+  /**
+   * INTERNAL API
+   *
+   * For generated handlers, with the parallelism configured for the method in
+   * `akka.grpc.server.unmarshal-stream-parallelism`.
+   */
+  @InternalApi
+  def unmarshalStream[T](entity: HttpEntity, service: String, method: String)(
+      implicit u: ProtobufSerializer[T],
+      mat: Materializer,
+      reader: GrpcProtocolReader): Future[Source[T, NotUsed]] =
+    unmarshalStream(entity.dataBytes, MarshallingSettings(mat.system).unmarshalStreamParallelism(service, method))
+
   def marshal[T](
       e: T = Identity,
       eHandler: ActorSystem => PartialFunction[Throwable, Trailers] = GrpcExceptionHandler.defaultMapper)(
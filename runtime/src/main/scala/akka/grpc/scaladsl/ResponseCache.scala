@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.scaladsl
+
+import akka.actor.ClassicActorSystemProvider
+import akka.annotation.ApiMayChange
+import akka.grpc.internal.ServerResponseCache
+import akka.http.scaladsl.model.{ HttpRequest, HttpResponse }
+
+import scala.concurrent.Future
+import scala.concurrent.duration.FiniteDuration
+
+@ApiMayChange
+object ResponseCache {
+
+  /**
+   * A server side cache for the responses of unary calls to the given methods, for example methods marked with
+   * `option idempotency_level = NO_SIDE_EFFECTS`.
+   *
+   * Only the method, the encoding and the request message are part of the cache key, not the other metadata of the
+   * request, so a cached response is served to every caller of the method that sends the same request. Only list
+   * methods whose response does not depend on the caller, or use the overload with key headers. Requests carrying an
+   * `authorization` header are not cached.
+   *
+   * @param cacheableMethods the full names of the methods to cache, for example `helloworld.GreeterService/SayHello`
+   * @param maxBytes the maximum total size of the cached requests and responses
+   * @param timeToLive how long a response is served from the cache
+   */
+  def apply(cacheableMethods: Set[String], maxBytes: Long, timeToLive: FiniteDuration): ResponseCache =
+    new ResponseCache(new ServerResponseCache(cacheableMethods, maxBytes, timeToLive))
+
+  /**
+   * A server side cache like `ResponseCache(cacheableMethods, maxBytes, timeToLive)`, waiting at most
+   * `requestTimeout` for the request of a cacheable call to be received, instead of the request timeout of the
+   * Akka HTTP server.
+   */
+  def apply(
+      cacheableMethods: Set[String],
+      maxBytes: Long,
+      timeToLive: FiniteDuration,
+      requestTimeout: FiniteDuration): ResponseCache =
+    new ResponseCache(new ServerResponseCache(cacheableMethods, maxBytes, timeToLive, Some(requestTimeout)))
+
+  /**
+   * A server side cache like `ResponseCache(cacheableMethods, maxBytes, timeToLive, requestTimeout)`, with the values
+   * of the given request headers, for example `x-tenant-id`, as part of the cache key. Requests carrying an
+   * `authorization` header are only cached if `authorization` is one of the key headers.
+   */
+  def apply(
+      cacheableMethods: Set[String],
+      maxBytes: Long,
+      timeToLive: FiniteDuration,
+      requestTimeout: FiniteDuration,
+      keyHeaders: Set[String]): ResponseCache =
+    new ResponseCache(
+      new ServerResponseCache(cacheableMethods, maxBytes, timeToLive, Some(requestTimeout), keyHeaders))
+}
+
+/**
+ * Caches the already serialized responses of successful unary calls, keyed on the method, the raw request bytes and
+ * the values of the configured key headers, so that identical requests are served without invoking the service
+ * implementation. The least recently used
+ * responses are evicted first.
+ */
+@ApiMayChange
+final class ResponseCache private (cache: ServerResponseCache) {
+
+  /**
+   * Wrap a handler, for example one created with `ServiceHandler.concatOrNotFound`, to serve cacheable calls from
+   * this cache.
+   */
+  def wrap(handler: HttpRequest => Future[HttpResponse])(
+      implicit system: ClassicActorSystemProvider): HttpRequest => Future[HttpResponse] =
+    cache.wrap(handler)
+
+  /** The number of calls served from the cache */
+  def hits: Long = cache.hits
+
+  /** The number of cacheable calls that were not in the cache */
+  def misses: Long = cache.misses
+
+  /** The number of responses evicted to stay within the size bound */
+  def evictions: Long = cache.evictions
+
+  /** The current total size of the cached requests and responses */
+  def sizeBytes: Long = cache.sizeBytes
+}
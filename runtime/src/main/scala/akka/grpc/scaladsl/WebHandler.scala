@@ -8,13 +8,11 @@ import scala.collection.immutable
 import scala.concurrent.Future
 import akka.actor.ClassicActorSystemProvider
 import akka.annotation.ApiMayChange
+import akka.grpc.internal.GrpcWebCors
 import akka.http.javadsl.{ model => jmodel }
 import akka.http.scaladsl.model.{ HttpMethods, HttpRequest, HttpResponse }
 import akka.http.scaladsl.model.headers._
-import akka.http.scaladsl.server.Route
-import akka.http.scaladsl.server.directives.MarshallingDirectives.handleWith
 import akka.http.scaladsl.settings.CorsSettings
-import akka.http.scaladsl.server.Directives.cors
 
 @ApiMayChange
 object WebHandler {
@@ -42,12 +40,10 @@ object WebHandler {
    */
   def grpcWebHandler(handlers: PartialFunction[HttpRequest, Future[HttpResponse]]*)(
       implicit as: ClassicActorSystemProvider): HttpRequest => Future[HttpResponse] = {
-    val corsSettings: CorsSettings = defaultCorsSettings(as)
-    implicit val system = as.classicSystem
-    val servicesHandler = ServiceHandler.concat(handlers: _*)
-    Route.toFunction(cors(corsSettings) {
-      handleWith(servicesHandler)
-    })
+    // the CORS headers are computed once, and requests are dispatched directly rather than through the routing DSL
+    val cors = new GrpcWebCors(defaultCorsSettings(as))
+    val servicesHandler = ServiceHandler.concatOrNotFound(handlers: _*)
+    request => cors(request, servicesHandler)
   }
 
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc
+
+import java.security.KeyStore
+import java.util.concurrent.atomic.AtomicInteger
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.grpc.internal.StubInternalChannel
+import akka.testkit.TestKit
+import com.typesafe.config.ConfigFactory
+import javax.net.ssl.{ TrustManager, TrustManagerFactory }
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.duration._
+
+class GrpcChannelRegistrySpec
+    extends TestKit(ActorSystem("GrpcChannelRegistrySpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  class StubRegistry {
+    val created = new AtomicInteger(0)
+    @volatile var last: StubInternalChannel = _
+    val registry = new GrpcChannelRegistry(_ => {
+      created.incrementAndGet()
+      last = new StubInternalChannel
+      last
+    })
+  }
+
+  "The GrpcChannelRegistry" should {
+    "share the channel between equivalent settings" in {
+      val stub = new StubRegistry
+      val first = stub.registry.acquire(GrpcClientSettings.connectToServiceAt("localhost", 8080))
+      val second = stub.registry.acquire(
+        GrpcClientSettings.connectToServiceAt("localhost", 8080).withDeadline(1.second))
+      stub.created.get shouldBe 1
+      stub.registry.sharedChannelCount shouldBe 1
+      // each channel keeps its own settings
+      second.settings.deadline shouldBe 1.second
+      first.settings.deadline shouldBe Duration.Inf
+    }
+
+    "not share the channel between different settings" in {
+      val stub = new StubRegistry
+      stub.registry.acquire(GrpcClientSettings.connectToServiceAt("localhost", 8080))
+      stub.registry.acquire(GrpcClientSettings.connectToServiceAt("localhost", 8081))
+      stub.registry.acquire(GrpcClientSettings.connectToServiceAt("localhost", 8080).withUserAgent("other"))
+      stub.created.get shouldBe 3
+    }
+
+    "share the channel between settings read from config with the same trusted certificates" in {
+      val stub = new StubRegistry
+      val config = ConfigFactory
+        .parseString("""
+          host = "localhost"
+          port = 8080
+          trusted = "/certs/rootCA.pem"
+          """)
+        .withFallback(system.settings.config.getConfig("akka.grpc.client.\"*\""))
+      stub.registry.acquire(GrpcClientSettings.fromConfig(config))
+      stub.registry.acquire(GrpcClientSettings.fromConfig(config))
+      stub.created.get shouldBe 1
+    }
+
+    "not share the channel between different trust manager instances" in {
+      def trustManager(): TrustManager = {
+        val factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm)
+        factory.init(null: KeyStore)
+        factory.getTrustManagers()(0)
+      }
+      val stub = new StubRegistry
+      // both accept the issuers of the default trust store, but may differ in anything else
+      stub.registry.acquire(GrpcClientSettings.connectToServiceAt("localhost", 8080).withTrustManager(trustManager()))
+      stub.registry.acquire(GrpcClientSettings.connectToServiceAt("localhost", 8080).withTrustManager(trustManager()))
+      stub.created.get shouldBe 2
+    }
+
+    "close the underlying channel when the last channel is closed" in {
+      val stub = new StubRegistry
+      val settings = GrpcClientSettings.connectToServiceAt("localhost", 8080)
+      val first = stub.registry.acquire(settings)
+      val second = stub.registry.acquire(settings)
+      val underlying = stub.last
+
+      first.close().futureValue shouldBe Done
+      // closing twice does not release another lease
+      first.close().futureValue shouldBe Done
+      underlying.shutdowns.get shouldBe 0
+      second.closed().isCompleted shouldBe false
+
+      second.close().futureValue shouldBe Done
+      underlying.shutdowns.get shouldBe 1
+      stub.registry.sharedChannelCount shouldBe 0
+
+      // a new channel is created for the next one
+      stub.registry.acquire(settings)
+      stub.created.get shouldBe 2
+    }
+
+    "not keep a channel that could not be created" in {
+      val created = new AtomicInteger(0)
+      val registry = new GrpcChannelRegistry(_ =>
+        if (created.incrementAndGet() == 1) throw new IllegalArgumentException("Invalid settings")
+        else new StubInternalChannel)
+      val settings = GrpcClientSettings.connectToServiceAt("localhost", 8080)
+      an[IllegalArgumentException] should be thrownBy registry.acquire(settings)
+      registry.sharedChannelCount shouldBe 0
+
+      registry.acquire(settings)
+      created.get shouldBe 2
+      registry.sharedChannelCount shouldBe 1
+    }
+
+    "not share a channel that failed" in {
+      val stub = new StubRegistry
+      val settings = GrpcClientSettings.connectToServiceAt("localhost", 8080)
+      val first = stub.registry.acquire(settings)
+      stub.last.closed.failure(new RuntimeException("Unable to connect"))
+      first.closed().failed.futureValue.getMessage shouldBe "Unable to connect"
+
+      stub.registry.acquire(settings)
+      stub.created.get shouldBe 2
+    }
+  }
+}
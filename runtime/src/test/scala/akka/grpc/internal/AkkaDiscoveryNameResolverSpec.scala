@@ -5,17 +5,23 @@
 package akka.grpc.internal
 
 import java.net.InetSocketAddress
+import java.util.{ List => JList }
+import java.util.concurrent.ConcurrentLinkedQueue
 import akka.actor.ActorSystem
-import akka.grpc.{ GrpcClientSettings, GrpcServiceException }
+import akka.discovery.{ Lookup, ServiceDiscovery }
+import akka.discovery.ServiceDiscovery.{ Resolved, ResolvedTarget }
+import akka.grpc.{ GrpcClientSettings, GrpcServiceException, TargetAttributes }
 import akka.testkit.TestKit
-import io.grpc.Status
+import io.grpc.{ Attributes, EquivalentAddressGroup, NameResolver, Status }
 import org.scalatest.concurrent.ScalaFutures
 import org.scalatest.matchers.should.Matchers
 import org.scalatest.time.{ Millis, Seconds, Span }
 import org.scalatest.wordspec.AnyWordSpecLike
 
+import scala.collection.immutable
 import scala.jdk.CollectionConverters._
-import scala.concurrent.ExecutionContext
+import scala.concurrent.{ ExecutionContext, Future }
+import scala.concurrent.duration._
 
 class AkkaDiscoveryNameResolverSpec
     extends TestKit(ActorSystem("AkkaDiscoveryNameResolverSpec"))
@@ -62,5 +68,52 @@ class AkkaDiscoveryNameResolverSpec
           fail(s"Expected a single InetSocketAddress, got $other")
       }
     }
+
+    "only notify the listener when the addresses change" in {
+      @volatile var targets = immutable.Seq(ResolvedTarget("10.0.0.1", Some(8080), None))
+      val discovery = new ServiceDiscovery {
+        override def lookup(lookup: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] =
+          Future.successful(Resolved(lookup.serviceName, targets))
+      }
+      val resolver = new AkkaDiscoveryNameResolver(discovery, 80, "service", None, None, 1.second, None)
+      val notifications = new ConcurrentLinkedQueue[Seq[EquivalentAddressGroup]]()
+      val listener = new NameResolver.Listener {
+        override def onAddresses(servers: JList[EquivalentAddressGroup], attributes: Attributes): Unit =
+          notifications.add(servers.asScala.toSeq)
+        override def onError(error: Status): Unit = fail(s"Unexpected error $error")
+      }
+
+      resolver.lookup(listener, evict = false).futureValue
+      resolver.lookup(listener, evict = true).futureValue
+      notifications.size shouldBe 1
+
+      targets =
+        immutable.Seq(ResolvedTarget("10.0.0.1", Some(8080), None), ResolvedTarget("10.0.0.2", Some(8080), None))
+      resolver.lookup(listener, evict = true).futureValue
+      notifications.size shouldBe 2
+      notifications.asScala.last.size shouldBe 2
+    }
+
+    "pass the zone and weight of the targets in the address group attributes" in {
+      val discovery = new ServiceDiscovery {
+        override def lookup(lookup: Lookup, resolveTimeout: FiniteDuration): Future[Resolved] =
+          Future.successful(
+            Resolved(
+              lookup.serviceName,
+              immutable.Seq(
+                ResolvedTarget("10.0.0.1", Some(8080), None),
+                ResolvedTarget("10.0.0.2", Some(8080), None))))
+      }
+      val resolver =
+        new AkkaDiscoveryNameResolver(discovery, 80, "service", None, None, 1.second, None, target =>
+          if (target.host == "10.0.0.1") TargetAttributes(Some("zone-a"), 3) else TargetAttributes.default)
+      val probe = new NameResolverListenerProbe()
+
+      resolver.lookup(probe, evict = false).futureValue
+      val groups = probe.future.futureValue
+      groups.head.getAttributes.get(AkkaDiscoveryNameResolver.ZoneKey) shouldBe "zone-a"
+      groups.head.getAttributes.get(AkkaDiscoveryNameResolver.WeightKey) shouldBe 3
+      groups(1).getAttributes shouldBe Attributes.EMPTY
+    }
   }
 }
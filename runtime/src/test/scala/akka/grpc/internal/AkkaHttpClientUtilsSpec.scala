@@ -4,13 +4,19 @@
 
 package akka.grpc.internal
 
+import java.util.concurrent.atomic.{ AtomicBoolean, AtomicInteger }
+
 import scala.concurrent.Future
 import scala.concurrent.duration._
 import akka.actor.ActorSystem
+import akka.grpc.{ GrpcClientSettings, ProtobufSerializer }
+import akka.grpc.GrpcProtocol.{ DataFrame, TrailerFrame }
 import akka.http.scaladsl.model._
 import akka.http.scaladsl.model.HttpEntity.Strict
 import akka.http.scaladsl.model.StatusCodes._
 import akka.http.scaladsl.model.headers.RawHeader
+import akka.http.scaladsl.settings.ClientConnectionSettings
+import akka.stream.scaladsl.{ Keep, Sink, Source }
 import akka.testkit.TestKit
 import akka.util.ByteString
 import io.grpc.{ Metadata, Status, StatusRuntimeException }
@@ -33,6 +39,11 @@ class AkkaHttpClientUtilsSpec
   implicit val patience: PatienceConfig =
     PatienceConfig(5.seconds, Span(100, org.scalatest.time.Millis))
 
+  object StringSerializer extends ProtobufSerializer[String] {
+    override def serialize(t: String): ByteString = ByteString(t)
+    override def deserialize(bytes: ByteString): String = bytes.utf8String
+  }
+
   "The conversion from HttpResponse to Source" should {
     "map a strict 404 response to a failed stream" in {
       val requestUri = Uri("https://example.com/GuestExeSample/GrpcHello")
@@ -87,10 +98,119 @@ class AkkaHttpClientUtilsSpec
       failure.asInstanceOf[StatusRuntimeException].getTrailers.get(keyBin) should be(ByteString("custom-trailer-value"))
     }
 
+    "fail with RESOURCE_EXHAUSTED on a message larger than the max message size" in {
+      val requestUri = Uri("https://example.com/GuestExeSample/GrpcHello")
+      val frame =
+        AbstractGrpcProtocol.encodeFrameData(ByteString("0123456789"), isCompressed = false, isTrailer = false)
+      val response = Future.successful(
+        HttpResponse(OK, List(RawHeader("grpc-status", "0")), Strict(GrpcProtocolNative.contentType, frame)))
+      val source = AkkaHttpClientUtils.responseToSource(
+        requestUri,
+        response,
+        null,
+        streamingResponse = false,
+        deserializationParallelism = 1,
+        maxMessageSize = 5)
+
+      val failure = source.run().failed.futureValue
+      Status.fromThrowable(failure).getCode should be(Status.Code.RESOURCE_EXHAUSTED)
+    }
+
+    "not count the messages concurrently when deserializing them in parallel" in {
+      val requestUri = Uri("https://example.com/GuestExeSample/GrpcHello")
+      val chunks = (1 to 20).map { i =>
+        HttpEntity.Chunk(
+          AbstractGrpcProtocol.encodeFrameData(ByteString(s"message-$i"), isCompressed = false, isTrailer = false))
+      } :+ HttpEntity.LastChunk(trailer = List(RawHeader("grpc-status", "0")))
+      val response = Future.successful(
+        HttpResponse(OK, entity = HttpEntity.Chunked(GrpcProtocolNative.contentType, Source(chunks))))
+      val counting = new AtomicInteger(0)
+      val overlapping = new AtomicBoolean(false)
+      val deserializer = new CallTelemetry.CountingDeserializer[String](
+        StringSerializer,
+        _ => {
+          if (counting.incrementAndGet() > 1) overlapping.set(true)
+          Thread.sleep(1)
+          counting.decrementAndGet()
+        })
+      val messages = AkkaHttpClientUtils
+        .responseToSource(
+          requestUri,
+          response,
+          deserializer,
+          streamingResponse = true,
+          deserializationParallelism = 4,
+          maxMessageSize = Int.MaxValue)
+        .runWith(Sink.seq)
+
+      messages.futureValue should be((1 to 20).map(i => s"message-$i"))
+      overlapping.get should be(false)
+    }
+
+    "read the messages and the trailer frame of a grpc-web response" in {
+      val requestUri = Uri("https://example.com/GuestExeSample/GrpcHello")
+      val writer = GrpcProtocolWeb.newWriter(Identity)
+      val body = List(
+        writer.encodeFrame(DataFrame(ByteString("hello"))).data,
+        writer.encodeFrame(DataFrame(ByteString("world"))).data,
+        writer.encodeFrame(TrailerFrame(List(RawHeader("grpc-status", "0"), RawHeader("custom-key", "value")))).data)
+      val response = Future.successful(
+        HttpResponse(OK, entity = HttpEntity.Chunked.fromData(GrpcProtocolWeb.contentType, Source(body))))
+      val (metadata, messages) = AkkaHttpClientUtils
+        .responseToSource(requestUri, response, StringSerializer, streamingResponse = true)
+        .toMat(Sink.seq)(Keep.both)
+        .run()
+
+      messages.futureValue should be(Seq("hello", "world"))
+      metadata.futureValue.trailers.futureValue.getText("custom-key") should be(Some("value"))
+    }
+
+    "map a grpc-web trailer frame with non-0 gRPC error code to a failed stream" in {
+      val requestUri = Uri("https://example.com/GuestExeSample/GrpcHello")
+      val trailer =
+        GrpcProtocolWeb
+          .newWriter(Identity)
+          .encodeFrame(TrailerFrame(List(RawHeader("grpc-status", "9"), RawHeader("grpc-message", "not now"))))
+      val response = Future.successful(HttpResponse(OK, entity = Strict(GrpcProtocolWeb.contentType, trailer.data)))
+      val source = AkkaHttpClientUtils.responseToSource(requestUri, response, StringSerializer, false)
+
+      val failure = source.run().failed.futureValue
+      Status.fromThrowable(failure).getCode should be(Status.Code.FAILED_PRECONDITION)
+      Status.fromThrowable(failure).getDescription should startWith("not now")
+    }
+
     lazy val key = Metadata.Key.of("custom-key", Metadata.ASCII_STRING_MARSHALLER)
     lazy val keyBin = Metadata.Key.of("custom-key-bin", Metadata.BINARY_BYTE_MARSHALLER)
   }
 
+  "The connection settings" should {
+    "apply the keep-alive, idle timeout and window size of the client settings" in {
+      val settings = GrpcClientSettings
+        .connectToServiceAt("localhost", 8080)
+        .withKeepAlive(30.seconds, 10.seconds)
+        .withIdleTimeout(5.minutes)
+        .withInitialWindowSize(4 * 1024 * 1024)
+      val connectionSettings = AkkaHttpClientUtils.connectionSettings(settings, ClientConnectionSettings(system))
+      connectionSettings.idleTimeout should be(5.minutes)
+      connectionSettings.http2Settings.pingInterval should be(30.seconds)
+      connectionSettings.http2Settings.pingTimeout should be(10.seconds)
+      connectionSettings.http2Settings.incomingStreamLevelBufferSize should be(4 * 1024 * 1024)
+    }
+
+    "keep the buffer sizes of Akka HTTP unless the window size is configured" in {
+      val base = ClientConnectionSettings(system)
+      val settings = GrpcClientSettings.connectToServiceAt("localhost", 8080)
+      settings.maxInboundMessageSize should be(None)
+      AkkaHttpClientUtils.connectionSettings(settings, base).http2Settings should be(base.http2Settings)
+    }
+
+    "use the ping interval as timeout if it is not a multiple of the timeout" in {
+      val settings = GrpcClientSettings.connectToServiceAt("localhost", 8080).withKeepAlive(30.seconds, 20.seconds)
+      val connectionSettings = AkkaHttpClientUtils.connectionSettings(settings, ClientConnectionSettings(system))
+      connectionSettings.http2Settings.pingTimeout should be(Duration.Zero)
+    }
+  }
+
   override protected def afterAll(): Unit = {
     TestKit.shutdownActorSystem(system)
   }
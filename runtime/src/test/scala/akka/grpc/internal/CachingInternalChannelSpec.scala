@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.atomic.AtomicLong
+
+import akka.grpc.CoalescingKeyExtractor
+import akka.grpc.internal.StubInternalChannel.StubCredentials
+import akka.grpc.scaladsl.{ Metadata, MetadataBuilder }
+import io.grpc.{ CallOptions, MethodDescriptor }
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.concurrent.{ Future, Promise }
+import scala.concurrent.duration._
+
+class CachingInternalChannelSpec extends AnyWordSpec with Matchers with ScalaFutures {
+
+  def descriptor(safe: Boolean): MethodDescriptor[String, String] = StubInternalChannel.descriptor("Get", safe)
+
+  def trailers(cacheControl: String): Metadata = new MetadataBuilder().addText("cache-control", cacheControl).build()
+
+  def stubChannel(responseTrailers: Metadata = MetadataBuilder.empty): StubInternalChannel = {
+    val stub = new StubInternalChannel(request => Future.successful(s"response-$request"))
+    stub.responseTrailers = responseTrailers
+    stub
+  }
+
+  "The CachingInternalChannel" should {
+    "cache responses of safe methods until they expire" in {
+      val now = new AtomicLong(0)
+      val stub = stubChannel()
+      val channel = new CachingInternalChannel(stub, 10, 1.second, clock = () => now.get)
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = true), CallOptions.DEFAULT).futureValue shouldBe
+      "response-a"
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = true), CallOptions.DEFAULT).futureValue shouldBe
+      "response-a"
+      stub.calls.get shouldBe 1
+
+      now.set(2.seconds.toNanos)
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = true), CallOptions.DEFAULT).futureValue
+      stub.calls.get shouldBe 2
+    }
+
+    "not cache responses of methods that are not safe" in {
+      val stub = stubChannel()
+      val channel = new CachingInternalChannel(stub, 10, 1.minute)
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = false), CallOptions.DEFAULT).futureValue
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = false), CallOptions.DEFAULT).futureValue
+      stub.calls.get shouldBe 2
+    }
+
+    "evict the least recently used response when full" in {
+      val stub = stubChannel()
+      val channel = new CachingInternalChannel(stub, 2, 1.minute)
+      Seq("a", "b", "a", "c", "a", "b").foreach { request =>
+        channel.invoke(request, MetadataImpl.empty, descriptor(safe = true), CallOptions.DEFAULT).futureValue
+      }
+      // a, b and c miss, then b was evicted by c
+      stub.calls.get shouldBe 4
+    }
+
+    "not cache responses the server marked as not cacheable" in {
+      val stub = stubChannel(trailers("no-store"))
+      val channel = new CachingInternalChannel(stub, 10, 1.minute)
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = true), CallOptions.DEFAULT).futureValue
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = true), CallOptions.DEFAULT).futureValue
+      stub.calls.get shouldBe 2
+    }
+
+    "not share responses between callers with different headers" in {
+      val stub = stubChannel()
+      val channel = new CachingInternalChannel(stub, 10, 1.minute)
+      val alice = MetadataImpl.empty.addEntry("authorization", "Bearer alice")
+      val bob = MetadataImpl.empty.addEntry("authorization", "Bearer bob")
+      channel.invoke("a", alice, descriptor(safe = true), CallOptions.DEFAULT).futureValue
+      channel.invoke("a", bob, descriptor(safe = true), CallOptions.DEFAULT).futureValue
+      stub.calls.get shouldBe 2
+      channel.invoke("a", alice, descriptor(safe = true), CallOptions.DEFAULT).futureValue
+      stub.calls.get shouldBe 2
+    }
+
+    "only key on the configured headers" in {
+      val stub = stubChannel()
+      val channel = new CachingInternalChannel(stub, 10, 1.minute, keyHeaders = Some(Set("authorization")))
+      val first = MetadataImpl.empty.addEntry("authorization", "Bearer alice").addEntry("x-request-id", "1")
+      val second = MetadataImpl.empty.addEntry("authorization", "Bearer alice").addEntry("x-request-id", "2")
+      channel.invoke("a", first, descriptor(safe = true), CallOptions.DEFAULT).futureValue
+      channel.invoke("a", second, descriptor(safe = true), CallOptions.DEFAULT).futureValue
+      stub.calls.get shouldBe 1
+    }
+
+    "not cache calls with their own call credentials" in {
+      val clientCredentials = new StubCredentials
+      val stub = stubChannel()
+      val channel = new CachingInternalChannel(stub, 10, 1.minute, clientCredentials = Some(clientCredentials))
+      val options = CallOptions.DEFAULT.withCallCredentials(new StubCredentials)
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = true), options).futureValue
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = true), options).futureValue
+      stub.calls.get shouldBe 2
+
+      val clientOptions = CallOptions.DEFAULT.withCallCredentials(clientCredentials)
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = true), clientOptions).futureValue
+      channel.invoke("a", MetadataImpl.empty, descriptor(safe = true), clientOptions).futureValue
+      stub.calls.get shouldBe 3
+    }
+
+    "coalesce concurrent misses for the same request" in {
+      val response = Promise[Any]()
+      val stub = new StubInternalChannel(_ => response.future)
+      val coalescing = new CoalescingInternalChannel(stub, CoalescingKeyExtractor.methodAndRequestBytes)
+      val channel = new CachingInternalChannel(coalescing, 10, 1.minute)
+      def get() = channel.invoke("a", MetadataImpl.empty, descriptor(safe = true), CallOptions.DEFAULT)
+      val misses = List.fill(5)(get())
+      stub.calls.get shouldBe 1
+      response.success("response-a")
+      misses.foreach(_.futureValue shouldBe "response-a")
+      get().futureValue shouldBe "response-a"
+      stub.calls.get shouldBe 1
+    }
+
+    "use the max-age from the server as time to live" in {
+      CachingInternalChannel.cacheTimeToLive(trailers("public, max-age=30"), MetadataBuilder.empty, 1.minute) shouldBe
+      Some(30.seconds)
+      CachingInternalChannel.cacheTimeToLive(trailers("max-age=0"), MetadataBuilder.empty, 1.minute) shouldBe None
+      CachingInternalChannel.cacheTimeToLive(trailers("No-Cache"), MetadataBuilder.empty, 1.minute) shouldBe None
+      CachingInternalChannel.cacheTimeToLive(MetadataBuilder.empty, MetadataBuilder.empty, 1.minute) shouldBe
+      Some(1.minute)
+    }
+  }
+}
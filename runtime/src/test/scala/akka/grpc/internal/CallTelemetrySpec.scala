@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import akka.actor.ActorSystem
+import akka.http.scaladsl.model._
+import akka.http.scaladsl.model.HttpEntity.{ Chunk, LastChunk }
+import akka.http.scaladsl.model.headers.RawHeader
+import akka.stream.scaladsl.{ Sink, Source }
+import akka.testkit.TestKit
+import akka.util.ByteString
+import io.grpc.Status
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.{ Eventually, ScalaFutures }
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.Future
+import scala.jdk.CollectionConverters._
+
+class CallTelemetrySpec
+    extends TestKit(ActorSystem("CallTelemetrySpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with Eventually
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  class RecordingTelemetry extends TelemetrySpi {
+    val events = new ConcurrentLinkedQueue[String]()
+    override def onCallStart(client: Boolean, service: String, method: String): AnyRef = {
+      events.add(s"start $service/$method")
+      "context"
+    }
+    override def onMessageReceived(context: AnyRef, sizeBytes: Int): Unit = events.add(s"received $sizeBytes")
+    override def onMessageSent(context: AnyRef, sizeBytes: Int): Unit = events.add(s"sent $sizeBytes")
+    override def onCallEnd(context: AnyRef, status: Status, durationNanos: Long): Unit =
+      events.add(s"end ${status.getCode}")
+  }
+
+  def frame(payload: String): ByteString =
+    AbstractGrpcProtocol.encodeFrameData(ByteString(payload), isCompressed = false, isTrailer = false)
+
+  val request =
+    HttpRequest(
+      HttpMethods.POST,
+      Uri("/test.Service/Get"),
+      entity = HttpEntity(GrpcProtocolNative.contentType, frame("abc") ++ frame("defgh")))
+
+  "CallTelemetry" should {
+    "report the messages and status of a server call with a strict response" in {
+      val telemetry = new RecordingTelemetry
+      val response = CallTelemetry
+        .instrumentServer(telemetry, "test.Service", "Get", request) { _ =>
+          Future.successful(
+            HttpResponse(entity = HttpEntity(GrpcProtocolNative.contentType, frame("response")))
+              .addAttribute(AttributeKeys.trailer, Trailer(List(RawHeader("grpc-status", "0")))))
+        }
+        .futureValue
+      response.status shouldBe StatusCodes.OK
+      telemetry.events.asScala.toList shouldBe List(
+        "start test.Service/Get",
+        "received 3",
+        "received 5",
+        "sent 8",
+        "end OK")
+    }
+
+    "report the messages and status of a server call with a streamed response" in {
+      val telemetry = new RecordingTelemetry
+      val chunks = Source(
+        List(
+          Chunk(frame("one").take(2)),
+          Chunk(frame("one").drop(2) ++ frame("three")),
+          LastChunk(trailer = List(RawHeader("grpc-status", "14")))))
+      val response = CallTelemetry
+        .instrumentServer(telemetry, "test.Service", "Get", request) { _ =>
+          Future.successful(HttpResponse(entity = HttpEntity.Chunked(GrpcProtocolNative.contentType, chunks)))
+        }
+        .futureValue
+      response.entity.dataBytes.runWith(Sink.ignore).futureValue
+      eventually {
+        telemetry.events.asScala.toList shouldBe List(
+          "start test.Service/Get",
+          "received 3",
+          "received 5",
+          "sent 3",
+          "sent 5",
+          "end UNAVAILABLE")
+      }
+    }
+
+    "not instrument calls the telemetry does not track" in {
+      val handler: HttpRequest => Future[HttpResponse] = _ => Future.successful(HttpResponse())
+      CallTelemetry.instrumentServer(NoOpTelemetry, "test.Service", "Get", request)(handler).futureValue shouldBe
+      HttpResponse()
+    }
+  }
+}
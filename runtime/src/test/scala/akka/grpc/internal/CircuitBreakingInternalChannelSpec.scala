@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import akka.actor.ActorSystem
+import akka.grpc.GrpcCircuitBreakerSettings
+import akka.grpc.internal.StubInternalChannel.descriptor
+import akka.stream.KillSwitches
+import akka.stream.scaladsl.{ Keep, Sink, Source }
+import akka.testkit.TestKit
+import com.typesafe.config.ConfigFactory
+import io.grpc.{ CallOptions, Status, StatusRuntimeException }
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{ Millis, Span }
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.{ Future, Promise }
+import scala.concurrent.duration._
+
+class CircuitBreakingInternalChannelSpec
+    extends TestKit(ActorSystem("CircuitBreakingInternalChannelSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  override implicit val patienceConfig: PatienceConfig = PatienceConfig(Span(3000, Millis))
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private val defaults = GrpcCircuitBreakerSettings(
+    ConfigFactory.load().getConfig("""akka.grpc.client."*".circuit-breaker"""))
+
+  def unavailableChannel(): StubInternalChannel =
+    new StubInternalChannel(_ => Future.failed(new StatusRuntimeException(Status.UNAVAILABLE)))
+
+  def circuitBreaking(
+      stub: StubInternalChannel,
+      settings: GrpcCircuitBreakerSettings,
+      callTimeout: FiniteDuration = Duration.Zero) =
+    new CircuitBreakingInternalChannel(stub, settings, callTimeout, system.scheduler)(system.dispatcher)
+
+  def call(channel: InternalChannel, method: String = "Say"): Future[String] =
+    channel.invoke("hello", MetadataImpl.empty, descriptor(method), CallOptions.DEFAULT)
+
+  def statusOf(result: Future[_]): Status.Code =
+    Status.fromThrowable(result.failed.futureValue).getCode
+
+  "The CircuitBreakingInternalChannel" should {
+    "fail fast with UNAVAILABLE once max failures calls failed" in {
+      val stub = unavailableChannel()
+      val channel = circuitBreaking(stub, defaults.withMaxFailures(2))
+      statusOf(call(channel)) shouldBe Status.Code.UNAVAILABLE
+      statusOf(call(channel)) shouldBe Status.Code.UNAVAILABLE
+      stub.calls.get shouldBe 2
+      val rejected = call(channel).failed.futureValue
+      rejected.getMessage should include("Circuit breaker is open")
+      stub.calls.get shouldBe 2
+    }
+
+    "not count failures with other status codes" in {
+      val stub = unavailableChannel()
+      stub.respond = _ => Future.failed(new StatusRuntimeException(Status.NOT_FOUND))
+      val channel = circuitBreaking(stub, defaults.withMaxFailures(1))
+      statusOf(call(channel)) shouldBe Status.Code.NOT_FOUND
+      statusOf(call(channel)) shouldBe Status.Code.NOT_FOUND
+      stub.calls.get shouldBe 2
+    }
+
+    "let a trial call through after the reset timeout" in {
+      val stub = unavailableChannel()
+      val channel = circuitBreaking(stub, defaults.withMaxFailures(1).withResetTimeout(100.millis, 100.millis))
+      call(channel).failed.futureValue
+      call(channel).failed.futureValue.getMessage should include("Circuit breaker is open")
+      stub.respond = _ => Future.successful("world")
+      Thread.sleep(200)
+      call(channel).futureValue shouldBe "world"
+      call(channel).futureValue shouldBe "world"
+      stub.calls.get shouldBe 3
+    }
+
+    "count calls over the call timeout as failures" in {
+      val stub = unavailableChannel()
+      stub.respond = _ => Promise[String]().future
+      val channel = circuitBreaking(stub, defaults.withMaxFailures(1), callTimeout = 50.millis)
+      statusOf(call(channel)) shouldBe Status.Code.DEADLINE_EXCEEDED
+      statusOf(call(channel)) shouldBe Status.Code.UNAVAILABLE
+      stub.calls.get shouldBe 1
+    }
+
+    "keep a circuit breaker per method" in {
+      val stub = unavailableChannel()
+      val channel = circuitBreaking(stub, defaults.withMaxFailures(1).withPerMethod(true))
+      call(channel, "Say").failed.futureValue
+      call(channel, "Say").failed.futureValue.getMessage should include("Circuit breaker is open")
+      stub.respond = _ => Future.successful("world")
+      call(channel, "Shout").futureValue shouldBe "world"
+    }
+
+    "not count hedged attempts that were cancelled because another attempt won" in {
+      val stub = unavailableChannel()
+      val channel = circuitBreaking(stub, defaults.withMaxFailures(2))
+      statusOf(call(channel)) shouldBe Status.Code.UNAVAILABLE
+      val respond = stub.respond
+      stub.respond = _ => Promise[Any]().future
+      channel
+        .invokeWithMetadata(
+          Source.single("hello"),
+          MetadataImpl.empty,
+          descriptor("Say"),
+          streamingResponse = false,
+          CallOptions.DEFAULT)
+        .viaMat(KillSwitches.single)(Keep.right)
+        .to(Sink.ignore)
+        .run()
+        .abort(Hedging.HedgedAttemptCancelled)
+      Thread.sleep(100)
+      stub.respond = respond
+      // a success would have reset the failure count
+      statusOf(call(channel)) shouldBe Status.Code.UNAVAILABLE
+      call(channel).failed.futureValue.getMessage should include("Circuit breaker is open")
+    }
+
+    "count the outcome of streaming calls" in {
+      val stub = unavailableChannel()
+      val channel = circuitBreaking(stub, defaults.withMaxFailures(1))
+      def stream() =
+        channel
+          .invokeWithMetadata(
+            Source.single("hello"),
+            MetadataImpl.empty,
+            descriptor("Stream"),
+            streamingResponse = true,
+            CallOptions.DEFAULT)
+          .runWith(Sink.ignore)
+      statusOf(stream()) shouldBe Status.Code.UNAVAILABLE
+      stream().failed.futureValue.getMessage should include("Circuit breaker is open")
+      stub.calls.get shouldBe 1
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.TimeUnit
+
+import akka.grpc.CoalescingKeyExtractor
+import akka.grpc.internal.StubInternalChannel.{ descriptor, StubCredentials }
+import io.grpc.CallOptions
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.concurrent.{ Future, Promise }
+
+class CoalescingInternalChannelSpec extends AnyWordSpec with Matchers with ScalaFutures {
+
+  "The CoalescingInternalChannel" should {
+    "share an in-flight call between identical requests" in {
+      val response = Promise[String]()
+      val stub = new StubInternalChannel(_ => response.future)
+      val channel = new CoalescingInternalChannel(stub, CoalescingKeyExtractor.methodAndRequestBytes)
+      val first = channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), CallOptions.DEFAULT)
+      val second = channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), CallOptions.DEFAULT)
+      stub.calls.get shouldBe 1
+      response.success("world")
+      first.futureValue shouldBe "world"
+      second.futureValue shouldBe "world"
+    }
+
+    "not share calls with different requests or methods" in {
+      val stub = new StubInternalChannel
+      val channel = new CoalescingInternalChannel(stub, CoalescingKeyExtractor.methodAndRequestBytes)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), CallOptions.DEFAULT)
+      channel.invoke("bye", MetadataImpl.empty, descriptor("Say"), CallOptions.DEFAULT)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Shout"), CallOptions.DEFAULT)
+      stub.calls.get shouldBe 3
+    }
+
+    "make a new call once the shared call completed" in {
+      val stub = new StubInternalChannel(_ => Future.successful("world"))
+      val channel = new CoalescingInternalChannel(stub, CoalescingKeyExtractor.methodAndRequestBytes)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), CallOptions.DEFAULT).futureValue
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), CallOptions.DEFAULT).futureValue
+      stub.calls.get shouldBe 2
+    }
+
+    "not share calls with different headers" in {
+      val stub = new StubInternalChannel
+      val channel = new CoalescingInternalChannel(stub, CoalescingKeyExtractor.methodAndRequestBytes)
+      val alice = MetadataImpl.empty.addEntry("authorization", "Bearer alice")
+      val bob = MetadataImpl.empty.addEntry("authorization", "Bearer bob")
+      channel.invoke("hello", alice, descriptor("Say"), CallOptions.DEFAULT)
+      channel.invoke("hello", bob, descriptor("Say"), CallOptions.DEFAULT)
+      stub.calls.get shouldBe 2
+      channel.invoke("hello", alice, descriptor("Say"), CallOptions.DEFAULT)
+      stub.calls.get shouldBe 2
+    }
+
+    "only key on the configured headers" in {
+      val stub = new StubInternalChannel
+      val channel = new CoalescingInternalChannel(
+        stub,
+        CoalescingKeyExtractor.methodAndRequestBytes,
+        keyHeaders = Some(Set("authorization")))
+      val first = MetadataImpl.empty.addEntry("authorization", "Bearer alice").addEntry("x-request-id", "1")
+      val second = MetadataImpl.empty.addEntry("authorization", "Bearer alice").addEntry("x-request-id", "2")
+      channel.invoke("hello", first, descriptor("Say"), CallOptions.DEFAULT)
+      channel.invoke("hello", second, descriptor("Say"), CallOptions.DEFAULT)
+      stub.calls.get shouldBe 1
+    }
+
+    "not coalesce calls with their own call credentials" in {
+      val clientCredentials = new StubCredentials
+      val stub = new StubInternalChannel
+      val channel = new CoalescingInternalChannel(
+        stub,
+        CoalescingKeyExtractor.methodAndRequestBytes,
+        clientCredentials = Some(clientCredentials))
+      val options = CallOptions.DEFAULT.withCallCredentials(new StubCredentials)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), options)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), options)
+      stub.calls.get shouldBe 2
+
+      val clientOptions = CallOptions.DEFAULT.withCallCredentials(clientCredentials)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), clientOptions)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), clientOptions)
+      stub.calls.get shouldBe 3
+    }
+
+    "not let a call join a call with a later deadline" in {
+      val stub = new StubInternalChannel
+      val channel = new CoalescingInternalChannel(stub, CoalescingKeyExtractor.methodAndRequestBytes)
+      val short = CallOptions.DEFAULT.withDeadlineAfter(1, TimeUnit.SECONDS)
+      val long = CallOptions.DEFAULT.withDeadlineAfter(1, TimeUnit.MINUTES)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), long)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), short)
+      stub.calls.get shouldBe 2
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), CallOptions.DEFAULT)
+      stub.calls.get shouldBe 2
+    }
+
+    "not coalesce requests for which the extractor returns null" in {
+      val stub = new StubInternalChannel
+      val channel = new CoalescingInternalChannel(stub, (_, _) => null)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), CallOptions.DEFAULT)
+      channel.invoke("hello", MetadataImpl.empty, descriptor("Say"), CallOptions.DEFAULT)
+      stub.calls.get shouldBe 2
+    }
+  }
+}
@@ -10,9 +10,14 @@ import akka.stream.testkit.scaladsl.TestSink
 import akka.testkit.TestKit
 import akka.util.ByteString
 import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpecLike
 
-class DecodeBase64Spec extends TestKit(ActorSystem("DecodeBase64Spec")) with AnyWordSpecLike with BeforeAndAfterAll {
+class DecodeBase64Spec
+    extends TestKit(ActorSystem("DecodeBase64Spec"))
+    with AnyWordSpecLike
+    with Matchers
+    with BeforeAndAfterAll {
 
   private val data = ByteString(Range(-128, 128).map(_.toByte).toArray)
 
@@ -52,6 +57,57 @@ class DecodeBase64Spec extends TestKit(ActorSystem("DecodeBase64Spec")) with Any
           .expectComplete()
       }
     }
+
+    "handle padding between frames within a chunk" in {
+      val frames = List(data.take(1), data.take(2), data.take(3), data.take(4))
+      val encoded = frames.map(_.encodeBase64).reduce(_ ++ _)
+      for (i <- Range(1, 12)) {
+        Source(encoded.grouped(i).toList)
+          .via(DecodeBase64())
+          .fold(ByteString.empty)(_.concat(_))
+          .runWith(TestSink[ByteString]())
+          .request(1)
+          .expectNext(frames.reduce(_ ++ _))
+          .expectComplete()
+      }
+      DecodeBase64.decode(encoded) shouldBe frames.reduce(_ ++ _)
+    }
+
+    "decode unpadded data at the end of the stream" in {
+      Source(List(ByteString("AAE"), ByteString("CAw")))
+        .via(DecodeBase64())
+        .fold(ByteString.empty)(_.concat(_))
+        .runWith(TestSink[ByteString]())
+        .request(1)
+        .expectNext(ByteString(0, 1, 2, 3))
+        .expectComplete()
+    }
+
+    "fail on invalid data" in {
+      Source
+        .single(ByteString("AA*A"))
+        .via(DecodeBase64())
+        .runWith(TestSink[ByteString]())
+        .request(1)
+        .expectError() shouldBe an[IllegalArgumentException]
+      an[IllegalArgumentException] should be thrownBy DecodeBase64.decode(ByteString("A==="))
+      an[IllegalArgumentException] should be thrownBy DecodeBase64.decode(ByteString("AA=A"))
+      an[IllegalArgumentException] should be thrownBy DecodeBase64.decode(ByteString("AAAAA"))
+    }
+  }
+
+  "EncodeBase64" should {
+    "encode like the JDK encoder" in {
+      for (i <- Range(0, 8)) {
+        val bytes = data.take(i)
+        EncodeBase64(bytes) shouldBe bytes.encodeBase64
+      }
+    }
+
+    "encode data made of several fragments" in {
+      val fragmented = data.grouped(7).reduce(_ ++ _)
+      EncodeBase64(fragmented) shouldBe data.encodeBase64
+    }
   }
 
   override protected def afterAll(): Unit = {
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.ThreadLocalRandom
+
+import akka.actor.ActorSystem
+import akka.grpc.{ GrpcProtocol, ProtobufSerializer }
+import akka.grpc.scaladsl.GrpcExceptionHandler
+import akka.http.scaladsl.model.HttpEntity.{ Chunk, LastChunk }
+import akka.stream.scaladsl.{ Sink, Source }
+import akka.testkit.TestKit
+import akka.util.ByteString
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class GrpcEntityHelpersSpec
+    extends TestKit(ActorSystem("GrpcEntityHelpersSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  implicit val writer: GrpcProtocol.GrpcProtocolWriter = GrpcProtocolNative.newWriter(Identity)
+
+  // slow and uneven serialization to make the parallel serializations complete out of order
+  implicit val serializer: ProtobufSerializer[Int] = new ProtobufSerializer[Int] {
+    override def serialize(t: Int): ByteString = {
+      Thread.sleep(ThreadLocalRandom.current().nextInt(5).toLong)
+      ByteString(t.toString)
+    }
+    override def deserialize(bytes: ByteString): Int = bytes.utf8String.toInt
+  }
+
+  def frame(n: Int): Chunk =
+    Chunk(AbstractGrpcProtocol.encodeFrameData(ByteString(n.toString), isCompressed = false, isTrailer = false))
+
+  "GrpcEntityHelpers" should {
+    "serialize messages in parallel keeping their order" in {
+      val parts = GrpcEntityHelpers(
+        Source(1 to 100),
+        Source.single(GrpcEntityHelpers.trailer(io.grpc.Status.OK)),
+        GrpcExceptionHandler.defaultMapper,
+        parallelism = 8).runWith(Sink.seq).futureValue
+
+      parts.init shouldBe (1 to 100).map(frame)
+      parts.last shouldBe a[LastChunk]
+    }
+
+    "end with the mapped error when a message fails to serialize in parallel" in {
+      val parts = GrpcEntityHelpers(
+        Source(1 to 10).map(n => if (n == 5) throw new IllegalStateException("boom") else n),
+        Source.single(GrpcEntityHelpers.trailer(io.grpc.Status.OK)),
+        GrpcExceptionHandler.defaultMapper,
+        parallelism = 4).runWith(Sink.seq).futureValue
+
+      // elements still being serialized when the failure arrives are dropped
+      parts.init shouldBe (1 to parts.init.size).map(frame)
+      parts.last match {
+        case LastChunk(_, trailer) =>
+          trailer.collectFirst { case h if h.is("grpc-status") => h.value } shouldBe Some("13")
+        case other => fail(s"Expected trailers, got $other")
+      }
+    }
+  }
+}
@@ -5,14 +5,20 @@
 package akka.grpc.internal
 
 import akka.actor.ActorSystem
-import akka.grpc.GrpcProtocol.{ DataFrame, Frame }
+import akka.grpc.GrpcProtocol.{ DataFrame, Frame, TrailerFrame }
+import akka.http.scaladsl.model.headers.RawHeader
 import akka.stream.scaladsl.Source
 import akka.stream.testkit.scaladsl.TestSink
 import akka.testkit.TestKit
 import akka.util.ByteString
+import io.grpc.{ Status, StatusException }
+import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpecLike
 
-class GrpcProtocolWebTextSpec extends TestKit(ActorSystem("GrpcProtocolWebTextSpec")) with AnyWordSpecLike {
+class GrpcProtocolWebTextSpec
+    extends TestKit(ActorSystem("GrpcProtocolWebTextSpec"))
+    with AnyWordSpecLike
+    with Matchers {
 
   "GrpcProtocolWebText" should {
     val reader = GrpcProtocolWebText.newReader(Identity)
@@ -42,5 +48,36 @@ class GrpcProtocolWebTextSpec extends TestKit(ActorSystem("GrpcProtocolWebTextSp
           .expectComplete()
       }
     }
+
+    "decode a trailer frame" in {
+      val trailer = TrailerFrame(List(RawHeader("grpc-status", "0"), RawHeader("grpc-message", "all good")))
+      Source
+        .single(writer.encodeFrame(trailer).data)
+        .via(reader.frameDecoder)
+        .runWith(TestSink[Frame]())
+        .request(1)
+        .expectNext(trailer)
+        .expectComplete()
+    }
+  }
+
+  "The grpc-web trailer decoding" should {
+    "lower-case the names and trim the values" in {
+      GrpcProtocolWebBase.decodeTrailer(ByteString("Grpc-Status: 0\r\ngrpc-message:\tall good \r\n")) shouldBe List(
+        RawHeader("grpc-status", "0"),
+        RawHeader("grpc-message", "all good"))
+    }
+
+    "accept lines without carriage return and an empty trailer" in {
+      GrpcProtocolWebBase.decodeTrailer(ByteString("grpc-status:0\n\ngrpc-message:x")) shouldBe List(
+        RawHeader("grpc-status", "0"),
+        RawHeader("grpc-message", "x"))
+      GrpcProtocolWebBase.decodeTrailer(ByteString.empty) shouldBe Nil
+    }
+
+    "fail with INTERNAL on a line without colon" in {
+      val failure = intercept[StatusException](GrpcProtocolWebBase.decodeTrailer(ByteString("grpc-status\r\n")))
+      failure.getStatus.getCode shouldBe Status.Code.INTERNAL
+    }
   }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import akka.actor.ActorSystem
+import akka.grpc.scaladsl.WebHandler
+import akka.http.scaladsl.model.{ HttpHeader, HttpMethods, HttpRequest, HttpResponse, StatusCodes }
+import akka.http.scaladsl.model.headers._
+import akka.testkit.TestKit
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.Future
+
+class GrpcWebCorsSpec
+    extends TestKit(ActorSystem("GrpcWebCorsSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private val origin = Origin(HttpOrigin("https://example.com"))
+  private val handler: HttpRequest => Future[HttpResponse] = _ => Future.successful(HttpResponse(StatusCodes.OK))
+
+  private def preflight(headers: HttpHeader*): HttpRequest =
+    HttpRequest(
+      HttpMethods.OPTIONS,
+      "/test.Service/Say",
+      origin :: `Access-Control-Request-Method`(HttpMethods.POST) :: headers.toList)
+
+  "GrpcWebCors" should {
+    val cors = new GrpcWebCors(WebHandler.defaultCorsSettings(system))
+
+    "answer preflight requests with the same response" in {
+      val response = cors(preflight(`Access-Control-Request-Headers`("x-grpc-web", "content-type")), handler)
+      response shouldBe theSameInstanceAs(cors(preflight(), handler))
+      val headers = response.futureValue.headers
+      headers should contain(`Access-Control-Allow-Origin`.`*`)
+      headers.collectFirst { case h: `Access-Control-Allow-Methods` => h.methods.toSet } shouldBe Some(
+        Set(HttpMethods.POST, HttpMethods.OPTIONS))
+    }
+
+    "reject preflight requests for headers that are not allowed" in {
+      cors(preflight(`Access-Control-Request-Headers`("x-custom")), handler).futureValue.status shouldBe
+      StatusCodes.Forbidden
+    }
+
+    "add the CORS headers to the response of the handler" in {
+      val response = cors(HttpRequest(HttpMethods.POST, "/test.Service/Say", List(origin)), handler).futureValue
+      response.status shouldBe StatusCodes.OK
+      response.headers should contain(`Access-Control-Allow-Origin`.`*`)
+      response.headers.collectFirst { case h: `Access-Control-Expose-Headers` => h.headers.toSet } shouldBe Some(
+        Set("grpc-status", "grpc-message", "Content-Encoding"))
+    }
+
+    "pass requests without origin to the handler" in {
+      cors(HttpRequest(HttpMethods.POST, "/test.Service/Say"), handler).futureValue.headers shouldBe empty
+    }
+
+    "only allow the configured origins" in {
+      val restricted = new GrpcWebCors(
+        WebHandler
+          .defaultCorsSettings(system)
+          .withAllowedOrigins(Set("https://*.example.com"))
+          .withAllowCredentials(true))
+      val allowed = Origin(HttpOrigin("https://app.example.com"))
+      val response = restricted(HttpRequest(HttpMethods.POST, "/test.Service/Say", List(allowed)), handler).futureValue
+      response.headers should contain(`Access-Control-Allow-Origin`(HttpOrigin("https://app.example.com")))
+      response.headers should contain(`Access-Control-Allow-Credentials`(true))
+      restricted(HttpRequest(HttpMethods.POST, "/test.Service/Say", List(origin)), handler).futureValue.status shouldBe
+      StatusCodes.Forbidden
+    }
+  }
+}
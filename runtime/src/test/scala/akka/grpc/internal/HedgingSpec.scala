@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import akka.actor.ActorSystem
+import akka.testkit.TestKit
+import io.grpc.{ Status, StatusRuntimeException }
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.Span
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.{ Future, Promise }
+import scala.concurrent.duration._
+
+class HedgingSpec
+    extends TestKit(ActorSystem("HedgingSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  implicit val patience: PatienceConfig =
+    PatienceConfig(5.seconds, Span(100, org.scalatest.time.Millis))
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private def unavailable(description: String) =
+    new StatusRuntimeException(Status.UNAVAILABLE.withDescription(description))
+
+  "Hedging" should {
+    "use the first attempt if it responds before the hedging delay" in {
+      val attempts = new AtomicInteger(0)
+      val result = Hedging.hedge[String](HedgingSettings(3, 1.second), system) { () =>
+        attempts.incrementAndGet()
+        HedgedAttempt(Future.successful("first"), () => ())
+      }
+      result.futureValue shouldBe "first"
+      Thread.sleep(100)
+      attempts.get shouldBe 1
+    }
+
+    "start another attempt after the hedging delay and cancel the slow one" in {
+      val slow = Promise[String]()
+      val cancelled = new AtomicInteger(0)
+      val attempts = new AtomicInteger(0)
+      val result = Hedging.hedge[String](HedgingSettings(3, 50.millis), system) { () =>
+        if (attempts.incrementAndGet() == 1) HedgedAttempt(slow.future, () => cancelled.incrementAndGet())
+        else HedgedAttempt(Future.successful("second"), () => ())
+      }
+      result.futureValue shouldBe "second"
+      attempts.get shouldBe 2
+      cancelled.get shouldBe 1
+    }
+
+    "start the next attempt right away when an attempt fails" in {
+      val attempts = new AtomicInteger(0)
+      val result = Hedging.hedge[String](HedgingSettings(2, 1.minute), system) { () =>
+        if (attempts.incrementAndGet() == 1) HedgedAttempt(Future.failed(unavailable("boom")), () => ())
+        else HedgedAttempt(Future.successful("second"), () => ())
+      }
+      result.futureValue shouldBe "second"
+    }
+
+    "fail with the last error when all attempts fail" in {
+      val attempts = new AtomicInteger(0)
+      val result = Hedging.hedge[String](HedgingSettings(3, 10.millis), system) { () =>
+        val n = attempts.incrementAndGet()
+        HedgedAttempt(Future.failed(unavailable(s"boom-$n")), () => ())
+      }
+      result.failed.futureValue.getMessage shouldBe "UNAVAILABLE: boom-3"
+      attempts.get shouldBe 3
+    }
+
+    "fail right away and cancel the other attempts when an attempt fails with a fatal status" in {
+      val slow = Promise[String]()
+      val failing = Promise[String]()
+      val cancelled = new AtomicInteger(0)
+      val attempts = new AtomicInteger(0)
+      val result = Hedging.hedge[String](HedgingSettings(3, 50.millis), system) { () =>
+        if (attempts.incrementAndGet() == 1) HedgedAttempt(slow.future, () => cancelled.incrementAndGet())
+        else HedgedAttempt(failing.future, () => ())
+      }
+      awaitAssert(attempts.get shouldBe 2)
+      failing.failure(new StatusRuntimeException(Status.INVALID_ARGUMENT))
+      Status.fromThrowable(result.failed.futureValue).getCode shouldBe Status.Code.INVALID_ARGUMENT
+      cancelled.get shouldBe 1
+      Thread.sleep(200)
+      attempts.get shouldBe 2
+    }
+
+    "start the next attempt for the configured non-fatal status codes" in {
+      val attempts = new AtomicInteger(0)
+      val settings = HedgingSettings(2, 1.minute, Set(Status.Code.UNAVAILABLE, Status.Code.RESOURCE_EXHAUSTED))
+      val result = Hedging.hedge[String](settings, system) { () =>
+        if (attempts.incrementAndGet() == 1)
+          HedgedAttempt(Future.failed(new StatusRuntimeException(Status.RESOURCE_EXHAUSTED)), () => ())
+        else HedgedAttempt(Future.successful("second"), () => ())
+      }
+      result.futureValue shouldBe "second"
+    }
+  }
+}
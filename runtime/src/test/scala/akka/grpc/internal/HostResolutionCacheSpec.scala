@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.net.{ InetAddress, UnknownHostException }
+import java.util.concurrent.atomic.{ AtomicInteger, AtomicLong }
+
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.concurrent.ExecutionContext
+import scala.concurrent.duration._
+
+class HostResolutionCacheSpec extends AnyWordSpec with Matchers with ScalaFutures {
+
+  class Fixture {
+    val now = new AtomicLong(0L)
+    val resolutions = new AtomicInteger(0)
+    val cache = new HostResolutionCache(
+      10.seconds,
+      ExecutionContext.global,
+      host => {
+        resolutions.incrementAndGet()
+        if (host == "unknown") throw new UnknownHostException(host)
+        InetAddress.getByAddress(host, Array[Byte](10, 0, 0, 1))
+      },
+      () => now.get())
+  }
+
+  "The HostResolutionCache" should {
+    "cache resolutions for the time to live" in new Fixture {
+      cache.lookup("host").futureValue.getHostName shouldBe "host"
+      cache.lookup("host").futureValue
+      resolutions.get shouldBe 1
+
+      now.set(11.seconds.toNanos)
+      cache.lookup("host").futureValue
+      resolutions.get shouldBe 2
+    }
+
+    "not cache failures" in new Fixture {
+      cache.lookup("unknown").failed.futureValue shouldBe an[UnknownHostException]
+      cache.lookup("unknown").failed.futureValue shouldBe an[UnknownHostException]
+      resolutions.get shouldBe 2
+    }
+  }
+}
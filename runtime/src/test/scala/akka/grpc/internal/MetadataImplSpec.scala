@@ -12,6 +12,8 @@ import org.scalatest.concurrent.ScalaFutures
 import org.scalatest.matchers.should.Matchers
 import org.scalatest.wordspec.AnyWordSpec
 
+import scala.jdk.CollectionConverters._
+
 object MetadataImplSpec {
   val TEXT_ENTRIES = List(("key-a", "value-a"), ("key-c", "value-c"), ("key-b", "value-b"))
 
@@ -94,6 +96,47 @@ class MetadataImplSpec extends AnyWordSpec with Matchers with ScalaFutures {
     }
   }
 
+  "MetadataImpl" should {
+    "convert to io.grpc.Metadata in the order entries were added" in {
+      val base = MetadataImpl.empty
+        .addEntry(DUPE_TEXT_KEY, "a")
+        .addEntry(DUPE_BINARY_KEY, ByteString.fromInts(1))
+        .withCachedConversion()
+      val perCall = base.addEntry(DUPE_TEXT_KEY, "b").addEntry(DUPE_BINARY_KEY, ByteString.fromInts(2))
+
+      val converted = perCall.toGoogleGrpcMetadata()
+      converted.getAll(MetadataImpl.asciiKey(DUPE_TEXT_KEY)).asScala.toList shouldEqual List("a", "b")
+      val binaryValues = converted.getAll(MetadataImpl.binaryKey(DUPE_BINARY_KEY)).asScala.map(ByteString.fromArray)
+      binaryValues.toList shouldEqual List(ByteString.fromInts(1), ByteString.fromInts(2))
+    }
+
+    "return a fresh io.grpc.Metadata for every conversion" in {
+      val base = MetadataImpl.empty.addEntry("key-a", "value-a").withCachedConversion()
+      val first = base.toGoogleGrpcMetadata()
+      first.put(MetadataImpl.asciiKey("key-b"), "value-b")
+
+      val second = base.addEntry("key-c", "value-c").toGoogleGrpcMetadata()
+      second.containsKey(MetadataImpl.asciiKey("key-b")) shouldBe false
+      second.get(MetadataImpl.asciiKey("key-a")) shouldBe "value-a"
+      second.get(MetadataImpl.asciiKey("key-c")) shouldBe "value-c"
+      base.toGoogleGrpcMetadata().containsKey(MetadataImpl.asciiKey("key-b")) shouldBe false
+    }
+
+    "convert the entries added to metadata without a cached conversion" in {
+      val perCall = MetadataImpl.empty.addEntry("key-a", "value-a").addEntry("key-b", "value-b")
+      val converted = perCall.addEntry("key-a", "value-c").toGoogleGrpcMetadata()
+      converted.getAll(MetadataImpl.asciiKey("key-a")).asScala.toList shouldEqual List("value-a", "value-c")
+      converted.get(MetadataImpl.asciiKey("key-b")) shouldBe "value-b"
+    }
+
+    "convert metadata created from a list of entries" in {
+      // entries are kept most recently added first
+      val entries = List(DUPE_TEXT_KEY -> StringEntry("b"), DUPE_TEXT_KEY -> StringEntry("a"))
+      val converted = new MetadataImpl(entries).toGoogleGrpcMetadata()
+      converted.getAll(MetadataImpl.asciiKey(DUPE_TEXT_KEY)).asScala.toList shouldEqual List("a", "b")
+    }
+  }
+
   def testMetadata(m: Metadata): Unit = {
     "return expected text values" in {
       TEXT_ENTRIES.foreach {
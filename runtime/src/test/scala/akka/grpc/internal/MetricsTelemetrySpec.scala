@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import io.grpc.Status
+import org.scalatest.LoneElement
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class MetricsTelemetrySpec extends AnyWordSpec with Matchers with LoneElement {
+
+  "The MetricsTelemetry" should {
+    "record calls, statuses, latency and message sizes per method" in {
+      val telemetry = new MetricsTelemetry(NoOpTelemetry)
+      val first = telemetry.onCallStart(client = false, "test.Service", "Get")
+      val second = telemetry.onCallStart(client = false, "test.Service", "Get")
+      telemetry.onMessageReceived(first, 10)
+      telemetry.onMessageSent(first, 100)
+      telemetry.onCallEnd(first, Status.OK, 1000000L)
+
+      val metrics = telemetry.snapshot().loneElement
+      metrics.client shouldBe false
+      metrics.service shouldBe "test.Service"
+      metrics.method shouldBe "Get"
+      metrics.started shouldBe 2
+      metrics.inFlight shouldBe 1
+      metrics.statusCounts shouldBe Map(Status.Code.OK -> 1L)
+      metrics.latencyNanos.getTotalCount shouldBe 1
+      metrics.receivedMessageBytes.getMaxValue shouldBe 10
+      metrics.sentMessageBytes.getMaxValue shouldBe 100
+
+      telemetry.onCallEnd(second, Status.UNAVAILABLE, 2000000L)
+      val later = telemetry.snapshot().loneElement
+      later.inFlight shouldBe 0
+      later.statusCounts shouldBe Map(Status.Code.OK -> 1L, Status.Code.UNAVAILABLE -> 1L)
+      // the histograms accumulate over snapshots
+      later.latencyNanos.getTotalCount shouldBe 2
+    }
+
+    "keep client and server metrics apart" in {
+      val telemetry = new MetricsTelemetry(NoOpTelemetry)
+      telemetry.onCallStart(client = false, "test.Service", "Get")
+      telemetry.onCallStart(client = true, "test.Service", "Get")
+      telemetry.snapshot().map(_.client).toSet shouldBe Set(true, false)
+    }
+  }
+}
@@ -4,8 +4,13 @@
 
 package akka.grpc.internal
 
+import java.util.{ Collections, List => JList, Map => JMap }
+
 import com.typesafe.config.ConfigFactory
 import akka.actor.ActorSystem
+import akka.grpc.{ GrpcClientSettings, OutlierDetectionSettings }
+import io.grpc.LoadBalancerRegistry
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder
 import org.scalatest._
 import org.scalatest.concurrent._
 import org.scalatest.matchers.should.Matchers
@@ -30,6 +35,58 @@ class NettyClientUtilsSpec extends AnyWordSpec with Matchers with ScalaFutures w
 //
 //      val channel = NettyClientUtils.createChannel(settings)
 //    }
+
+    "not create a service config for the default load balancing" in {
+      NettyClientUtils.loadBalancingServiceConfig(
+        GrpcClientSettings.connectToServiceAt("localhost", 8080).withLoadBalancingPolicy("round_robin")) shouldBe None
+    }
+
+    "wrap the load balancing policy in the outlier detection of grpc-java" in {
+      val settings = GrpcClientSettings
+        .connectToServiceAt("localhost", 8080)
+        .withLoadBalancingPolicy("round_robin")
+        .withOutlierDetection(
+          OutlierDetectionSettings(system.settings.config.getConfig("""akka.grpc.client."*".outlier-detection""")))
+      val serviceConfig = NettyClientUtils.loadBalancingServiceConfig(settings).get
+      val policy = serviceConfig.get("loadBalancingConfig").asInstanceOf[JList[JMap[String, _]]].get(0)
+      val outlierDetection = policy.get("outlier_detection_experimental").asInstanceOf[JMap[String, _]]
+      outlierDetection.get("interval") shouldBe "10.000s"
+      outlierDetection.get("childPolicy") shouldBe
+      JList.of(Collections.singletonMap("round_robin", Collections.emptyMap()))
+
+      // accepted by grpc-java
+      val parsed = LoadBalancerRegistry.getDefaultRegistry
+        .getProvider("outlier_detection_experimental")
+        .parseLoadBalancingPolicyConfig(outlierDetection)
+      parsed.getError shouldBe null
+    }
+
+    "keep the event loop group of grpc-java by default" in {
+      val settings = GrpcClientSettings.connectToServiceAt("localhost", 8080)
+      settings.nettyTransport.customEventLoopGroup shouldBe false
+      val builder = NettyChannelBuilder.forTarget("localhost:8080")
+      NettyEventLoops.configure(builder, settings.nettyTransport, system) shouldBe ((builder, None))
+    }
+
+    "share an event loop group between channels with the same transport" in {
+      val transport = GrpcClientSettings.connectToServiceAt("localhost", 8080).nettyTransport.withTransport("nio")
+      val (_, own) = NettyEventLoops.configure(NettyChannelBuilder.forTarget("localhost:8080"), transport, system)
+      own shouldBe None
+      val group = NettyEventLoops(system).sharedGroup(epoll = false, 0)
+      NettyEventLoops(system).sharedGroup(epoll = false, 0) should be theSameInstanceAs group
+    }
+
+    "give a channel an event loop group of its own if not shared" in {
+      val transport = GrpcClientSettings
+        .connectToServiceAt("localhost", 8080)
+        .nettyTransport
+        .withTransport("nio")
+        .withEventLoopThreads(1)
+        .withShareEventLoopGroup(false)
+      val (_, own) = NettyEventLoops.configure(NettyChannelBuilder.forTarget("localhost:8080"), transport, system)
+      own should not be None
+      own.get.shutdownGracefully()
+    }
   }
 
   override def afterAll(): Unit = {
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import akka.grpc.OutlierDetectionSettings
+import com.typesafe.config.ConfigFactory
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+class OutlierDetectorSpec extends AnyWordSpec with Matchers {
+
+  private val defaults = OutlierDetectionSettings(
+    ConfigFactory.load().getConfig("""akka.grpc.client."*".outlier-detection"""))
+
+  class Probe(settings: OutlierDetectionSettings) {
+    @volatile var now = 0L
+    val ejected = new ConcurrentLinkedQueue[String]()
+    val detector = new OutlierDetector[String](settings.withMaxEjectionPercent(100), ejected.add(_), () => now)
+
+    def calls(endpoint: String, successes: Int, failures: Int, latency: FiniteDuration = Duration.Zero): Unit = {
+      (1 to successes).foreach(_ => detector.record(endpoint, success = true, latency.toNanos))
+      (1 to failures).foreach(_ => detector.record(endpoint, success = false, latency.toNanos))
+    }
+  }
+
+  "The OutlierDetector" should {
+    "eject an endpoint after consecutive failures" in {
+      val probe = new Probe(defaults.withConsecutiveFailures(3))
+      import probe._
+      detector.record("a", success = false, -1)
+      detector.record("a", success = false, -1)
+      detector.record("a", success = true, -1)
+      detector.record("a", success = false, -1)
+      detector.record("a", success = false, -1)
+      detector.isEjected("a") shouldBe false
+      detector.record("a", success = false, -1)
+      detector.isEjected("a") shouldBe true
+      ejected.asScala.toList shouldBe List("a")
+    }
+
+    "eject for longer each time up to the max ejection time" in {
+      val probe = new Probe(defaults.withConsecutiveFailures(1).withEjectionTime(10.seconds, 15.seconds))
+      import probe._
+      detector.record("a", success = false, -1)
+      now = 9.seconds.toNanos
+      detector.isEjected("a") shouldBe true
+      now = 10.seconds.toNanos
+      detector.isEjected("a") shouldBe false
+      detector.evaluate()
+
+      detector.record("a", success = false, -1)
+      now = 24.seconds.toNanos
+      detector.isEjected("a") shouldBe true
+      now = 25.seconds.toNanos
+      detector.isEjected("a") shouldBe false
+    }
+
+    "not eject more than the max ejection percent of the endpoints" in {
+      val ejected = new ConcurrentLinkedQueue[String]()
+      val detector =
+        new OutlierDetector[String](defaults.withConsecutiveFailures(1).withMaxEjectionPercent(50), ejected.add(_))
+      Seq("a", "b", "c", "d").foreach(detector.record(_, success = true, -1))
+      Seq("a", "b", "c").foreach(detector.record(_, success = false, -1))
+      detector.isEjected("a") shouldBe true
+      detector.isEjected("b") shouldBe true
+      detector.isEjected("c") shouldBe false
+      ejected.asScala.toList shouldBe List("a", "b")
+    }
+
+    "find success rate outliers" in {
+      OutlierDetector.successRateOutliers(Vector(1.0, 0.99, 1.0, 0.98, 0.5), 1.9, 5) shouldBe Vector(4)
+      OutlierDetector.successRateOutliers(Vector(1.0, 0.99, 1.0, 0.98, 0.5), 1.9, 6) shouldBe Vector.empty
+      OutlierDetector.successRateOutliers(Vector(1.0, 1.0, 1.0), 1.9, 1) shouldBe Vector.empty
+    }
+
+    "find latency outliers" in {
+      OutlierDetector.latencyOutliers(Vector(10.0, 12.0, 50.0, 11.0), 3.0, 3) shouldBe Vector(2)
+      OutlierDetector.latencyOutliers(Vector(10.0, 12.0, 50.0, 11.0), 3.0, 5) shouldBe Vector.empty
+    }
+
+    "eject latency outliers when evaluating" in {
+      val probe = new Probe(defaults.withLatency(3.0, 3, 10))
+      import probe._
+      calls("a", 10, 0, 10.millis)
+      calls("b", 10, 0, 12.millis)
+      calls("c", 10, 0, 100.millis)
+      detector.evaluate()
+      ejected.asScala.toList shouldBe List("c")
+
+      // not ejected again while ejected
+      calls("c", 10, 0, 100.millis)
+      detector.evaluate()
+      ejected.asScala.toList shouldBe List("c")
+    }
+
+    "forget endpoints that are no longer discovered" in {
+      val probe = new Probe(defaults.withConsecutiveFailures(1))
+      import probe._
+      detector.record("a", success = false, -1)
+      detector.isEjected("a") shouldBe true
+      detector.retain(Set("b"))
+      detector.isEjected("a") shouldBe false
+    }
+  }
+}
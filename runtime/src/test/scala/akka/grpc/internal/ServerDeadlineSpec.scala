@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.grpc.{ CallCancellation, GrpcDeadline }
+import akka.http.scaladsl.model._
+import akka.http.scaladsl.model.HttpEntity.{ Chunk, LastChunk }
+import akka.http.scaladsl.model.headers.RawHeader
+import akka.stream.scaladsl.{ Sink, Source }
+import akka.testkit.TestKit
+import akka.util.ByteString
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{ Millis, Span }
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.{ Future, Promise }
+import scala.concurrent.duration._
+
+class ServerDeadlineSpec
+    extends TestKit(ActorSystem("ServerDeadlineSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(timeout = Span(3000, Millis))
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  def request(timeout: Option[String]) =
+    HttpRequest(
+      HttpMethods.POST,
+      Uri("/test.Service/Get"),
+      headers = timeout.map(RawHeader(ServerDeadline.TimeoutHeader, _)).toList,
+      entity = HttpEntity(GrpcProtocolNative.contentType, ByteString.empty))
+
+  // how a power API handler gets the cancellation
+  def cancellationOf(request: HttpRequest): Option[CallCancellation] =
+    CallCancellation.fromMetadata(new HttpMessageMetadataImpl(request))
+
+  def grpcStatus(response: HttpResponse): Option[String] =
+    response.headers.collectFirst { case h if h.is("grpc-status") => h.value }
+
+  "ServerDeadline" should {
+    "parse grpc-timeout values" in {
+      ServerDeadline.parseTimeout("1H") shouldBe Some(1.hour)
+      ServerDeadline.parseTimeout("2M") shouldBe Some(2.minutes)
+      ServerDeadline.parseTimeout("3S") shouldBe Some(3.seconds)
+      ServerDeadline.parseTimeout("100m") shouldBe Some(100.millis)
+      ServerDeadline.parseTimeout("99999999u") shouldBe Some(99999999.micros)
+      ServerDeadline.parseTimeout("5n") shouldBe Some(5.nanos)
+      ServerDeadline.parseTimeout("123456789m") shouldBe None
+      ServerDeadline.parseTimeout("m") shouldBe None
+      ServerDeadline.parseTimeout("") shouldBe None
+      ServerDeadline.parseTimeout("10x") shouldBe None
+      ServerDeadline.parseTimeout("-1S") shouldBe None
+    }
+
+    "not touch calls without a deadline" in {
+      val response = HttpResponse()
+      var deadline: Option[GrpcDeadline] = Some(GrpcDeadline.after(1.second))
+      ServerDeadline
+        .enforce(request(None)) { r =>
+          deadline = r.attribute(GrpcDeadline.attributeKey)
+          Future.successful(response)
+        }
+        .futureValue shouldBe response
+      deadline shouldBe None
+    }
+
+    "expose the deadline to the handler" in {
+      var deadline: Option[GrpcDeadline] = None
+      ServerDeadline
+        .enforce(request(Some("10S"))) { r =>
+          deadline = r.attribute(GrpcDeadline.attributeKey)
+          Future.successful(HttpResponse())
+        }
+        .futureValue
+      deadline.get.timeLeft should be > 9.seconds
+      deadline.get.isOverdue shouldBe false
+    }
+
+    "reply with DEADLINE_EXCEEDED when the handler does not respond in time" in {
+      val response = ServerDeadline.enforce(request(Some("100m")))(_ => Promise[HttpResponse]().future).futureValue
+      grpcStatus(response) shouldBe Some("4")
+    }
+
+    "end a streamed response with DEADLINE_EXCEEDED when the deadline passes" in {
+      val cancelled = Promise[Unit]()
+      val chunks =
+        Source
+          .single(Chunk(ByteString("first")))
+          .concat(Source.maybe[Chunk])
+          .watchTermination() { (mat, done) =>
+            done.onComplete(_ => cancelled.trySuccess(()))(system.dispatcher)
+            mat
+          }
+      val response = ServerDeadline
+        .enforce(request(Some("200m")))(_ =>
+          Future.successful(HttpResponse(entity = HttpEntity.Chunked(GrpcProtocolNative.contentType, chunks))))
+        .futureValue
+      val parts = response.entity.asInstanceOf[HttpEntity.Chunked].chunks.runWith(Sink.seq).futureValue
+      parts.head shouldBe Chunk(ByteString("first"))
+      parts.last match {
+        case LastChunk(_, trailer) =>
+          trailer.collectFirst { case h if h.is("grpc-status") => h.value } shouldBe Some("4")
+        case other => fail(s"Expected trailers, got $other")
+      }
+      cancelled.future.futureValue
+    }
+
+    "signal cancellation when the deadline passes" in {
+      var cancellation: Option[CallCancellation] = None
+      ServerDeadline
+        .enforce(request(Some("100m"))) { r =>
+          cancellation = cancellationOf(r)
+          cancellation.get.race(Promise[HttpResponse]().future)
+        }
+        .futureValue
+      cancellation.get.cancelled.futureValue shouldBe Done
+      cancellation.get.isCancelled shouldBe true
+    }
+
+    "signal cancellation when the client cancels a streamed response" in {
+      var cancellation: Option[CallCancellation] = None
+      val response = ServerDeadline
+        .enforce(request(None)) { r =>
+          cancellation = cancellationOf(r)
+          Future.successful(
+            HttpResponse(entity =
+              HttpEntity.Chunked(GrpcProtocolNative.contentType, Source.repeat(Chunk(ByteString("element"))))))
+        }
+        .futureValue
+      cancellation.get.isCancelled shouldBe false
+      response.entity.asInstanceOf[HttpEntity.Chunked].chunks.take(2).runWith(Sink.ignore).futureValue
+      cancellation.get.cancelled.futureValue shouldBe Done
+    }
+
+    "signal cancellation when the response of a unary call with a deadline is cancelled" in {
+      var cancellation: Option[CallCancellation] = None
+      val response = ServerDeadline
+        .enforce(request(Some("10S"))) { r =>
+          cancellation = cancellationOf(r)
+          Future.successful(
+            HttpResponse(entity = HttpEntity.Chunked(
+              GrpcProtocolNative.contentType,
+              Source(List(Chunk(ByteString("reply")), LastChunk(trailer = List(RawHeader("grpc-status", "0"))))))))
+        }
+        .futureValue
+      // what Akka HTTP does with the response of a call the client reset
+      response.entity.asInstanceOf[HttpEntity.Chunked].chunks.runWith(Sink.cancelled)
+      cancellation.get.cancelled.futureValue shouldBe Done
+    }
+
+    "only offer the cancellation to calls with a single response message if they have a deadline" in {
+      var withoutDeadline: Option[CallCancellation] = None
+      ServerDeadline
+        .enforce(request(None)) { r =>
+          withoutDeadline = cancellationOf(ServerDeadline.singleResponse(r))
+          Future.successful(HttpResponse())
+        }
+        .futureValue
+      withoutDeadline shouldBe None
+
+      var withDeadline: Option[CallCancellation] = None
+      ServerDeadline
+        .enforce(request(Some("10S"))) { r =>
+          withDeadline = cancellationOf(ServerDeadline.singleResponse(r))
+          Future.successful(HttpResponse())
+        }
+        .futureValue
+      withDeadline should not be empty
+    }
+
+    "not watch calls without a deadline that do not use the cancellation" in {
+      var cancellation: Option[CallCancellation] = None
+      val chunks = Source.repeat(Chunk(ByteString("element")))
+      val response = ServerDeadline
+        .enforce(request(None)) { r =>
+          cancellation = r.attribute(CallCancellation.attributeKey)
+          Future.successful(HttpResponse(entity = HttpEntity.Chunked(GrpcProtocolNative.contentType, chunks)))
+        }
+        .futureValue
+      response.entity.asInstanceOf[HttpEntity.Chunked].chunks shouldBe theSameInstanceAs(chunks)
+      cancellation.get.isTracked shouldBe false
+    }
+
+    "not signal cancellation for a completed call" in {
+      var cancellation: Option[CallCancellation] = None
+      ServerDeadline
+        .enforce(request(Some("10S"))) { r =>
+          cancellation = cancellationOf(r)
+          Future.successful(HttpResponse())
+        }
+        .futureValue
+      cancellation.get.race(Future.successful("result")).futureValue shouldBe "result"
+      cancellation.get.isCancelled shouldBe false
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import akka.actor.ActorSystem
+import akka.http.scaladsl.model._
+import akka.http.scaladsl.model.headers.RawHeader
+import akka.stream.scaladsl.Source
+import akka.testkit.TestKit
+import akka.util.ByteString
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{ Seconds, Span }
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.Future
+import scala.concurrent.duration._
+
+class ServerResponseCacheSpec
+    extends TestKit(ActorSystem("ServerResponseCacheSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  val grpcContentType = ContentType(MediaType.applicationBinary("grpc", MediaType.NotCompressible))
+
+  def request(method: String, body: String): HttpRequest =
+    HttpRequest(
+      HttpMethods.POST,
+      Uri(s"/test.Service/$method"),
+      entity = HttpEntity(grpcContentType, ByteString(body)))
+
+  class CountingHandler(status: String = "0") extends (HttpRequest => Future[HttpResponse]) {
+    val calls = new AtomicInteger(0)
+    override def apply(request: HttpRequest): Future[HttpResponse] = {
+      calls.incrementAndGet()
+      Future.successful(
+        HttpResponse(entity = HttpEntity(grpcContentType, ByteString(s"response-${calls.get}")))
+          .addAttribute(AttributeKeys.trailer, Trailer(List(RawHeader("grpc-status", status)))))
+    }
+  }
+
+  def body(response: HttpResponse): String =
+    response.entity.asInstanceOf[HttpEntity.Strict].data.utf8String
+
+  "The ServerResponseCache" should {
+    "fail calls whose request does not arrive within the request timeout" in {
+      val cache = new ServerResponseCache(Set("test.Service/Get"), 1024, 1.minute, requestTimeout = Some(100.millis))
+      val handler = new CountingHandler
+      val slowRequest = request("Get", "a").withEntity(
+        HttpEntity(grpcContentType, Source.single(ByteString("a")).concat(Source.maybe[ByteString])))
+      cache.wrap(handler).apply(slowRequest).failed.futureValue(timeout(Span(3, Seconds)))
+      handler.calls.get shouldBe 0
+    }
+
+    "serve identical requests to cacheable methods from the cache" in {
+      val cache = new ServerResponseCache(Set("test.Service/Get"), 1024, 1.minute)
+      val handler = new CountingHandler
+      val wrapped = cache.wrap(handler)
+      body(wrapped(request("Get", "a")).futureValue) shouldBe "response-1"
+      body(wrapped(request("Get", "a")).futureValue) shouldBe "response-1"
+      body(wrapped(request("Get", "b")).futureValue) shouldBe "response-2"
+      handler.calls.get shouldBe 2
+      cache.hits shouldBe 1
+      cache.misses shouldBe 2
+    }
+
+    "not cache other methods or failed calls" in {
+      val cache = new ServerResponseCache(Set("test.Service/Get"), 1024, 1.minute)
+      val handler = new CountingHandler
+      val wrapped = cache.wrap(handler)
+      wrapped(request("Put", "a")).futureValue
+      wrapped(request("Put", "a")).futureValue
+      handler.calls.get shouldBe 2
+
+      val failing = new CountingHandler(status = "14")
+      val wrappedFailing = cache.wrap(failing)
+      wrappedFailing(request("Get", "a")).futureValue
+      wrappedFailing(request("Get", "a")).futureValue
+      failing.calls.get shouldBe 2
+    }
+
+    "not cache requests carrying an authorization header" in {
+      val cache = new ServerResponseCache(Set("test.Service/Get"), 1024, 1.minute)
+      val handler = new CountingHandler
+      val wrapped = cache.wrap(handler)
+      def call(auth: String) =
+        body(wrapped(request("Get", "a").addHeader(RawHeader("Authorization", auth))).futureValue)
+      call("Bearer alice") shouldBe "response-1"
+      call("Bearer bob") shouldBe "response-2"
+      handler.calls.get shouldBe 2
+      cache.hits shouldBe 0
+      cache.misses shouldBe 0
+    }
+
+    "only share responses between requests with the same values of the key headers" in {
+      val cache = new ServerResponseCache(
+        Set("test.Service/Get"),
+        1024,
+        1.minute,
+        keyHeaders = Set("Authorization", "x-tenant-id"))
+      val handler = new CountingHandler
+      val wrapped = cache.wrap(handler)
+      def call(auth: String, tenant: String, requestId: String = "1") =
+        body(
+          wrapped(
+            request("Get", "a").withHeaders(
+              RawHeader("authorization", auth),
+              RawHeader("x-tenant-id", tenant),
+              RawHeader("x-request-id", requestId))).futureValue)
+      call("Bearer alice", "one") shouldBe "response-1"
+      // headers that are not key headers are not part of the key
+      call("Bearer alice", "one", requestId = "2") shouldBe "response-1"
+      call("Bearer bob", "one") shouldBe "response-2"
+      call("Bearer alice", "two") shouldBe "response-3"
+      handler.calls.get shouldBe 3
+    }
+
+    "evict the least recently used entries to stay within the size bound" in {
+      // every entry is 1 request byte and 10 response bytes
+      val cache = new ServerResponseCache(Set("test.Service/Get"), 25, 1.minute)
+      val handler = new CountingHandler
+      val wrapped = cache.wrap(handler)
+      Seq("a", "b", "a", "c").foreach(r => wrapped(request("Get", r)).futureValue)
+      cache.evictions shouldBe 1
+      cache.sizeBytes shouldBe 22
+      wrapped(request("Get", "a")).futureValue
+      handler.calls.get shouldBe 3
+    }
+  }
+}
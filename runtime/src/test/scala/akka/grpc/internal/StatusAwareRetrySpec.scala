@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import akka.grpc.GrpcRetryPolicy
+import io.grpc.{ Metadata, Status }
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+import scala.concurrent.duration._
+
+class StatusAwareRetrySpec extends AnyWordSpec with Matchers {
+
+  private val policy = GrpcRetryPolicy(3).withInitialBackoff(100.millis).withMaxBackoff(1.second)
+
+  private def failure(status: Status, pushback: Option[String] = None) = {
+    val trailers = new Metadata()
+    pushback.foreach(trailers.put(MetadataImpl.asciiKey(StatusAwareRetry.RetryPushbackHeader), _))
+    status.asRuntimeException(trailers)
+  }
+
+  "StatusAwareRetry" should {
+    "retry a retryable status code with a bounded backoff" in {
+      val delay = StatusAwareRetry.retryDelay(policy, None, 1, failure(Status.UNAVAILABLE))
+      delay should not be empty
+      delay.get should be <= 100.millis
+    }
+
+    "not retry other status codes" in {
+      StatusAwareRetry.retryDelay(policy, None, 1, failure(Status.INVALID_ARGUMENT)) shouldBe None
+      StatusAwareRetry.retryDelay(policy, None, 1, new RuntimeException("boom")) shouldBe None
+    }
+
+    "retry the status codes configured in the policy" in {
+      val custom = policy.withRetryableStatusCodes(Status.Code.RESOURCE_EXHAUSTED)
+      StatusAwareRetry.retryDelay(custom, None, 1, failure(Status.RESOURCE_EXHAUSTED)) should not be empty
+      StatusAwareRetry.retryDelay(custom, None, 1, failure(Status.UNAVAILABLE)) shouldBe None
+    }
+
+    "not retry when the attempts are used up" in {
+      StatusAwareRetry.retryDelay(policy, None, 3, failure(Status.UNAVAILABLE)) shouldBe None
+    }
+
+    "use the pushback from the server" in {
+      StatusAwareRetry.retryDelay(policy, None, 1, failure(Status.UNAVAILABLE, Some("2500"))) shouldBe Some(
+        2500.millis)
+    }
+
+    "not retry for a negative or malformed pushback" in {
+      StatusAwareRetry.retryDelay(policy, None, 1, failure(Status.UNAVAILABLE, Some("-1"))) shouldBe None
+      StatusAwareRetry.retryDelay(policy, None, 1, failure(Status.UNAVAILABLE, Some("soon"))) shouldBe None
+    }
+
+    "not retry when the retry budget is exhausted" in {
+      val budget = new RetryBudget(maxTokens = 4, tokenRatio = 0.5)
+      // 4 -> 3 tokens, above the threshold of 2
+      StatusAwareRetry.retryDelay(policy, Some(budget), 1, failure(Status.UNAVAILABLE)) should not be empty
+      // 3 -> 2 tokens
+      StatusAwareRetry.retryDelay(policy, Some(budget), 1, failure(Status.UNAVAILABLE)) shouldBe None
+      // successful calls fill the budget up again, 2 -> 3.5 tokens
+      (1 to 3).foreach(_ => budget.recordSuccess())
+      StatusAwareRetry.retryDelay(policy, Some(budget), 1, failure(Status.UNAVAILABLE)) should not be empty
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import akka.actor.ActorSystem
+import akka.stream.testkit.scaladsl.{ TestSink, TestSource }
+import akka.testkit.TestKit
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.Eventually
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.duration._
+import scala.jdk.CollectionConverters._
+
+class StreamFlowInstrumentationSpec
+    extends TestKit(ActorSystem("StreamFlowInstrumentationSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with Eventually
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  final case class Report(outbound: Boolean, elements: Long, upstreamWait: Long, demandWait: Long, maxBuffered: Int)
+
+  class RecordingTelemetry extends TelemetrySpi {
+    val reports = new ConcurrentLinkedQueue[Report]()
+    override def streamFlowReportInterval: Option[FiniteDuration] = Some(1.hour)
+    override def onStreamFlow(
+        context: AnyRef,
+        outbound: Boolean,
+        elements: Long,
+        upstreamWaitNanos: Long,
+        demandWaitNanos: Long,
+        maxBuffered: Int,
+        intervalNanos: Long): Unit =
+      reports.add(Report(outbound, elements, upstreamWaitNanos, demandWaitNanos, maxBuffered))
+  }
+
+  def instrumented(telemetry: TelemetrySpi, context: AnyRef, buffer: StreamFlowBuffer) =
+    TestSource[Int]()
+      .via(new StreamFlowInstrumentation[Int](telemetry, () => context, outbound = true, 1.hour, buffer))
+      .toMat(TestSink[Int]())((_, _))
+      .run()
+
+  "StreamFlowInstrumentation" should {
+    "report the time waiting for upstream and for demand when the stream completes" in {
+      val telemetry = new RecordingTelemetry
+      val buffer = new StreamFlowBuffer
+      val (upstream, downstream) = instrumented(telemetry, "context", buffer)
+
+      downstream.request(1)
+      upstream.expectRequest()
+      Thread.sleep(50)
+      upstream.sendNext(1)
+      downstream.expectNext(1)
+      buffer.recordBuffered(3)
+      Thread.sleep(50)
+      downstream.request(1)
+      upstream.sendNext(2)
+      downstream.expectNext(2)
+      upstream.sendComplete()
+      downstream.expectComplete()
+
+      eventually {
+        val report = telemetry.reports.asScala.toList match {
+          case single :: Nil => single
+          case other         => fail(s"Expected a single report, got $other")
+        }
+        report.outbound shouldBe true
+        report.elements shouldBe 2
+        report.upstreamWait should be >= 50.millis.toNanos
+        report.demandWait should be >= 50.millis.toNanos
+        report.maxBuffered shouldBe 3
+      }
+    }
+
+    "not report without a call context" in {
+      val telemetry = new RecordingTelemetry
+      val (upstream, downstream) = instrumented(telemetry, null, null)
+
+      downstream.request(1)
+      upstream.sendNext(1)
+      downstream.expectNext(1)
+      upstream.sendComplete()
+      downstream.expectComplete()
+
+      Thread.sleep(50)
+      telemetry.reports.isEmpty shouldBe true
+    }
+  }
+}
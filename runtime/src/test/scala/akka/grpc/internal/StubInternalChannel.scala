@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.io.{ ByteArrayInputStream, InputStream }
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.{ CompletionStage, Executor }
+import java.util.concurrent.atomic.AtomicInteger
+
+import akka.{ Done, NotUsed }
+import akka.grpc.{ GrpcResponseMetadata, GrpcSingleResponse }
+import akka.grpc.scaladsl.{ Metadata, MetadataBuilder }
+import akka.stream.scaladsl.Source
+import io.grpc.{ CallCredentials, CallOptions, MethodDescriptor }
+
+import scala.concurrent.{ ExecutionContext, Future, Promise }
+import scala.jdk.FutureConverters._
+
+/**
+ * An [[InternalChannel]] for the tests of the channel wrappers, counting the calls it gets and answering them with
+ * `respond`, which never completes by default.
+ */
+class StubInternalChannel(@volatile var respond: Any => Future[Any] = _ => Promise[Any]().future)
+    extends InternalChannel {
+  val calls = new AtomicInteger(0)
+  val shutdowns = new AtomicInteger(0)
+  val closed = Promise[Done]()
+  @volatile var responseTrailers: Metadata = MetadataBuilder.empty
+
+  override def invoke[I, O](
+      request: I,
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      options: CallOptions): Future[O] = {
+    calls.incrementAndGet()
+    respond(request).asInstanceOf[Future[O]]
+  }
+
+  override def invokeWithMetadata[I, O](
+      request: I,
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      options: CallOptions): Future[GrpcSingleResponse[O]] = {
+    calls.incrementAndGet()
+    val trailersOfResponse = responseTrailers
+    respond(request).map { response =>
+      new GrpcSingleResponse[O] {
+        def value: O = response.asInstanceOf[O]
+        def getValue(): O = value
+        def headers: Metadata = MetadataBuilder.empty
+        def getHeaders(): akka.grpc.javadsl.Metadata = new JavaMetadataImpl(headers)
+        def trailers: Future[Metadata] = Future.successful(trailersOfResponse)
+        def getTrailers(): CompletionStage[akka.grpc.javadsl.Metadata] =
+          trailers.map[akka.grpc.javadsl.Metadata](new JavaMetadataImpl(_))(ExecutionContext.parasitic).asJava
+      }
+    }(ExecutionContext.parasitic)
+  }
+
+  override def invokeWithMetadata[I, O](
+      source: Source[I, NotUsed],
+      headers: MetadataImpl,
+      descriptor: MethodDescriptor[I, O],
+      streamingResponse: Boolean,
+      options: CallOptions): Source[O, Future[GrpcResponseMetadata]] = {
+    calls.incrementAndGet()
+    Source
+      .future(respond(source))
+      .asInstanceOf[Source[O, NotUsed]]
+      .mapMaterializedValue(_ => Promise[GrpcResponseMetadata]().future)
+  }
+
+  override def shutdown(): Unit = {
+    shutdowns.incrementAndGet()
+    closed.trySuccess(Done)
+  }
+
+  override def done: Future[Done] = closed.future
+}
+
+object StubInternalChannel {
+  object StringMarshaller extends MethodDescriptor.Marshaller[String] {
+    override def stream(value: String): InputStream = new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8))
+    override def parse(stream: InputStream): String = new String(stream.readAllBytes(), StandardCharsets.UTF_8)
+  }
+
+  class StubCredentials extends CallCredentials {
+    override def applyRequestMetadata(
+        requestInfo: CallCredentials.RequestInfo,
+        appExecutor: Executor,
+        applier: CallCredentials.MetadataApplier): Unit = ()
+  }
+
+  def descriptor(name: String, safe: Boolean = false): MethodDescriptor[String, String] =
+    MethodDescriptor
+      .newBuilder(StringMarshaller, StringMarshaller)
+      .setType(MethodDescriptor.MethodType.UNARY)
+      .setFullMethodName(MethodDescriptor.generateFullMethodName("test.Service", name))
+      .setSafe(safe)
+      .build()
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.internal
+
+import java.net.{ InetSocketAddress, SocketAddress }
+import java.util.{ Collections, List => JList }
+
+import io.grpc.{
+  Attributes,
+  ChannelLogger,
+  ConnectivityState,
+  ConnectivityStateInfo,
+  EquivalentAddressGroup,
+  LoadBalancer,
+  LoadBalancerRegistry,
+  ManagedChannel,
+  Status
+}
+import io.grpc.LoadBalancer.{ CreateSubchannelArgs, ResolvedAddresses, Subchannel, SubchannelPicker }
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpec
+
+class ZoneAwareWeightedLoadBalancerSpec extends AnyWordSpec with Matchers {
+  import ZoneAwareWeightedLoadBalancer._
+
+  class StubSubchannel(args: CreateSubchannelArgs) extends Subchannel {
+    var listener: LoadBalancer.SubchannelStateListener = _
+    var isShutdown = false
+    override def start(listener: LoadBalancer.SubchannelStateListener): Unit = this.listener = listener
+    override def shutdown(): Unit = isShutdown = true
+    override def requestConnection(): Unit = ()
+    override def getAllAddresses: JList[EquivalentAddressGroup] = args.getAddresses
+    override def updateAddresses(addresses: JList[EquivalentAddressGroup]): Unit = ()
+    override def getAttributes: Attributes = Attributes.EMPTY
+  }
+
+  class StubHelper extends LoadBalancer.Helper {
+    var subchannels = Vector.empty[StubSubchannel]
+    var nameResolutionRefreshes = 0
+    var state: ConnectivityState = _
+    override def createSubchannel(args: CreateSubchannelArgs): Subchannel = {
+      val subchannel = new StubSubchannel(args)
+      subchannels :+= subchannel
+      subchannel
+    }
+    override def updateBalancingState(newState: ConnectivityState, newPicker: SubchannelPicker): Unit =
+      state = newState
+    override def refreshNameResolution(): Unit = nameResolutionRefreshes += 1
+    override def createOobChannel(eag: EquivalentAddressGroup, authority: String): ManagedChannel =
+      throw new UnsupportedOperationException
+    override def getAuthority: String = "localhost"
+    override def getChannelLogger: ChannelLogger = throw new UnsupportedOperationException
+  }
+
+  def resolved(addresses: SocketAddress*): ResolvedAddresses =
+    ResolvedAddresses
+      .newBuilder()
+      .setAddresses(JList.of(addresses.map(new EquivalentAddressGroup(_)): _*))
+      .setAttributes(Attributes.EMPTY)
+      .build()
+
+  "The ZoneAwareWeightedLoadBalancer" should {
+    "pick the targets according to their weights" in {
+      val picks = schedule(Vector(1, 3, 2))
+      picks.size shouldBe 6
+      picks.count(_ == 0) shouldBe 1
+      picks.count(_ == 1) shouldBe 3
+      picks.count(_ == 2) shouldBe 2
+    }
+
+    "spread the picks of a target over the schedule" in {
+      schedule(Vector(5, 1, 1)) shouldBe Vector(0, 0, 1, 0, 2, 0, 0)
+    }
+
+    "keep the schedule short for weights with a common divisor" in {
+      schedule(Vector(100, 200)) shouldBe Vector(1, 0, 1)
+      schedule(Vector(1, 1, 1)) shouldBe Vector(0, 1, 2)
+    }
+
+    "prefer the targets in the local zone" in {
+      val targets = Vector("a1" -> Some("a"), "b1" -> Some("b"), "a2" -> Some("a"), "x" -> None)
+      preferLocalZone(targets, Some("a"))(_._2).map(_._1) shouldBe Vector("a1", "a2")
+      preferLocalZone(targets, Some("c"))(_._2).map(_._1) shouldBe Vector("a1", "b1", "a2", "x")
+      preferLocalZone(targets, None)(_._2).map(_._1) shouldBe Vector("a1", "b1", "a2", "x")
+    }
+
+    "create one subchannel for a target listed twice" in {
+      val helper = new StubHelper
+      val balancer = new ZoneAwareWeightedLoadBalancer(helper)
+      val target = new InetSocketAddress("10.0.0.1", 8080)
+      balancer.acceptResolvedAddresses(resolved(target, target)) shouldBe Status.OK
+      helper.subchannels.size shouldBe 1
+      balancer.acceptResolvedAddresses(resolved(target))
+      helper.subchannels.size shouldBe 1
+      helper.subchannels.head.isShutdown shouldBe false
+      balancer.shutdown()
+      helper.subchannels.head.isShutdown shouldBe true
+    }
+
+    "refresh the name resolution when a target fails" in {
+      val helper = new StubHelper
+      val balancer = new ZoneAwareWeightedLoadBalancer(helper)
+      balancer.acceptResolvedAddresses(resolved(new InetSocketAddress("10.0.0.1", 8080)))
+      helper.nameResolutionRefreshes shouldBe 0
+      helper.subchannels.head.listener.onSubchannelState(ConnectivityStateInfo.forTransientFailure(Status.UNAVAILABLE))
+      helper.nameResolutionRefreshes shouldBe 1
+      helper.state shouldBe ConnectivityState.TRANSIENT_FAILURE
+    }
+
+    "parse the local zone from the policy config" in {
+      val provider = new Provider
+      provider.parseLoadBalancingPolicyConfig(Collections.singletonMap("localZone", "a")).getConfig shouldBe Config(
+        Some("a"))
+      provider.parseLoadBalancingPolicyConfig(Collections.emptyMap()).getConfig shouldBe Config(None)
+    }
+
+    "register the policy" in {
+      register()
+      register()
+      LoadBalancerRegistry.getDefaultRegistry.getProvider(PolicyName) should not be null
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2025 Lightbend Inc. <https://www.lightbend.com>
+ */
+
+package akka.grpc.scaladsl
+
+import java.util.concurrent.ThreadLocalRandom
+
+import akka.actor.ActorSystem
+import akka.grpc.{ GrpcProtocol, ProtobufSerializer }
+import akka.grpc.internal.{ AbstractGrpcProtocol, GrpcProtocolNative, Identity, MarshallingSettings }
+import akka.stream.Materializer
+import akka.stream.scaladsl.{ Sink, Source }
+import akka.testkit.TestKit
+import akka.util.ByteString
+import com.typesafe.config.ConfigFactory
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+class GrpcMarshallingSpec
+    extends TestKit(ActorSystem("GrpcMarshallingSpec"))
+    with AnyWordSpecLike
+    with Matchers
+    with ScalaFutures
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  implicit val mat: Materializer = Materializer(system)
+  implicit val reader: GrpcProtocol.GrpcProtocolReader = GrpcProtocolNative.newReader(Identity)
+
+  // slow and uneven deserialization to make the parallel deserializations complete out of order
+  implicit val serializer: ProtobufSerializer[Int] = new ProtobufSerializer[Int] {
+    override def serialize(t: Int): ByteString = ByteString(t.toString)
+    override def deserialize(bytes: ByteString): Int = {
+      Thread.sleep(ThreadLocalRandom.current().nextInt(5).toLong)
+      bytes.utf8String.toInt
+    }
+  }
+
+  def frames(numbers: Seq[Int]): Source[ByteString, Any] =
+    Source(numbers.map(n =>
+      AbstractGrpcProtocol.encodeFrameData(ByteString(n.toString), isCompressed = false, isTrailer = false)))
+
+  "GrpcMarshalling" should {
+    "deserialize a stream in parallel keeping the order" in {
+      val messages = GrpcMarshalling.unmarshalStream(frames(1 to 100), parallelism = 8).futureValue
+      messages.runWith(Sink.seq).futureValue shouldBe (1 to 100)
+    }
+
+    "use the configured parallelism per method" in {
+      val settings = new MarshallingSettings(ConfigFactory.parseString("""
+          marshal-stream-parallelism = 1
+          unmarshal-stream-parallelism {
+            default = 2
+            "com.example.IngestService/Upload" = 8
+          }
+          """))
+      settings.unmarshalStreamParallelism("com.example.IngestService", "Upload") shouldBe 8
+      settings.unmarshalStreamParallelism("com.example.IngestService", "Other") shouldBe 2
+    }
+  }
+}